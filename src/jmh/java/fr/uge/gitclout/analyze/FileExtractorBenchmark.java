@@ -0,0 +1,136 @@
+package fr.uge.gitclout.analyze;
+
+import fr.uge.gitclout.SyntheticRepositoryGenerator;
+import fr.uge.gitclout.analyze.language.Language;
+import fr.uge.gitclout.analyze.language.LanguageRegistry;
+import fr.uge.gitclout.analyze.language.LineClassifier;
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.api.errors.GitAPIException;
+import org.eclipse.jgit.diff.RawText;
+import org.eclipse.jgit.treewalk.TreeWalk;
+import org.eclipse.jgit.util.IntList;
+import org.eclipse.jgit.util.RawParseUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the per-line and per-file work of {@link FileExtractor}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FileExtractorBenchmark {
+
+    @Param({"4"})
+    int authors;
+
+    @Param({"500", "50000"})
+    int linesPerFile;
+
+    private Path directory;
+    private Git git;
+    private FileExtractor extractor;
+    private final Language java = LanguageRegistry.defaults().byName("java").orElseThrow();
+    private final LineClassifier classifier = LineClassifier.of(java);
+    private RawText text;
+    private final List<String> files = new ArrayList<>();
+    private int nextFile;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, GitAPIException {
+        directory = Files.createTempDirectory("gitclout-benchmark");
+        Path repository = new SyntheticRepositoryGenerator()
+                .commits(authors * 5).tags(1).authors(authors).files(20)
+                .fileSize(Math.min(linesPerFile, 500), Math.min(linesPerFile, 500)).language("java", 1)
+                .generate(directory.resolve("benchmark.git"));
+        git = Git.open(repository.toFile());
+        String tag = "refs/tags/" + SyntheticRepositoryGenerator.tagName(0);
+        extractor = new FileExtractor(tag, git);
+        try (TreeWalk treeWalk = new TreeWalk(git.getRepository())) {
+            treeWalk.addTree(git.getRepository().parseCommit(git.getRepository().resolve(tag)).getTree());
+            treeWalk.setRecursive(true);
+            while (treeWalk.next()) files.add(treeWalk.getPathString());
+        }
+        List<String> lines = SyntheticRepositoryGenerator.lines("java", linesPerFile, new Random(42));
+        text = new RawText(String.join("\n", lines).concat("\n").getBytes(StandardCharsets.UTF_8));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        git.close();
+        SyntheticRepositoryGenerator.delete(directory);
+    }
+
+    /**
+     * Classifies every line of a file the way the extractor does, on the raw bytes of the blame result.
+     */
+    @Benchmark
+    public boolean processLine() {
+        byte[] content = text.getRawContent();
+        IntList offsets = RawParseUtils.lineMap(content, 0, content.length);
+        boolean inMultilineComment = false;
+        for (int i = 0; i < text.size(); i++) {
+            inMultilineComment = extractor.processLine(content, offsets.get(i + 1), offsets.get(i + 2), "Author0", classifier, inMultilineComment);
+        }
+        return inMultilineComment;
+    }
+
+    @Benchmark
+    public void determineLineType(Blackhole blackhole) {
+        byte[] content = text.getRawContent();
+        IntList offsets = RawParseUtils.lineMap(content, 0, content.length);
+        for (int i = 0; i < text.size(); i++) {
+            blackhole.consume(FileExtractor.determineLineType(content, offsets.get(i + 1), offsets.get(i + 2), classifier, false));
+        }
+    }
+
+    /**
+     * Baseline of {@link #determineLineType(Blackhole)}: decodes each line into a {@code String} before searching it.
+     */
+    @Benchmark
+    public void determineDecodedLineType(Blackhole blackhole) {
+        for (int i = 0; i < text.size(); i++) {
+            String line = text.getString(i);
+            blackhole.consume(line.contains("//") ? "comments" : java.displayName());
+        }
+    }
+
+    @Benchmark
+    public Contributor accumulateContributions() {
+        Contributor contributor = new Contributor("Author0");
+        for (int i = 0; i < linesPerFile; i++) {
+            FileExtractor.updateContributorContributions(contributor, i % 3 == 0 ? "comments" : "java");
+        }
+        return contributor;
+    }
+
+    @Benchmark
+    public String blameFile() throws GitAPIException {
+        nextFile = (nextFile + 1) % files.size();
+        return extractor.analyzeSingleFile(files.get(nextFile));
+    }
+}
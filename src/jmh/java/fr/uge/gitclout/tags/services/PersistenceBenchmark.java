@@ -0,0 +1,105 @@
+package fr.uge.gitclout.tags.services;
+
+import fr.uge.gitclout.GitcloutApplication;
+import fr.uge.gitclout.SyntheticRepositoryGenerator;
+import fr.uge.gitclout.analyze.Contributor;
+import fr.uge.gitclout.analyze.jpa.ContributorRequest;
+import fr.uge.gitclout.analyze.jpa.ContributorRow;
+import fr.uge.gitclout.analyze.jpa.ContributorStorage;
+import fr.uge.gitclout.analyze.service.ContributorWriter;
+import fr.uge.gitclout.analyze.service.NameDictionary;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the write path of an analyzed tag: building the contributor rows and saving them in SQLite.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PersistenceBenchmark {
+
+    private static final String PROJECT = "benchmark.git_00000000-000000";
+    private static final List<String> LANGUAGES = List.of("java", "python", "javascript", "comments", "css", "readme");
+
+    @Param({"200"})
+    int contributorCount;
+
+    private Path directory;
+    private ConfigurableApplicationContext context;
+    private ContributorRequest contributorRequests;
+    private ContributorWriter contributorWriter;
+    private NameDictionary names;
+    private Map<String, Contributor> contributors;
+    private int tag;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("gitclout-benchmark");
+        context = new SpringApplicationBuilder(GitcloutApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties("spring.datasource.url=jdbc:sqlite:" + directory.resolve("benchmark.db"),
+                        "spring.jpa.show-sql=false", "logging.level.root=WARN")
+                .run();
+        contributorRequests = context.getBean(ContributorRequest.class);
+        contributorWriter = context.getBean(ContributorWriter.class);
+        names = context.getBean(NameDictionary.class);
+        contributors = new HashMap<>();
+        for (int i = 0; i < contributorCount; i++) {
+            var contributor = new Contributor("Author" + i);
+            for (int language = 0; language <= i % LANGUAGES.size(); language++) {
+                contributor.getContributions().put(LANGUAGES.get(language), 10 + i * language);
+            }
+            contributors.put(contributor.name(), contributor);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        context.close();
+        SyntheticRepositoryGenerator.delete(directory);
+    }
+
+    @Benchmark
+    public List<ContributorRow> collectContributorRows() {
+        return TagService.collectContributorRows(contributors, "refs/tags/v1.0.0", PROJECT);
+    }
+
+    @Benchmark
+    public Iterable<ContributorStorage> saveContributors() {
+        return contributorRequests.saveAll(TagService.contributorRows(contributors, "refs/tags/v" + tag++, PROJECT).map(names::encode).toList());
+    }
+
+    @Benchmark
+    public int writeContributors() {
+        try (ContributorWriter.Batch batch = contributorWriter.open()) {
+            TagService.contributorRows(contributors, "refs/tags/v" + tag++, PROJECT).forEach(batch::add);
+            return batch.rows();
+        }
+    }
+}
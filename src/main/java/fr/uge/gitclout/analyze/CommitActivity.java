@@ -0,0 +1,155 @@
+package fr.uge.gitclout.analyze;
+
+import fr.uge.gitclout.analyze.language.Language;
+import fr.uge.gitclout.analyze.language.LanguageRegistry;
+import org.eclipse.jgit.diff.DiffEntry;
+import org.eclipse.jgit.diff.DiffFormatter;
+import org.eclipse.jgit.diff.Edit;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.revwalk.RevWalk;
+import org.eclipse.jgit.util.io.DisabledOutputStream;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Lines added and removed per author and language between two tags: every commit reachable from the
+ * tag but not from the previous one is diffed against its first parent, in parallel over commits on an
+ * executor shared by the tags.
+ * Merge commits are skipped, since their changes are counted in the commits they merge. Files are
+ * classified by path, and the exclusions apply as in {@link FileExtractor}.
+ * The cost depends on the size of the changes, not on the size of the repository.
+ */
+public class CommitActivity {
+
+    /**
+     * Activity of an author in a language.
+     *
+     * @param contributorName Name of the author
+     * @param language        Display name of the language
+     * @param commits         Number of commits changing files of the language
+     * @param linesAdded      Number of lines added
+     * @param linesRemoved    Number of lines removed
+     */
+    public record Activity(String contributorName, String language, int commits, long linesAdded, long linesRemoved) {
+
+        private Activity merge(Activity other) {
+            return new Activity(contributorName, language, commits + other.commits,
+                    linesAdded + other.linesAdded, linesRemoved + other.linesRemoved);
+        }
+    }
+
+    private record Key(String contributorName, String language) {
+    }
+
+    private final Repository repository;
+    private final ObjectId tag;
+    private final ObjectId previousTag;
+    private final LanguageRegistry languages;
+    private final PathExclusions exclusions;
+    private final ExecutorService executor;
+
+    /**
+     * @param tagName         Tag ending the interval
+     * @param previousTagName Tag starting the interval, null to count every commit of the tag
+     * @param repository      Repository of the project
+     * @param languages       Languages to classify the files with
+     * @param exclusions      Paths left out
+     * @param executor        Executor the commits are diffed on
+     * @throws IOException If a tag cannot be resolved
+     */
+    public CommitActivity(String tagName, String previousTagName, Repository repository, LanguageRegistry languages, PathExclusions exclusions, ExecutorService executor) throws IOException {
+        this.repository = Objects.requireNonNull(repository);
+        this.executor = Objects.requireNonNull(executor);
+        this.languages = Objects.requireNonNull(languages);
+        this.exclusions = Objects.requireNonNull(exclusions);
+        this.tag = Objects.requireNonNull(repository.resolve(tagName), "Error: Unknown tag " + tagName);
+        this.previousTag = previousTagName == null ? null
+                : Objects.requireNonNull(repository.resolve(previousTagName), "Error: Unknown tag " + previousTagName);
+    }
+
+    /**
+     * Diffs all the commits of the interval.
+     *
+     * @return Activity of each author in each language
+     * @throws InterruptedException If the analysis is interrupted
+     */
+    public List<Activity> analyze() throws InterruptedException {
+        List<Callable<Map<Key, Activity>>> tasks = new ArrayList<>();
+        for (RevCommit commit : commits()) {
+            tasks.add(() -> analyzeCommit(commit));
+        }
+        Map<Key, Activity> activities = new HashMap<>();
+        List<Future<Map<Key, Activity>>> futures = executor.invokeAll(tasks);
+        try {
+            for (Future<Map<Key, Activity>> future : futures) {
+                future.get().forEach((key, activity) -> activities.merge(key, activity, Activity::merge));
+            }
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Error: Diffing commits", e);
+        } finally {
+            futures.forEach(future -> future.cancel(true));
+        }
+        return List.copyOf(activities.values());
+    }
+
+    /**
+     * Lists the commits of the interval, merges left out.
+     *
+     * @return Commits reachable from the tag but not from the previous one
+     */
+    private List<RevCommit> commits() {
+        List<RevCommit> commits = new ArrayList<>();
+        try (RevWalk walk = new RevWalk(repository)) {
+            walk.markStart(walk.parseCommit(tag));
+            if (previousTag != null) walk.markUninteresting(walk.parseCommit(previousTag));
+            for (RevCommit commit : walk) {
+                if (commit.getParentCount() <= 1) commits.add(commit);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Error: Walking commits", e);
+        }
+        return commits;
+    }
+
+    /**
+     * Diffs a commit against its first parent, or against an empty tree for a root commit.
+     *
+     * @param commit Commit to diff
+     * @return Activity of the author of the commit in each language it changes
+     * @throws IOException If an object cannot be read
+     */
+    private Map<Key, Activity> analyzeCommit(RevCommit commit) throws IOException {
+        String author = commit.getAuthorIdent().getName();
+        Map<String, long[]> lines = new HashMap<>();
+        try (DiffFormatter formatter = new DiffFormatter(DisabledOutputStream.INSTANCE)) {
+            formatter.setRepository(repository);
+            formatter.setDetectRenames(true);
+            formatter.setPathFilter(exclusions);
+            ObjectId parent = commit.getParentCount() == 0 ? null : commit.getParent(0).getId();
+            for (DiffEntry entry : formatter.scan(parent, commit.getTree().getId())) {
+                String path = entry.getChangeType() == DiffEntry.ChangeType.DELETE ? entry.getOldPath() : entry.getNewPath();
+                Language language = languages.classify(path);
+                if (language == null) continue;
+                long[] counts = lines.computeIfAbsent(language.displayName(), key -> new long[2]);
+                for (Edit edit : formatter.toFileHeader(entry).toEditList()) {
+                    counts[0] += edit.getLengthB();
+                    counts[1] += edit.getLengthA();
+                }
+            }
+        }
+        Map<Key, Activity> activities = new HashMap<>();
+        lines.forEach((language, counts) -> activities.put(new Key(author, language), new Activity(author, language, 1, counts[0], counts[1])));
+        return activities;
+    }
+}
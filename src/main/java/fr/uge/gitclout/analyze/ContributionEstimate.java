@@ -0,0 +1,14 @@
+package fr.uge.gitclout.analyze;
+
+/**
+ * Lines of one contributor and line type extrapolated from a sample of the files of a tag.
+ *
+ * @param contributorName Name of the contributor
+ * @param lineType        Language display name, or "comments"
+ * @param lines           Estimated number of lines in the whole tag
+ * @param lowerBound      Lower bound of the 95% confidence interval, never below the lines actually blamed
+ * @param upperBound      Upper bound of the 95% confidence interval
+ */
+public record ContributionEstimate(String contributorName, String lineType, int lines, int lowerBound, int upperBound) {
+
+}
@@ -0,0 +1,18 @@
+package fr.uge.gitclout.analyze;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Attribution of a tag extrapolated from a {@link StratifiedSample}.
+ *
+ * @param sampledFiles Number of files blamed
+ * @param totalFiles   Number of files of the tag
+ * @param estimates    Estimated lines of each contributor and line type
+ */
+public record Extrapolation(int sampledFiles, int totalFiles, List<ContributionEstimate> estimates) {
+
+    public Extrapolation {
+        estimates = List.copyOf(Objects.requireNonNull(estimates));
+    }
+}
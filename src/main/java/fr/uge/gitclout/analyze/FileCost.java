@@ -0,0 +1,13 @@
+package fr.uge.gitclout.analyze;
+
+/**
+ * Cost of analyzing one file of a tag.
+ *
+ * @param path       Path of the file
+ * @param blameNanos Time spent blaming the file
+ * @param size       Size of the file in bytes
+ * @param lines      Number of lines of the file
+ */
+public record FileCost(String path, long blameNanos, long size, int lines) {
+
+}
@@ -1,37 +1,79 @@
 package fr.uge.gitclout.analyze;
 
 import fr.uge.gitclout.analyze.language.Language;
+import fr.uge.gitclout.analyze.language.LanguageRegistry;
+import fr.uge.gitclout.analyze.language.LineClassifier;
+import fr.uge.gitclout.metrics.BlameEvent;
+import fr.uge.gitclout.metrics.IngestMetrics;
+import fr.uge.gitclout.metrics.TagAnalysisEvent;
 import org.eclipse.jgit.api.BlameCommand;
 import org.eclipse.jgit.api.Git;
 import org.eclipse.jgit.api.errors.GitAPIException;
 import org.eclipse.jgit.blame.BlameResult;
+import org.eclipse.jgit.diff.RawText;
+import org.eclipse.jgit.lib.Repository;
 import org.eclipse.jgit.revwalk.RevCommit;
-import org.eclipse.jgit.revwalk.RevTree;
 import org.eclipse.jgit.revwalk.RevWalk;
-import org.eclipse.jgit.treewalk.TreeWalk;
+import org.eclipse.jgit.util.IntList;
+import org.eclipse.jgit.util.RawParseUtils;
 
 import java.io.IOException;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
-import java.util.Set;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.ReentrantLock;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-import java.util.stream.Collectors;
 
 public class FileExtractor {
     private final Git repository;
+    private final String projectName;
+    private final String tagName;
     private final RevCommit commit;
     private ConcurrentHashMap<String, Contributor> contributors = new ConcurrentHashMap<>();
     private final ReentrantLock lock = new ReentrantLock();
     private final ArrayList<Callable<String>> callables = new ArrayList<>();
+    private final IngestMetrics metrics;
+    private final LanguageRegistry languages;
+    private final PathExclusions exclusions;
+    private final Map<String, Language> fileLanguages = new ConcurrentHashMap<>();
+    private final AtomicLong linesAnalyzed = new AtomicLong();
+    private final Queue<FileCost> fileCosts = new ConcurrentLinkedQueue<>();
+    private Map<String, Map<String, Contributor>> fileContributions;
+    private int sampleSize;
+    private StratifiedSample sample;
 
     public FileExtractor(String tagName, Git repository) throws IOException {
+        this(tagName, repository, IngestMetrics.disabled());
+    }
+
+    public FileExtractor(String tagName, Git repository, IngestMetrics metrics) throws IOException {
+        this(tagName, repository, metrics, LanguageRegistry.defaults());
+    }
+
+    public FileExtractor(String tagName, Git repository, IngestMetrics metrics, LanguageRegistry languages) throws IOException {
+        this(tagName, repository, metrics, languages, PathExclusions.defaults());
+    }
+
+    public FileExtractor(String tagName, Git repository, IngestMetrics metrics, LanguageRegistry languages, PathExclusions exclusions) throws IOException {
         this.repository = repository;
+        this.projectName = projectName(repository.getRepository());
+        this.tagName = tagName;
         this.commit = new RevWalk(repository.getRepository()).parseCommit(repository.getRepository().resolve(tagName));
+        this.metrics = Objects.requireNonNull(metrics);
+        this.languages = Objects.requireNonNull(languages);
+        this.exclusions = Objects.requireNonNull(exclusions);
+    }
+
+    /**
+     * Returns the name of the project of a repository, which is the name of its clone directory.
+     * @param repository
+     * @return
+     */
+    private static String projectName(Repository repository) {
+        return repository.isBare() ? repository.getDirectory().getName() : repository.getWorkTree().getName();
     }
 
     /**
@@ -42,7 +84,15 @@ public class FileExtractor {
     private void addContributions(BlameResult blameResult, String file) {
         lock.lock();
         try {
-            processBlameResult(blameResult, file);
+            long start = metrics.start();
+            if (fileContributions == null) {
+                processBlameResult(blameResult, file);
+            } else {
+                contributors = new ConcurrentHashMap<>();
+                processBlameResult(blameResult, file);
+                fileContributions.put(file, contributors);
+            }
+            metrics.stop(start, IngestMetrics.Phase.CLASSIFICATION);
         } finally {
             lock.unlock();
         }
@@ -55,66 +105,67 @@ public class FileExtractor {
      */
     private void processBlameResult(BlameResult blameResult, String file) {
         if (blameResult == null) return;
-        String language = isLanguageCompatible(file, getType(file));
-        if (!language.equals("invalid")) {
-            processLinesInBlameResult(blameResult, Language.valueOf(language.toUpperCase()));
+        Language language = fileLanguages.get(file);
+        if (language == null) language = languages.classify(file);
+        if (language != null) {
+            processLinesInBlameResult(blameResult, languages.classifier(language));
         }
     }
 
     /**
-     * Processes the lines of a blame result.
+     * Processes the lines of a blame result, directly on the raw bytes of the file.
      * @param blameResult
-     * @param commentRegex
+     * @param classifier
      */
-    private void processLinesInBlameResult(BlameResult blameResult, Language commentRegex) {
+    private void processLinesInBlameResult(BlameResult blameResult, LineClassifier classifier) {
+        RawText text = blameResult.getResultContents();
+        byte[] content = text.getRawContent();
+        IntList lines = RawParseUtils.lineMap(content, 0, content.length);
+        int size = Math.min(text.size(), lines.size() - 2);
         boolean inMultilineComment = false;
-        for (int i = 0; i < blameResult.getResultContents().size(); i++) {
-            inMultilineComment = processLine(blameResult.getResultContents().getString(i),
+        for (int i = 0; i < size; i++) {
+            inMultilineComment = processLine(content, lines.get(i + 1), lines.get(i + 2),
                     blameResult.getSourceAuthor(i).getName(),
-                    commentRegex,
+                    classifier,
                     inMultilineComment);
-            if (commentRegex.isImage()) return;
+            if (classifier.image()) return;
         }
     }
 
     /**
      * Processes a line of code and updates the contributions of a contributor.
-     * @param content
+     * @param content raw content of the file
+     * @param start offset of the first byte of the line
+     * @param end offset just past the last byte of the line
      * @param contributorName
-     * @param commentRegex
+     * @param classifier
      * @param inMultilineComment
      * @return
      */
-    private boolean processLine(String content, String contributorName, Language commentRegex, boolean inMultilineComment) {
-        boolean alreadyInMultilineComment = false;
+    boolean processLine(byte[] content, int start, int end, String contributorName, LineClassifier classifier, boolean inMultilineComment) {
         Contributor contributor = contributors.computeIfAbsent(contributorName, key -> new Contributor(contributorName));
-        if (commentRegex.getRegex() != null) {
-            if (content.contains(commentRegex.getRegex().getRegexStart()) && !inMultilineComment) {
-                    inMultilineComment = true;
-                    alreadyInMultilineComment = true;
-                }
-            updateContributorContributions(contributor, determineLineType(content, commentRegex, inMultilineComment));
-            if (content.contains(commentRegex.getRegex().getRegexEnd()) && !alreadyInMultilineComment) inMultilineComment = false;
-        } else updateContributorContributions(contributor, commentRegex.getDisplayName());
+        if (classifier.hasComments()) {
+            boolean inMultilineCommentAfter = classifier.inBlockAfter(content, start, end, inMultilineComment);
+            updateContributorContributions(contributor, determineLineType(content, start, end, classifier, inMultilineComment || inMultilineCommentAfter));
+            return inMultilineCommentAfter;
+        }
+        updateContributorContributions(contributor, classifier.displayName());
         return inMultilineComment;
     }
 
     /**
      * Determines the type of a line of code.
-     * @param content
-     * @param commentRegex
+     * @param content raw content of the file
+     * @param start offset of the first byte of the line
+     * @param end offset just past the last byte of the line
+     * @param classifier
      * @param inMultilineComment
      * @return
      */
-    private static String determineLineType(String content, Language commentRegex, boolean inMultilineComment) {
-        Pattern pattern = Pattern.compile(commentRegex.getRegex().getRegex());
-        Matcher matcher = pattern.matcher(content);
-        boolean match = matcher.find();
-        if (!commentRegex.getRegex().getRegexStart().isEmpty() && !commentRegex.getRegex().getRegexEnd().isEmpty()) {
-            if (inMultilineComment || match) {
-                return "comments";
-            } else return commentRegex.getDisplayName();
-        } else return commentRegex.getDisplayName();
+    static String determineLineType(byte[] content, int start, int end, LineClassifier classifier, boolean inMultilineComment) {
+        if (classifier.isComment(content, start, end, inMultilineComment)) {
+            return "comments";
+        } else return classifier.displayName();
     }
 
     /**
@@ -122,87 +173,95 @@ public class FileExtractor {
      * @param contributor
      * @param lineType
      */
-    private static void updateContributorContributions(Contributor contributor, String lineType) {
+    static void updateContributorContributions(Contributor contributor, String lineType) {
         contributor.getContributions().put(lineType, contributor.getContributions().getOrDefault(lineType, 0) + 1);
     }
 
-    /**
-     * Returns the supported extensions.
-     * @return
-     */
-    private Set<String> getSupportedExtensions() {
-        return Arrays.stream(Language.values())
-                .map(Language::getName)
-                .collect(Collectors.toSet());
-    }
-
     /**
      * Returns all the files of a commit.
      * @return
      */
-    private List<String> getAllFiles() {
-        Set<String> supportedExtensions = getSupportedExtensions();
-        List<String> files = new ArrayList<>();
+    private List<SourceFiles.SourceFile> getAllFiles() {
+        long start = metrics.start();
+        List<SourceFiles.SourceFile> files;
         try {
-            RevTree tree = commit.getTree();
-            processTree(tree, supportedExtensions, files);
+            files = SourceFiles.list(repository.getRepository(), commit.getTree(), languages, exclusions);
         } catch (IOException e) {
             throw new RuntimeException("Error: Getting all files", e);
         }
+        for (SourceFiles.SourceFile file : files) {
+            fileLanguages.put(file.path(), file.language());
+        }
+        metrics.stop(start, IngestMetrics.Phase.TREE_WALK);
         return files;
     }
 
     /**
-     * Processes the tree of a commit.
-     * @param tree
-     * @param supportedExtensions
+     * Selects the files to blame: all of them, or a stratified sample when sampling.
      * @param files
-     * @throws IOException
+     * @return
      */
-    private void processTree(RevTree tree, Set<String> supportedExtensions, List<String> files) throws IOException {
-        try (TreeWalk treeWalk = new TreeWalk(repository.getRepository())) {
-            treeWalk.addTree(tree);
-            treeWalk.setRecursive(true);
-            while (treeWalk.next()) {
-                String path = treeWalk.getPathString();
-                if (isSupportedFile(path, supportedExtensions)) {
-                    files.add(path);
-                }
-            }
+    private List<String> selectFiles(List<SourceFiles.SourceFile> files) {
+        if (fileContributions == null) {
+            return files.stream().map(SourceFiles.SourceFile::path).toList();
         }
+        sample = StratifiedSample.draw(files, sampleSize, commit.getId().hashCode());
+        return sample.files();
     }
 
     /**
-     * Checks if a file is supported.
-     * @param path
-     * @param supportedExtensions
+     * Analyzes all the contributors of a commit.
      * @return
+     * @throws InterruptedException
      */
-    private boolean isSupportedFile(String path, Set<String> supportedExtensions) {
-        int lastDotIndex = path.lastIndexOf('.');
-        if (lastDotIndex != -1 && lastDotIndex < path.length() - 1) {
-            String extension = path.substring(lastDotIndex + 1);
-            return supportedExtensions.contains(extension);
-        }
-        return false;
+    public Map<String, Contributor> analyzeAllContributors() throws InterruptedException {
+        fileContributions = null;
+        return analyze();
     }
 
+    /**
+     * Approximates the contributors of a commit by blaming a stratified sample of its files,
+     * see {@link StratifiedSample}.
+     * @param sampleSize approximate number of files to blame
+     * @return estimated lines of each contributor, with their confidence intervals
+     * @throws InterruptedException
+     */
+    public Extrapolation analyzeSampledContributors(int sampleSize) throws InterruptedException {
+        if (sampleSize <= 0) throw new IllegalArgumentException("sampleSize <= 0");
+        this.sampleSize = sampleSize;
+        fileContributions = new ConcurrentHashMap<>();
+        analyze();
+        return sample.extrapolate(fileContributions);
+    }
 
     /**
-     * Analyzes all the contributors of a commit.
+     * Blames the selected files of a commit.
      * @return
      * @throws InterruptedException
      */
-    public Map<String, Contributor> analyzeAllContributors() throws InterruptedException {
-        List<String> files = getAllFiles();
+    private Map<String, Contributor> analyze() throws InterruptedException {
+        var event = new TagAnalysisEvent();
+        event.begin();
+        long start = System.nanoTime();
+        List<String> files = selectFiles(getAllFiles());
         contributors = new ConcurrentHashMap<>();
         ExecutorService executor = initializeExecutor();
         submitAnalysisTasks(files);
         waitForCompletion(executor);
         repository.close();
+        metrics.tagAnalyzed(files.size(), linesAnalyzed.get(), System.nanoTime() - start);
+        event.commit(projectName, tagName, files.size(), linesAnalyzed.get());
         return contributors;
     }
 
+    /**
+     * Returns the cost of every file analyzed by {@link #analyzeAllContributors()}.
+     * @return
+     */
+    public List<FileCost> fileCosts() {
+        return List.copyOf(fileCosts);
+    }
+
     /**
      * Initializes the executor.
      * @return
@@ -220,6 +279,7 @@ public class FileExtractor {
         for (String file : files) {
             callables.add(() -> analyzeSingleFile(file));
         }
+        metrics.queued(files.size());
     }
 
     /**
@@ -268,9 +328,20 @@ public class FileExtractor {
      * @return
      * @throws GitAPIException
      */
-    private String analyzeSingleFile(String file) throws GitAPIException {
+    String analyzeSingleFile(String file) throws GitAPIException {
+        metrics.dequeued();
+        var event = new BlameEvent();
+        event.begin();
+        long start = metrics.start();
         BlameResult blameResult = createBlameCommand().setFilePath(file).call();
+        long blameNanos = metrics.stop(start, IngestMetrics.Phase.BLAME);
+        int lineCount = blameResult == null ? 0 : blameResult.getResultContents().size();
+        long size = blameResult == null ? 0 : blameResult.getResultContents().getRawContent().length;
+        event.commit(projectName, tagName, file, size, lineCount);
+        fileCosts.add(new FileCost(file, blameNanos, size, lineCount));
         addContributions(blameResult, file);
+        linesAnalyzed.addAndGet(lineCount);
+        metrics.fileAnalyzed(lineCount);
         return file;
     }
 
@@ -281,42 +352,4 @@ public class FileExtractor {
     private BlameCommand createBlameCommand() {
         return new BlameCommand(repository.getRepository()).setStartCommit(commit.getId());
     }
-
-    /**
-     * Returns the comment regex of a file.
-     * @param type
-     * @return
-     */
-    private static Language getCommentRegex(String type) {
-        for (var regex : Language.values()) {
-            if (regex.getName().equals(type)) {
-                return regex;
-            }
-        }
-        return null;
-    }
-
-    /**
-     * Checks if a file is compatible with a language.
-     * @param file
-     * @param type
-     * @return
-     */
-    private static String isLanguageCompatible(String file, String type) {
-        if (type.equals("xml") && !file.contains("pom.xml")) {
-            return "invalid";
-        }
-        Language regex = getCommentRegex(type);
-        return (regex != null) ? regex.getName() : "invalid";
-    }
-
-    /**
-     * Returns the type of a file.
-     * @param file
-     * @return
-     */
-    private static String getType(String file) {
-        int lastDotIndex = file.lastIndexOf('.');
-        return (lastDotIndex != -1 && lastDotIndex < file.length() - 1) ? file.substring(lastDotIndex + 1) : "";
-    }
 }
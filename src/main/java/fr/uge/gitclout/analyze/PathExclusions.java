@@ -0,0 +1,212 @@
+package fr.uge.gitclout.analyze;
+
+import org.eclipse.jgit.attributes.Attribute;
+import org.eclipse.jgit.attributes.Attributes;
+import org.eclipse.jgit.ignore.FastIgnoreRule;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.FileMode;
+import org.eclipse.jgit.treewalk.TreeWalk;
+import org.eclipse.jgit.treewalk.filter.TreeFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Excludes vendored, generated and oversized files from the analysis. Applied as the filter of a
+ * {@link TreeWalk}, so an excluded directory is never descended into.
+ * <p>
+ * A path is excluded, in order of precedence:
+ * <ol>
+ *     <li>if {@code .gitattributes} marks it {@code linguist-vendored} or {@code linguist-generated};
+ *     unsetting both attributes ({@code -linguist-vendored}, {@code linguist-generated=false}) keeps it instead;</li>
+ *     <li>if the last matching rule, in {@code .gitignore} syntax, excludes it; a {@code !} rule keeps it;</li>
+ *     <li>if it is a file larger than the maximum size.</li>
+ * </ol>
+ */
+public final class PathExclusions extends TreeFilter {
+
+    /**
+     * Rules applied to every project: package manager directories and bundled or generated sources.
+     */
+    public static final List<String> DEFAULT_RULES = List.of(
+            "node_modules/",
+            "bower_components/",
+            "vendor/",
+            "third_party/",
+            "*.min.js",
+            "*-min.js",
+            "*.min.css",
+            "*.bundle.js",
+            "*_pb2.py",
+            "*.pb.h",
+            "*.pb.cc"
+    );
+
+    /**
+     * Files above this size are data or generated code rather than sources worth blaming.
+     */
+    public static final long DEFAULT_MAX_FILE_SIZE = 1024 * 1024;
+
+    private static final String VENDORED = "linguist-vendored";
+    private static final String GENERATED = "linguist-generated";
+    private static final PathExclusions DEFAULTS = new PathExclusions(DEFAULT_RULES, DEFAULT_MAX_FILE_SIZE);
+    private static final PathExclusions NONE = new PathExclusions(List.of(), 0);
+
+    private final List<String> patterns;
+    private final List<FastIgnoreRule> rules;
+    private final long maxFileSize;
+
+    /**
+     * @param patterns    Rules in {@code .gitignore} syntax; blank lines and {@code #} comments are skipped
+     * @param maxFileSize Maximum size of a file in bytes, 0 for no limit
+     */
+    public PathExclusions(List<String> patterns, long maxFileSize) {
+        if (maxFileSize < 0) throw new IllegalArgumentException("maxFileSize < 0");
+        List<String> kept = new ArrayList<>();
+        List<FastIgnoreRule> rules = new ArrayList<>();
+        for (String pattern : patterns) {
+            String line = pattern.strip();
+            if (line.isEmpty() || line.startsWith("#")) continue;
+            kept.add(line);
+            rules.add(new FastIgnoreRule(line));
+        }
+        this.patterns = List.copyOf(kept);
+        this.rules = List.copyOf(rules);
+        this.maxFileSize = maxFileSize;
+    }
+
+    /**
+     * Returns the exclusions applied when a project has no rules of its own.
+     *
+     * @return Default rules, default maximum size and the {@code .gitattributes} markers
+     */
+    public static PathExclusions defaults() {
+        return DEFAULTS;
+    }
+
+    /**
+     * Returns exclusions that only honor the {@code .gitattributes} markers.
+     *
+     * @return Exclusions without rules nor maximum size
+     */
+    public static PathExclusions none() {
+        return NONE;
+    }
+
+    public List<String> patterns() {
+        return patterns;
+    }
+
+    public long maxFileSize() {
+        return maxFileSize;
+    }
+
+    /**
+     * Digests the rules and the maximum size, so that results computed with other exclusions are told apart.
+     *
+     * @return Hexadecimal digest, the same for equal exclusions
+     */
+    public String fingerprint() {
+        try {
+            var digest = MessageDigest.getInstance("SHA-256");
+            digest.update((String.join("\n", patterns) + "\n" + maxFileSize).getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Override
+    public boolean include(TreeWalk walker) throws IOException {
+        Boolean marked = linguistMarker(walker);
+        if (marked != null) return !marked;
+        String path = walker.getPathString();
+        boolean directory = walker.isSubtree();
+        for (int i = rules.size() - 1; i >= 0; i--) {
+            FastIgnoreRule rule = rules.get(i);
+            if (rule.isMatch(path, directory)) {
+                if (rule.getResult()) return false;
+                break;
+            }
+        }
+        return directory || maxFileSize == 0 || !isTooLarge(walker);
+    }
+
+    /**
+     * Reads the linguist markers of the current entry.
+     *
+     * @param walker Tree walk positioned on the entry
+     * @return True if the entry is vendored or generated, false if it is explicitly not, null if unspecified
+     */
+    private static Boolean linguistMarker(TreeWalk walker) {
+        if (walker.getAttributesNodeProvider() == null) return null;
+        Attributes attributes = walker.getAttributes(0);
+        Boolean vendored = isSet(attributes.get(VENDORED));
+        Boolean generated = isSet(attributes.get(GENERATED));
+        if (Boolean.TRUE.equals(vendored) || Boolean.TRUE.equals(generated)) return true;
+        if (vendored != null || generated != null) return false;
+        return null;
+    }
+
+    /**
+     * Reads a boolean attribute.
+     *
+     * @param attribute Attribute, null if the entry does not have it
+     * @return True if it is set, false if it is unset, null if it is unspecified
+     */
+    private static Boolean isSet(Attribute attribute) {
+        if (attribute == null) return null;
+        return switch (attribute.getState()) {
+            case SET -> true;
+            case UNSET -> false;
+            case CUSTOM -> !"false".equalsIgnoreCase(attribute.getValue());
+            case UNSPECIFIED -> null;
+        };
+    }
+
+    /**
+     * Checks the size of the current blob without reading its content. In a walk over several trees, such
+     * as a diff against a parent, the blob of the last tree having the entry is checked.
+     *
+     * @param walker Tree walk positioned on a file
+     * @return True if the blob is larger than the maximum size
+     * @throws IOException If the object database cannot be read
+     */
+    private boolean isTooLarge(TreeWalk walker) throws IOException {
+        int tree = walker.getTreeCount() - 1;
+        while (tree > 0 && walker.getFileMode(tree) == FileMode.MISSING) tree--;
+        if (walker.getFileMode(tree).getObjectType() != Constants.OBJ_BLOB) return false;
+        return walker.getObjectReader().getObjectSize(walker.getObjectId(tree), Constants.OBJ_BLOB) > maxFileSize;
+    }
+
+    @Override
+    public boolean shouldBeRecursive() {
+        return false;
+    }
+
+    @Override
+    public TreeFilter clone() {
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return "PathExclusions" + patterns + ", maxFileSize=" + maxFileSize;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof PathExclusions other && patterns.equals(other.patterns) && maxFileSize == other.maxFileSize;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(patterns, maxFileSize);
+    }
+}
@@ -0,0 +1,132 @@
+package fr.uge.gitclout.analyze;
+
+import fr.uge.gitclout.analyze.language.LanguageRegistry;
+import fr.uge.gitclout.analyze.language.LineClassifier;
+import org.eclipse.jgit.lib.ObjectLoader;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.revwalk.RevWalk;
+import org.eclipse.jgit.util.IntList;
+import org.eclipse.jgit.util.RawParseUtils;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Language breakdown of a tag without blame: every blob of the tag's tree is read once and its
+ * lines are classified as code or comments by the same {@link LineClassifier} transitions as {@link FileExtractor},
+ * in parallel over blobs on an executor shared by the tags.
+ * A blob is loaded whole rather than streamed, since its lines are classified on the raw bytes; the
+ * maximum file size of the exclusions bounds the memory this takes. Images are only measured.
+ */
+public class QuickScan {
+
+    /**
+     * Totals of a language in a tag.
+     *
+     * @param language     Display name of the language
+     * @param files        Number of files
+     * @param codeLines    Number of code lines
+     * @param commentLines Number of comment lines
+     * @param bytes        Size of the files in bytes
+     */
+    public record LanguageCount(String language, int files, long codeLines, long commentLines, long bytes) {
+
+        private LanguageCount merge(LanguageCount other) {
+            return new LanguageCount(language, files + other.files, codeLines + other.codeLines,
+                    commentLines + other.commentLines, bytes + other.bytes);
+        }
+    }
+
+    private final Repository repository;
+    private final RevCommit commit;
+    private final LanguageRegistry languages;
+    private final PathExclusions exclusions;
+    private final ExecutorService executor;
+
+    public QuickScan(String tagName, Repository repository, LanguageRegistry languages, ExecutorService executor) throws IOException {
+        this(tagName, repository, languages, PathExclusions.defaults(), executor);
+    }
+
+    public QuickScan(String tagName, Repository repository, LanguageRegistry languages, PathExclusions exclusions, ExecutorService executor) throws IOException {
+        this.repository = Objects.requireNonNull(repository);
+        this.executor = Objects.requireNonNull(executor);
+        this.languages = Objects.requireNonNull(languages);
+        this.exclusions = Objects.requireNonNull(exclusions);
+        try (RevWalk walk = new RevWalk(repository)) {
+            this.commit = walk.parseCommit(repository.resolve(tagName));
+        }
+    }
+
+    /**
+     * Scans all the files of the tag.
+     *
+     * @return Totals by language display name
+     * @throws InterruptedException If the scan is interrupted
+     */
+    public Map<String, LanguageCount> scan() throws InterruptedException {
+        List<Callable<LanguageCount>> tasks = new ArrayList<>();
+        try {
+            for (SourceFiles.SourceFile file : SourceFiles.list(repository, commit.getTree(), languages, exclusions)) {
+                tasks.add(() -> scanFile(file));
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Error: Listing files", e);
+        }
+        Map<String, LanguageCount> counts = new ConcurrentHashMap<>();
+        List<Future<LanguageCount>> futures = executor.invokeAll(tasks);
+        try {
+            for (Future<LanguageCount> future : futures) {
+                LanguageCount count = future.get();
+                counts.merge(count.language(), count, LanguageCount::merge);
+            }
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Error: Scanning files", e);
+        } finally {
+            futures.forEach(future -> future.cancel(true));
+        }
+        return counts;
+    }
+
+    /**
+     * Reads a file once and counts its lines.
+     *
+     * @param file File to scan
+     * @return Totals of the file
+     * @throws IOException If the blob cannot be read
+     */
+    private LanguageCount scanFile(SourceFiles.SourceFile file) throws IOException {
+        ObjectLoader loader = repository.open(file.blobId());
+        LineClassifier classifier = languages.classifier(file.language());
+        if (classifier.image()) {
+            long size = loader.getSize();
+            return new LanguageCount(classifier.displayName(), 1, size == 0 ? 0 : 1, 0, size);
+        }
+        byte[] content = loader.getBytes();
+        IntList lines = RawParseUtils.lineMap(content, 0, content.length);
+        long code = 0;
+        long comments = 0;
+        boolean inMultilineComment = false;
+        for (int i = 1; i < lines.size() - 1; i++) {
+            int start = lines.get(i);
+            int end = lines.get(i + 1);
+            if (!classifier.hasComments()) {
+                code++;
+                continue;
+            }
+            boolean inMultilineCommentAfter = classifier.inBlockAfter(content, start, end, inMultilineComment);
+            if (classifier.isComment(content, start, end, inMultilineComment || inMultilineCommentAfter)) comments++;
+            else code++;
+            inMultilineComment = inMultilineCommentAfter;
+        }
+        return new LanguageCount(classifier.displayName(), 1, code, comments, content.length);
+    }
+}
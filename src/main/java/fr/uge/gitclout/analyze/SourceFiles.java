@@ -0,0 +1,107 @@
+package fr.uge.gitclout.analyze;
+
+import fr.uge.gitclout.analyze.language.Language;
+import fr.uge.gitclout.analyze.language.LanguageRegistry;
+import org.eclipse.jgit.lib.FileMode;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.ObjectStream;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.revwalk.RevTree;
+import org.eclipse.jgit.treewalk.TreeWalk;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Lists the files of a tree that belong to a language of the {@link LanguageRegistry} and are not
+ * excluded by the {@link PathExclusions} of the project.
+ */
+public final class SourceFiles {
+
+    private static final int SHEBANG_LIMIT = 256;
+
+    /**
+     * File of a known language.
+     *
+     * @param path     Path of the file
+     * @param blobId   Id of the blob holding its content
+     * @param language Language of the file
+     */
+    public record SourceFile(String path, ObjectId blobId, Language language) {
+    }
+
+    private SourceFiles() {
+        throw new AssertionError();
+    }
+
+    /**
+     * Walks a tree and keeps the files of a known language, with the default exclusions.
+     *
+     * @param repository Repository holding the tree
+     * @param tree       Root tree, usually the tree of a tagged commit
+     * @param languages  Language registry
+     * @return Files of a known language, in tree order
+     * @throws IOException If the tree cannot be read
+     */
+    public static List<SourceFile> list(Repository repository, RevTree tree, LanguageRegistry languages) throws IOException {
+        return list(repository, tree, languages, PathExclusions.defaults());
+    }
+
+    /**
+     * Walks a tree and keeps the files of a known language. Excluded directories are skipped
+     * without being read.
+     *
+     * @param repository Repository holding the tree
+     * @param tree       Root tree, usually the tree of a tagged commit
+     * @param languages  Language registry
+     * @param exclusions Paths left out of the analysis
+     * @return Files of a known language, in tree order
+     * @throws IOException If the tree cannot be read
+     */
+    public static List<SourceFile> list(Repository repository, RevTree tree, LanguageRegistry languages, PathExclusions exclusions) throws IOException {
+        List<SourceFile> files = new ArrayList<>();
+        try (TreeWalk treeWalk = new TreeWalk(repository)) {
+            treeWalk.addTree(tree);
+            treeWalk.setRecursive(true);
+            treeWalk.setAttributesNodeProvider(repository.createAttributesNodeProvider());
+            treeWalk.setFilter(exclusions);
+            while (treeWalk.next()) {
+                String path = treeWalk.getPathString();
+                Language language = languages.classify(path);
+                if (language == null && languages.mayBeScript(path) && isRegularFile(treeWalk.getFileMode(0))) {
+                    language = classifyScript(repository, treeWalk.getObjectId(0), languages);
+                }
+                if (language != null) {
+                    files.add(new SourceFile(path, treeWalk.getObjectId(0), language));
+                }
+            }
+        }
+        return files;
+    }
+
+    /**
+     * Checks if a tree entry is a regular or executable file, rather than a symbolic link or a submodule.
+     *
+     * @param mode Mode of the entry
+     * @return True if the entry is a file
+     */
+    private static boolean isRegularFile(FileMode mode) {
+        return mode == FileMode.REGULAR_FILE || mode == FileMode.EXECUTABLE_FILE;
+    }
+
+    /**
+     * Classifies an extensionless file by its shebang.
+     *
+     * @param repository Repository holding the blob
+     * @param blobId     Id of the blob
+     * @param languages  Language registry
+     * @return Language of the script, null if it is not recognized
+     * @throws IOException If the blob cannot be read
+     */
+    private static Language classifyScript(Repository repository, ObjectId blobId, LanguageRegistry languages) throws IOException {
+        try (ObjectStream stream = repository.open(blobId).openStream()) {
+            return languages.classifyScript(stream.readNBytes(SHEBANG_LIMIT));
+        }
+    }
+}
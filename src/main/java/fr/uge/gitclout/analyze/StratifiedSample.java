@@ -0,0 +1,171 @@
+package fr.uge.gitclout.analyze;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+/**
+ * Stratified random sample of the files of a tag, used to approximate the attribution of repositories
+ * too large to blame entirely. Files are grouped by language and top-level directory, each group is
+ * sampled in proportion to its size, and the lines blamed in the sample are scaled back to the group.
+ */
+public final class StratifiedSample {
+
+    private static final double Z_95 = 1.96;
+
+    private record Stratum(int population, List<String> files) {
+    }
+
+    private record Key(String contributorName, String lineType) {
+    }
+
+    private final Map<String, Stratum> strata;
+    private final int population;
+
+    private StratifiedSample(Map<String, Stratum> strata, int population) {
+        this.strata = strata;
+        this.population = population;
+    }
+
+    /**
+     * Draws a sample of the files of a tag. The same files, seed and size always give the same sample.
+     *
+     * @param files      Files of the tag
+     * @param sampleSize Approximate number of files to keep; every file is kept if the tag has fewer
+     * @param seed       Seed of the random draw, usually derived from the tagged commit
+     * @return Sample of the files
+     */
+    public static StratifiedSample draw(List<SourceFiles.SourceFile> files, int sampleSize, long seed) {
+        if (sampleSize <= 0) throw new IllegalArgumentException("sampleSize <= 0");
+        Map<String, List<String>> groups = new TreeMap<>();
+        for (SourceFiles.SourceFile file : files) {
+            groups.computeIfAbsent(stratum(file), key -> new ArrayList<>()).add(file.path());
+        }
+        Random random = new Random(seed);
+        Map<String, Stratum> strata = new LinkedHashMap<>();
+        for (Map.Entry<String, List<String>> group : groups.entrySet()) {
+            List<String> paths = group.getValue();
+            int size = allocation(paths.size(), files.size(), sampleSize);
+            if (size < paths.size()) Collections.shuffle(paths, random);
+            strata.put(group.getKey(), new Stratum(paths.size(), List.copyOf(paths.subList(0, size))));
+        }
+        return new StratifiedSample(strata, files.size());
+    }
+
+    /**
+     * Returns the stratum of a file: its language and its top-level directory.
+     *
+     * @param file File of the tag
+     * @return Key of the stratum
+     */
+    static String stratum(SourceFiles.SourceFile file) {
+        int slash = file.path().indexOf('/');
+        return file.language().name() + ":" + (slash < 0 ? "" : file.path().substring(0, slash));
+    }
+
+    /**
+     * Number of files to draw from a stratum, in proportion to its size. At least two files are drawn
+     * so that the spread of the stratum can be estimated.
+     *
+     * @param stratumSize Number of files of the stratum
+     * @param population  Number of files of the tag
+     * @param sampleSize  Requested number of files
+     * @return Number of files to draw
+     */
+    static int allocation(int stratumSize, int population, int sampleSize) {
+        if (sampleSize >= population) return stratumSize;
+        long share = Math.round((double) sampleSize * stratumSize / population);
+        return (int) Math.min(stratumSize, Math.max(2, share));
+    }
+
+    /**
+     * Returns the sampled files.
+     *
+     * @return Paths of the files to blame
+     */
+    public List<String> files() {
+        return strata.values().stream().flatMap(stratum -> stratum.files().stream()).toList();
+    }
+
+    /**
+     * Returns the number of sampled files.
+     *
+     * @return Number of files to blame
+     */
+    public int size() {
+        return strata.values().stream().mapToInt(stratum -> stratum.files().size()).sum();
+    }
+
+    /**
+     * Returns the number of files the sample was drawn from.
+     *
+     * @return Number of files of the tag
+     */
+    public int population() {
+        return population;
+    }
+
+    /**
+     * Extrapolates the lines blamed in the sampled files to the whole tag, with the usual stratified
+     * estimator: each stratum total is its sample mean times its size, and its variance shrinks to zero
+     * as the sample covers the stratum.
+     *
+     * @param fileContributions Contributors of each sampled file, by path; files without lines may be missing
+     * @return Estimated lines of each contributor and line type, most lines first
+     */
+    public Extrapolation extrapolate(Map<String, Map<String, Contributor>> fileContributions) {
+        Map<Key, double[]> totals = new HashMap<>();
+        for (Stratum stratum : strata.values()) {
+            int n = stratum.files().size();
+            if (n == 0) continue;
+            Map<Key, double[]> sums = new HashMap<>();
+            for (String file : stratum.files()) {
+                for (Contributor contributor : fileContributions.getOrDefault(file, Map.of()).values()) {
+                    for (Map.Entry<String, Integer> lines : contributor.contributions().entrySet()) {
+                        double[] sum = sums.computeIfAbsent(new Key(contributor.name(), lines.getKey()), key -> new double[2]);
+                        sum[0] += lines.getValue();
+                        sum[1] += (double) lines.getValue() * lines.getValue();
+                    }
+                }
+            }
+            double weight = (double) stratum.population() / n;
+            double correction = (double) stratum.population() * stratum.population() * (1 - (double) n / stratum.population()) / n;
+            for (Map.Entry<Key, double[]> entry : sums.entrySet()) {
+                double sum = entry.getValue()[0];
+                double variance = n < 2 ? 0 : Math.max(0, (entry.getValue()[1] - sum * sum / n) / (n - 1));
+                double[] total = totals.computeIfAbsent(entry.getKey(), key -> new double[3]);
+                total[0] += weight * sum;
+                total[1] += correction * variance;
+                total[2] += sum;
+            }
+        }
+        List<ContributionEstimate> estimates = totals.entrySet().stream()
+                .map(entry -> estimate(entry.getKey(), entry.getValue()))
+                .sorted(Comparator.comparingInt(ContributionEstimate::lines).reversed()
+                        .thenComparing(ContributionEstimate::contributorName)
+                        .thenComparing(ContributionEstimate::lineType))
+                .toList();
+        return new Extrapolation(size(), population, estimates);
+    }
+
+    /**
+     * Builds the estimate of one contributor and line type from its stratified total.
+     *
+     * @param key   Contributor and line type
+     * @param total Estimated lines, variance of the estimate and lines actually blamed
+     * @return Estimate with its 95% confidence interval
+     */
+    private static ContributionEstimate estimate(Key key, double[] total) {
+        double margin = Z_95 * Math.sqrt(total[1]);
+        int lines = (int) Math.round(total[0]);
+        int lowerBound = (int) Math.max(total[2], Math.floor(total[0] - margin));
+        int upperBound = (int) Math.ceil(total[0] + margin);
+        return new ContributionEstimate(key.contributorName(), key.lineType(), lines, Math.min(lowerBound, lines), Math.max(upperBound, lines));
+    }
+}
@@ -0,0 +1,22 @@
+package fr.uge.gitclout.analyze.api;
+
+import fr.uge.gitclout.analyze.api.data.EstimateData;
+import fr.uge.gitclout.analyze.service.SamplingService;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+
+@RestController
+public class EstimateController {
+
+    private final SamplingService sampling;
+
+    public EstimateController(SamplingService sampling) {
+        this.sampling = sampling;
+    }
+
+    @GetMapping("/analyze/estimates")
+    public Flux<EstimateData> getEstimates(String repositoryId, String tagId) {
+        return sampling.getEstimates(repositoryId, tagId);
+    }
+}
@@ -0,0 +1,32 @@
+package fr.uge.gitclout.analyze.api;
+
+import fr.uge.gitclout.analyze.api.data.ExclusionData;
+import fr.uge.gitclout.analyze.service.ExclusionService;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+
+@RestController
+public class ExclusionController {
+
+    private final ExclusionService exclusions;
+
+    public ExclusionController(ExclusionService exclusions) {
+        this.exclusions = exclusions;
+    }
+
+    @GetMapping("/analyze/exclusions")
+    public Mono<ExclusionData> getExclusions(String name) {
+        return exclusions.getExclusions(name);
+    }
+
+    @PutMapping("/analyze/exclusions")
+    public Mono<ExclusionData> setExclusions(String name, @RequestBody ExclusionData data) {
+        return exclusions.setExclusions(name, data)
+                .onErrorMap(IllegalArgumentException.class, e -> new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage()));
+    }
+}
@@ -0,0 +1,25 @@
+package fr.uge.gitclout.analyze.api;
+
+import fr.uge.gitclout.analyze.api.data.FileCostData;
+import fr.uge.gitclout.analyze.service.FileCostService;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+
+@RestController
+public class FileCostController {
+
+    private final FileCostService fileCosts;
+
+    public FileCostController(FileCostService fileCosts) {
+        this.fileCosts = fileCosts;
+    }
+
+    @GetMapping("/analyze/files/slowest")
+    public Flux<FileCostData> getSlowestFiles(String repositoryId,
+                                              @RequestParam(required = false) String tagId,
+                                              @RequestParam(defaultValue = "10") int limit) {
+        return fileCosts.getSlowestFiles(repositoryId, tagId, limit);
+    }
+}
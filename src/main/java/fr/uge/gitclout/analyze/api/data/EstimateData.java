@@ -0,0 +1,6 @@
+package fr.uge.gitclout.analyze.api.data;
+
+public record EstimateData(String contributorName, String languageName, int numberOfLines, int lowerBound, int upperBound,
+                           double share, double shareLowerBound, double shareUpperBound, int sampledFiles, int totalFiles) {
+
+}
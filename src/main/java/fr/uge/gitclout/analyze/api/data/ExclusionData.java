@@ -0,0 +1,14 @@
+package fr.uge.gitclout.analyze.api.data;
+
+import java.util.List;
+
+/**
+ * Exclusions of a repository.
+ *
+ * @param rules        Rules in {@code .gitignore} syntax, applied after the default rules
+ * @param maxFileSize  Maximum size of a file in bytes, 0 for no limit
+ * @param defaultRules True if the default rules are applied
+ */
+public record ExclusionData(List<String> rules, long maxFileSize, boolean defaultRules) {
+
+}
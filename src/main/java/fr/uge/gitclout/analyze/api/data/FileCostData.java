@@ -0,0 +1,5 @@
+package fr.uge.gitclout.analyze.api.data;
+
+public record FileCostData(String tagId, String path, double blameMillis, long size, int numberOfLines) {
+
+}
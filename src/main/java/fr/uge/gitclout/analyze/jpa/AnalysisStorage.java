@@ -0,0 +1,83 @@
+package fr.uge.gitclout.analyze.jpa;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+
+@Entity
+@Table(name = "analyses", uniqueConstraints = @UniqueConstraint(columnNames = {"commitId", "fingerprint"}))
+public class AnalysisStorage {
+
+    @Id
+    @GeneratedValue
+    private Long id;
+
+    private String repositoryName;
+
+    private String commitId;
+
+    private String fingerprint;
+
+    private long tagKey;
+
+    private String projectName;
+
+    private String tagId;
+
+    protected AnalysisStorage() {
+    }
+
+    public AnalysisStorage(String repositoryName, String commitId, String fingerprint, long tagKey, String projectName, String tagId) {
+        this.repositoryName = repositoryName;
+        this.commitId = commitId;
+        this.fingerprint = fingerprint;
+        this.tagKey = tagKey;
+        this.projectName = projectName;
+        this.tagId = tagId;
+    }
+
+    /**
+     * Moves the analysis to a tag that shares its rows, when the analyzed tag is deleted.
+     *
+     * @param repositoryName Repository name of the tag
+     * @param tagKey         Key of the tag
+     * @param projectName    Project name of the tag
+     * @param tagId          Name of the tag
+     */
+    public void moveTo(String repositoryName, long tagKey, String projectName, String tagId) {
+        this.repositoryName = repositoryName;
+        this.tagKey = tagKey;
+        this.projectName = projectName;
+        this.tagId = tagId;
+    }
+
+    public Long id() {
+        return id;
+    }
+
+    public String repositoryName() {
+        return repositoryName;
+    }
+
+    public String commitId() {
+        return commitId;
+    }
+
+    public String fingerprint() {
+        return fingerprint;
+    }
+
+    public long tagKey() {
+        return tagKey;
+    }
+
+    public String projectName() {
+        return projectName;
+    }
+
+    public String tagId() {
+        return tagId;
+    }
+}
@@ -0,0 +1,14 @@
+package fr.uge.gitclout.analyze.jpa;
+
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+@Repository
+public interface ContributorEstimateRequest extends CrudRepository<ContributorEstimateStorage, Long> {
+
+    @Transactional(readOnly = true)
+    List<ContributorEstimateStorage> findByProjectNameAndTagIdOrderByNumberOfLinesDesc(String projectName, String tagId);
+}
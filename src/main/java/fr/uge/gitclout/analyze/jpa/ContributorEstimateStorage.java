@@ -0,0 +1,89 @@
+package fr.uge.gitclout.analyze.jpa;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+
+@Entity
+@Table(name = "contributor_estimates", indexes = @Index(columnList = "projectName, tagId"))
+public class ContributorEstimateStorage {
+
+    @Id
+    @GeneratedValue
+    private Long id;
+
+    private String contributorName;
+
+    private String languageName;
+
+    private String tagId;
+
+    private String projectName;
+
+    private int numberOfLines;
+
+    private int lowerBound;
+
+    private int upperBound;
+
+    private int sampledFiles;
+
+    private int totalFiles;
+
+    protected ContributorEstimateStorage() {
+    }
+
+    public ContributorEstimateStorage(String contributorName, String languageName, String tagId, String projectName, int numberOfLines, int lowerBound, int upperBound, int sampledFiles, int totalFiles) {
+        this.contributorName = contributorName;
+        this.languageName = languageName;
+        this.tagId = tagId;
+        this.projectName = projectName;
+        this.numberOfLines = numberOfLines;
+        this.lowerBound = lowerBound;
+        this.upperBound = upperBound;
+        this.sampledFiles = sampledFiles;
+        this.totalFiles = totalFiles;
+    }
+
+    public Long id() {
+        return id;
+    }
+
+    public String contributorName() {
+        return contributorName;
+    }
+
+    public String languageName() {
+        return languageName;
+    }
+
+    public String tagId() {
+        return tagId;
+    }
+
+    public String projectName() {
+        return projectName;
+    }
+
+    public int numberOfLines() {
+        return numberOfLines;
+    }
+
+    public int lowerBound() {
+        return lowerBound;
+    }
+
+    public int upperBound() {
+        return upperBound;
+    }
+
+    public int sampledFiles() {
+        return sampledFiles;
+    }
+
+    public int totalFiles() {
+        return totalFiles;
+    }
+}
@@ -1,9 +1,53 @@
 package fr.uge.gitclout.analyze.jpa;
 
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
 
 
 @Repository
 public interface ContributorRequest extends CrudRepository<ContributorStorage, Long>{
+
+    @Transactional(readOnly = true)
+    @Query("""
+            select new fr.uge.gitclout.analyze.jpa.ContributorRow(c.name, l.name, t.name, s.numberOfLines, p.name)
+            from ProjectNameStorage p, TagNameStorage t, ContributorStorage s, ContributorNameStorage c, LanguageNameStorage l
+            where p.name = :projectName and t.projectKey = p.id and t.name = :tagId
+              and s.tagKey = coalesce(t.sourceKey, t.id) and c.id = s.contributorKey and l.id = s.languageKey
+            order by c.name""")
+    List<ContributorRow> findByProjectNameAndTagIdOrderByContributorName(String projectName, String tagId);
+
+    @Transactional(readOnly = true)
+    @Query("""
+            select new fr.uge.gitclout.analyze.jpa.ContributorRow(c.name, l.name, t.name, s.numberOfLines, p.name)
+            from ProjectNameStorage p, TagNameStorage t, ContributorStorage s, ContributorNameStorage c, LanguageNameStorage l
+            where p.name = :projectName and t.projectKey = p.id
+              and s.tagKey = coalesce(t.sourceKey, t.id) and c.id = s.contributorKey and l.id = s.languageKey""")
+    List<ContributorRow> findByProjectName(String projectName);
+
+    @Transactional(readOnly = true)
+    @Query("""
+            select new fr.uge.gitclout.analyze.jpa.ContributorRow(c.name, l.name, t.name, s.numberOfLines, p.name)
+            from ProjectNameStorage p, TagNameStorage t, ContributorStorage s, ContributorNameStorage c, LanguageNameStorage l
+            where t.id = :tagKey and p.id = t.projectKey
+              and s.tagKey = t.id and c.id = s.contributorKey and l.id = s.languageKey""")
+    List<ContributorRow> findByTagKey(long tagKey);
+
+    @Transactional(readOnly = true)
+    boolean existsByTagKey(long tagKey);
+
+    @Modifying
+    @Transactional
+    @Query("update ContributorStorage s set s.tagKey = :newTagKey where s.tagKey = :tagKey")
+    void moveTagKey(long tagKey, long newTagKey);
+
+    @Modifying
+    @Transactional
+    @Query("delete from ContributorStorage s where s.tagKey in :tagKeys")
+    void deleteByTagKeyIn(Collection<Long> tagKeys);
 }
@@ -0,0 +1,13 @@
+package fr.uge.gitclout.analyze.jpa;
+
+/**
+ * Lines of one contributor in one language of a tag, with every key decoded to its name.
+ *
+ * @param contributorName Name of the contributor
+ * @param languageName    Language display name, or "comments"
+ * @param tagId           Tag name, without the {@code refs/tags/} prefix
+ * @param numberOfLines   Number of lines
+ * @param projectName     Project name
+ */
+public record ContributorRow(String contributorName, String languageName, String tagId, int numberOfLines, String projectName) {
+}
@@ -3,55 +3,54 @@ package fr.uge.gitclout.analyze.jpa;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.Table;
 
+/**
+ * Lines of one contributor in one language of a tag. The tag, contributor and language are keys into
+ * {@link TagNameStorage}, {@link ContributorNameStorage} and {@link LanguageNameStorage}; the tag key
+ * also gives the project.
+ */
 @Entity
-@Table(name = "contributors")
+@Table(name = "contributions", indexes = @Index(columnList = "tagKey"))
 public class ContributorStorage {
 
     @Id
     @GeneratedValue
     private Long id;
 
-    private String contributorName;
+    private long tagKey;
 
-    private String languageName;
+    private long contributorKey;
 
-    private String tagId;
-
-    private String projectName;
+    private long languageKey;
 
     private int numberOfLines;
 
     protected ContributorStorage() {
     }
 
-    public ContributorStorage(String contributorName, String languageName, String tagId, int numberOfLines, String projectName) {
-        this.contributorName = contributorName;
-        this.languageName = languageName;
-        this.tagId = tagId;
+    public ContributorStorage(long tagKey, long contributorKey, long languageKey, int numberOfLines) {
+        this.tagKey = tagKey;
+        this.contributorKey = contributorKey;
+        this.languageKey = languageKey;
         this.numberOfLines = numberOfLines;
-        this.projectName = projectName;
     }
 
     public Long Id() {
         return id;
     }
 
-    public String contributorName() {
-        return contributorName;
-    }
-
-    public String languageName() {
-        return languageName;
+    public long tagKey() {
+        return tagKey;
     }
 
-    public String tagId() {
-        return tagId;
+    public long contributorKey() {
+        return contributorKey;
     }
 
-    public String projectName() {
-        return projectName;
+    public long languageKey() {
+        return languageKey;
     }
 
     public int numberOfLines() {
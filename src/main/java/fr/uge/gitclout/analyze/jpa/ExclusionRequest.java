@@ -0,0 +1,14 @@
+package fr.uge.gitclout.analyze.jpa;
+
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+
+@Repository
+public interface ExclusionRequest extends CrudRepository<ExclusionStorage, Long> {
+
+    @Transactional(readOnly = true)
+    Optional<ExclusionStorage> findByRepositoryName(String repositoryName);
+}
@@ -0,0 +1,71 @@
+package fr.uge.gitclout.analyze.jpa;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+import java.util.List;
+
+@Entity
+@Table(name = "exclusions")
+public class ExclusionStorage {
+
+    @Id
+    @GeneratedValue
+    private Long id;
+
+    @Column(unique = true)
+    private String repositoryName;
+
+    @Column(length = 65536)
+    private String rules;
+
+    private long maxFileSize;
+
+    private boolean defaultRules;
+
+    protected ExclusionStorage() {
+    }
+
+    public ExclusionStorage(String repositoryName, List<String> rules, long maxFileSize, boolean defaultRules) {
+        this.repositoryName = repositoryName;
+        this.rules = String.join("\n", rules);
+        this.maxFileSize = maxFileSize;
+        this.defaultRules = defaultRules;
+    }
+
+    /**
+     * Replaces the exclusions of the repository.
+     *
+     * @param rules        Rules in {@code .gitignore} syntax
+     * @param maxFileSize  Maximum size of a file in bytes, 0 for no limit
+     * @param defaultRules True to apply the default rules before the rules of the repository
+     */
+    public void update(List<String> rules, long maxFileSize, boolean defaultRules) {
+        this.rules = String.join("\n", rules);
+        this.maxFileSize = maxFileSize;
+        this.defaultRules = defaultRules;
+    }
+
+    public Long id() {
+        return id;
+    }
+
+    public String repositoryName() {
+        return repositoryName;
+    }
+
+    public List<String> rules() {
+        return rules.isEmpty() ? List.of() : List.of(rules.split("\n"));
+    }
+
+    public long maxFileSize() {
+        return maxFileSize;
+    }
+
+    public boolean defaultRules() {
+        return defaultRules;
+    }
+}
@@ -0,0 +1,21 @@
+package fr.uge.gitclout.analyze.jpa;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+@Repository
+public interface FileCostRequest extends CrudRepository<FileCostStorage, Long> {
+
+    @Transactional(readOnly = true)
+    List<FileCostStorage> findByProjectNameAndTagIdOrderByBlameNanosDesc(String projectName, String tagId, Pageable page);
+
+    @Transactional(readOnly = true)
+    List<FileCostStorage> findByProjectNameAndTagId(String projectName, String tagId);
+
+    @Transactional(readOnly = true)
+    List<FileCostStorage> findByProjectNameOrderByBlameNanosDesc(String projectName, Pageable page);
+}
@@ -0,0 +1,64 @@
+package fr.uge.gitclout.analyze.jpa;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+
+@Entity
+@Table(name = "file_costs", indexes = @Index(columnList = "projectName, tagId"))
+public class FileCostStorage {
+
+    @Id
+    @GeneratedValue
+    private Long id;
+
+    private String path;
+
+    private String tagId;
+
+    private String projectName;
+
+    private long blameNanos;
+
+    private long size;
+
+    private int numberOfLines;
+
+    protected FileCostStorage() {
+    }
+
+    public FileCostStorage(String path, String tagId, String projectName, long blameNanos, long size, int numberOfLines) {
+        this.path = path;
+        this.tagId = tagId;
+        this.projectName = projectName;
+        this.blameNanos = blameNanos;
+        this.size = size;
+        this.numberOfLines = numberOfLines;
+    }
+
+    public String path() {
+        return path;
+    }
+
+    public String tagId() {
+        return tagId;
+    }
+
+    public String projectName() {
+        return projectName;
+    }
+
+    public long blameNanos() {
+        return blameNanos;
+    }
+
+    public long size() {
+        return size;
+    }
+
+    public int numberOfLines() {
+        return numberOfLines;
+    }
+}
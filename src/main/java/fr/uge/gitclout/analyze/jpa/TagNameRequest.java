@@ -0,0 +1,22 @@
+package fr.uge.gitclout.analyze.jpa;
+
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface TagNameRequest extends CrudRepository<TagNameStorage, Long> {
+
+    @Transactional(readOnly = true)
+    Optional<TagNameStorage> findByProjectKeyAndName(long projectKey, String name);
+
+    @Transactional(readOnly = true)
+    List<TagNameStorage> findByProjectKeyIn(Collection<Long> projectKeys);
+
+    @Transactional(readOnly = true)
+    List<TagNameStorage> findBySourceKey(long sourceKey);
+}
@@ -0,0 +1,67 @@
+package fr.uge.gitclout.analyze.jpa;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+
+@Entity
+@Table(name = "tag_names", uniqueConstraints = @UniqueConstraint(columnNames = {"projectKey", "name"}))
+public class TagNameStorage {
+
+    @Id
+    @GeneratedValue
+    private Long id;
+
+    private long projectKey;
+
+    private String name;
+
+    private Long sourceKey;
+
+    protected TagNameStorage() {
+    }
+
+    public TagNameStorage(long projectKey, String name) {
+        this.projectKey = projectKey;
+        this.name = name;
+    }
+
+    public Long id() {
+        return id;
+    }
+
+    public long projectKey() {
+        return projectKey;
+    }
+
+    public String name() {
+        return name;
+    }
+
+    /**
+     * Returns the key of the tag whose contributor rows this tag shares.
+     *
+     * @return Key of the analyzed tag, null if the rows of this tag are its own
+     */
+    public Long sourceKey() {
+        return sourceKey;
+    }
+
+    /**
+     * Shares the contributor rows of an analyzed tag of the same commit instead of storing its own.
+     *
+     * @param sourceKey Key of the analyzed tag
+     */
+    public void link(long sourceKey) {
+        this.sourceKey = sourceKey;
+    }
+
+    /**
+     * Makes the rows this tag shares its own, once they are moved to it.
+     */
+    public void unlink() {
+        this.sourceKey = null;
+    }
+}
@@ -0,0 +1,20 @@
+package fr.uge.gitclout.analyze.language;
+
+/**
+ * Comment markers of a language. Any of them may be null when the language does not have it.
+ *
+ * @param line       Marker of a line comment, such as {@code //}
+ * @param blockStart Marker opening a block comment, such as {@code /*}
+ * @param blockEnd   Marker closing a block comment
+ */
+public record CommentSyntax(String line, String blockStart, String blockEnd) {
+
+    /**
+     * Returns whether the language has block comments.
+     *
+     * @return True if both block markers are set
+     */
+    public boolean hasBlock() {
+        return blockStart != null && !blockStart.isEmpty() && blockEnd != null && !blockEnd.isEmpty();
+    }
+}
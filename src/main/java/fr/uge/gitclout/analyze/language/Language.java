@@ -1,70 +1,28 @@
 package fr.uge.gitclout.analyze.language;
 
-public enum Language {
-
-    // Language
-    JAVA("java", "java", Regex.TYPE_ONE_COMMENT, "#caf270"),
-    PY( "py", "python", Regex.TYPE_TWO_COMMENT, "#ff0000"),
-    C("c", "c", Regex.TYPE_ONE_COMMENT, "#555555"),
-    JS("js", "javascript", Regex.TYPE_ONE_COMMENT, "#f1e05a"),
-    RUBY("rb", "ruby", Regex.TYPE_THREE_COMMENT, "#701516"),
-    PHP("php", "php", Regex.TYPE_ONE_COMMENT, "#4F5D95"),
-    CSS("css", "css", Regex.TYPE_ONE_COMMENT, "#563d7c"),
-    TS("ts", "typescript", Regex.TYPE_ONE_COMMENT, "#2b7489"),
-    CPP("cpp", "cpp", Regex.TYPE_ONE_COMMENT, "#FDCBB8"),
-
-    XML("xml", "pom.xml", "#0060a3"),
-    GITIGNORE("gitignore", ".gitignore", "#45c490"),
-
-    // IMG
-    JPG("jpg", "jpg", "#f34b7d"),
-    PNG("png", "png", "#008d93"),
-    GIF("gif", "gif", "#2980b9"),
-    SVG("svg", "svg", "#c0392b"),
-
-    MD("md", "readme", "#1abc9c"),
-    TXT("txt", "txt", "#d35400"),
-    PROPERTIES("properties", "properties", "#8e44ad"),
-
-    COMMENTS("comments", "comments", "#555555");
-
-
-    private final String name;
-    private final String displayName;
-    private final Regex regex;
-
-    private final String color;
-
-    Language(String name, String displayName, Regex regex, String color) {
-        this.name = name;
-        this.displayName = displayName;
-        this.regex = regex;
-        this.color = color;
-    };
-
-    Language(String name, String displayName, String color) {
-        this.name = name;
-        this.displayName = displayName;
-        this.regex = null;
-        this.color = color;
-    };
-    public boolean isImage() {
-        return this == JPG || this == PNG || this == GIF || this == SVG;
-    }
-
-    public String getName() {
-        return name;
-    }
-
-    public Regex getRegex() {
-        return regex;
-    }
-
-    public String getDisplayName() {
-        return displayName;
-    }
-
-    public String getColor() {
-        return color;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Language entry of the {@link LanguageRegistry}.
+ *
+ * @param name         Identifier of the language
+ * @param displayName  Name under which lines of the language are counted
+ * @param color        Color of the language in the front-end
+ * @param extensions   File extensions of the language, without the dot
+ * @param filenames    Exact file names of the language, such as {@code pom.xml}
+ * @param interpreters Interpreters named by the shebang of extensionless scripts, such as {@code python3}
+ * @param comments     Comment syntax, null when every line counts as code
+ * @param image        True if the files are images, whose content is only counted once
+ */
+public record Language(String name, String displayName, String color, List<String> extensions, List<String> filenames,
+                       List<String> interpreters, CommentSyntax comments, boolean image) {
+
+    public Language {
+        Objects.requireNonNull(name);
+        displayName = Objects.requireNonNullElse(displayName, name);
+        extensions = extensions == null ? List.of() : List.copyOf(extensions);
+        filenames = filenames == null ? List.of() : List.copyOf(filenames);
+        interpreters = interpreters == null ? List.of() : List.copyOf(interpreters);
     }
 }
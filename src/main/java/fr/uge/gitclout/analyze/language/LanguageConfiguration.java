@@ -0,0 +1,32 @@
+package fr.uge.gitclout.analyze.language;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+@Configuration
+public class LanguageConfiguration {
+
+    /**
+     * Loads the languages from {@code gitclout.languages.location}, or from the bundled
+     * {@code languages.json} when it is not set.
+     *
+     * @param location       Spring resource location of the languages, such as {@code file:./languages.json}
+     * @param resourceLoader Resource loader
+     * @return Language registry
+     * @throws IOException If the languages cannot be read
+     */
+    @Bean
+    public LanguageRegistry languageRegistry(@Value("${gitclout.languages.location:}") String location, ResourceLoader resourceLoader) throws IOException {
+        if (location.isEmpty()) return LanguageRegistry.defaults();
+        Resource resource = resourceLoader.getResource(location);
+        try (InputStream input = resource.getInputStream()) {
+            return LanguageRegistry.load(input);
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package fr.uge.gitclout.analyze.language;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Languages recognized by the analysis, loaded from a JSON list of {@link Language} entries
+ * ({@code languages.json} on the classpath by default) and compiled into hash tables, so that
+ * classifying a path costs a couple of map lookups whatever the number of languages.
+ * <p>
+ * A path is matched by its exact file name first, then by its extension. Extensionless files
+ * can also be matched by the interpreter named in their shebang.
+ */
+public final class LanguageRegistry {
+
+    private static final String DEFAULT_LOCATION = "/languages.json";
+    private static final int SHEBANG_LIMIT = 256;
+
+    private final List<Language> languages;
+    private final Map<String, Language> byName = new HashMap<>();
+    private final Map<String, Language> byExtension = new HashMap<>();
+    private final Map<String, Language> byFilename = new HashMap<>();
+    private final Map<String, Language> byInterpreter = new HashMap<>();
+    private final Map<String, LineClassifier> classifiers = new HashMap<>();
+    private final String digest;
+
+    public LanguageRegistry(List<Language> languages) {
+        this.languages = List.copyOf(languages);
+        this.digest = digest(this.languages);
+        for (Language language : this.languages) {
+            register(byName, language.name(), language);
+            classifiers.put(language.name(), LineClassifier.of(language));
+            language.extensions().forEach(extension -> register(byExtension, extension, language));
+            language.filenames().forEach(filename -> register(byFilename, filename, language));
+            language.interpreters().forEach(interpreter -> register(byInterpreter, interpreter, language));
+        }
+    }
+
+    private static void register(Map<String, Language> table, String key, Language language) {
+        Language previous = table.putIfAbsent(key, language);
+        if (previous != null) {
+            throw new IllegalArgumentException("'" + key + "' is claimed by both " + previous.name() + " and " + language.name());
+        }
+    }
+
+    private static String digest(List<Language> languages) {
+        try {
+            var digest = MessageDigest.getInstance("SHA-256");
+            digest.update(languages.toString().getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Returns the languages of {@code languages.json}.
+     *
+     * @return Default registry
+     */
+    public static LanguageRegistry defaults() {
+        return Defaults.REGISTRY;
+    }
+
+    private static final class Defaults {
+        private static final LanguageRegistry REGISTRY = loadDefaults();
+
+        private static LanguageRegistry loadDefaults() {
+            try (InputStream input = LanguageRegistry.class.getResourceAsStream(DEFAULT_LOCATION)) {
+                return load(Objects.requireNonNull(input, "Missing " + DEFAULT_LOCATION));
+            } catch (IOException e) {
+                throw new UncheckedIOException("Error: Loading languages", e);
+            }
+        }
+    }
+
+    /**
+     * Reads a registry from a JSON list of languages.
+     *
+     * @param input JSON input
+     * @return Registry
+     * @throws IOException If the input cannot be read or parsed
+     */
+    public static LanguageRegistry load(InputStream input) throws IOException {
+        return new LanguageRegistry(new ObjectMapper().readValue(input, new TypeReference<List<Language>>() {}));
+    }
+
+    /**
+     * Returns all the languages, in declaration order.
+     *
+     * @return Languages
+     */
+    public List<Language> languages() {
+        return languages;
+    }
+
+    /**
+     * Digests the languages, so that results classified with other languages are told apart.
+     *
+     * @return Hexadecimal digest, the same for equal languages
+     */
+    public String digest() {
+        return digest;
+    }
+
+    /**
+     * Retrieves a language by its identifier.
+     *
+     * @param name Identifier of the language
+     * @return Language, empty if it is unknown
+     */
+    public Optional<Language> byName(String name) {
+        return Optional.ofNullable(byName.get(name));
+    }
+
+    /**
+     * Returns the line classifier of a language of this registry.
+     *
+     * @param language Language
+     * @return Line classifier, compiled once per language
+     */
+    public LineClassifier classifier(Language language) {
+        LineClassifier classifier = classifiers.get(language.name());
+        return classifier != null ? classifier : LineClassifier.of(language);
+    }
+
+    /**
+     * Classifies a path by its file name and extension.
+     *
+     * @param path Path of the file
+     * @return Language of the file, null if it is not analyzed
+     */
+    public Language classify(String path) {
+        int slash = path.lastIndexOf('/');
+        String filename = slash == -1 ? path : path.substring(slash + 1);
+        Language language = byFilename.get(filename);
+        if (language != null) return language;
+        int dot = filename.lastIndexOf('.');
+        if (dot == -1 || dot == filename.length() - 1) return null;
+        return byExtension.get(filename.substring(dot + 1));
+    }
+
+    /**
+     * Returns whether a path that {@link #classify(String)} rejects may still be a script whose
+     * language is given by its shebang.
+     *
+     * @param path Path of the file
+     * @return True if the file has no extension and some language declares interpreters
+     */
+    public boolean mayBeScript(String path) {
+        if (byInterpreter.isEmpty()) return false;
+        return path.indexOf('.', path.lastIndexOf('/') + 1) == -1;
+    }
+
+    /**
+     * Classifies a script by the interpreter named in its shebang, such as
+     * {@code #!/usr/bin/python3} or {@code #!/usr/bin/env -S node --harmony}.
+     *
+     * @param content Content of the file, only the first line is read
+     * @return Language of the script, null if there is no shebang or its interpreter is unknown
+     */
+    public Language classifyScript(byte[] content) {
+        if (content.length < 2 || content[0] != '#' || content[1] != '!') return null;
+        int end = 2;
+        while (end < content.length && end < SHEBANG_LIMIT && content[end] != '\n' && content[end] != '\r') end++;
+        String[] words = new String(content, 2, end - 2, StandardCharsets.US_ASCII).trim().split("\\s+");
+        int index = 0;
+        String interpreter = baseName(words[index]);
+        if (interpreter.equals("env")) {
+            do {
+                index++;
+            } while (index < words.length && words[index].startsWith("-"));
+            if (index == words.length) return null;
+            interpreter = baseName(words[index]);
+        }
+        return byInterpreter.get(interpreter);
+    }
+
+    private static String baseName(String path) {
+        return path.substring(path.lastIndexOf('/') + 1);
+    }
+}
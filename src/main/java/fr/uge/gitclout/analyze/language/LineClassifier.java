@@ -0,0 +1,153 @@
+package fr.uge.gitclout.analyze.language;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+
+/**
+ * Comment markers of a {@link Language} encoded once in UTF-8, so that lines can be classified
+ * directly on the raw bytes of a file without decoding them into strings.
+ * Single-byte markers, such as {@code #}, are found with a plain byte scan.
+ */
+public final class LineClassifier {
+
+    private final String displayName;
+    private final boolean image;
+    private final boolean hasComments;
+    private final byte[] line;
+    private final byte[] blockStart;
+    private final byte[] blockEnd;
+
+    private LineClassifier(Language language) {
+        this.displayName = language.displayName();
+        this.image = language.image();
+        CommentSyntax comments = language.comments();
+        this.hasComments = comments != null;
+        this.line = comments == null ? null : encode(comments.line());
+        this.blockStart = comments == null || !comments.hasBlock() ? null : encode(comments.blockStart());
+        this.blockEnd = comments == null || !comments.hasBlock() ? null : encode(comments.blockEnd());
+    }
+
+    /**
+     * Compiles the comment markers of a language.
+     *
+     * @param language Language
+     * @return Classifier of the lines of the language
+     */
+    public static LineClassifier of(Language language) {
+        return new LineClassifier(Objects.requireNonNull(language));
+    }
+
+    private static byte[] encode(String marker) {
+        return marker == null || marker.isEmpty() ? null : marker.getBytes(StandardCharsets.UTF_8);
+    }
+
+    public String displayName() {
+        return displayName;
+    }
+
+    public boolean image() {
+        return image;
+    }
+
+    /**
+     * Returns whether the language has a comment syntax at all; lines of languages without one all count as code.
+     *
+     * @return True if the language has comments
+     */
+    public boolean hasComments() {
+        return hasComments;
+    }
+
+    /**
+     * Returns whether a line contains the line comment marker.
+     *
+     * @param content Raw content of the file
+     * @param start   Offset of the first byte of the line
+     * @param end     Offset just past the last byte of the line
+     * @return True if the line contains a line comment
+     */
+    public boolean hasLineComment(byte[] content, int start, int end) {
+        return contains(content, start, end, line);
+    }
+
+    /**
+     * Returns whether a line contains the marker opening a block comment.
+     *
+     * @param content Raw content of the file
+     * @param start   Offset of the first byte of the line
+     * @param end     Offset just past the last byte of the line
+     * @return True if the line opens a block comment
+     */
+    public boolean opensBlock(byte[] content, int start, int end) {
+        return contains(content, start, end, blockStart);
+    }
+
+    /**
+     * Returns whether a line contains the marker closing a block comment.
+     *
+     * @param content Raw content of the file
+     * @param start   Offset of the first byte of the line
+     * @param end     Offset just past the last byte of the line
+     * @return True if the line closes a block comment
+     */
+    public boolean closesBlock(byte[] content, int start, int end) {
+        return contains(content, start, end, blockEnd);
+    }
+
+    /**
+     * Returns whether a block comment is open after a line. Outside a block, a line opening one leaves it
+     * open; inside a block, a line closing it ends it. A line opening a block is never taken as closing it.
+     *
+     * @param content Raw content of the file
+     * @param start   Offset of the first byte of the line
+     * @param end     Offset just past the last byte of the line
+     * @param inBlock Whether a block comment is open before the line
+     * @return True if a block comment is open after the line
+     */
+    public boolean inBlockAfter(byte[] content, int start, int end, boolean inBlock) {
+        return inBlock ? !closesBlock(content, start, end) : opensBlock(content, start, end);
+    }
+
+    /**
+     * Returns whether a line counts as a comment: it is part of a block comment, or it contains a line comment.
+     *
+     * @param content Raw content of the file
+     * @param start   Offset of the first byte of the line
+     * @param end     Offset just past the last byte of the line
+     * @param inBlock Whether a block comment is open before or after the line
+     * @return True if the line is a comment
+     */
+    public boolean isComment(byte[] content, int start, int end, boolean inBlock) {
+        return inBlock || hasLineComment(content, start, end);
+    }
+
+    /**
+     * Searches a marker in a range of bytes.
+     *
+     * @param content Bytes to search
+     * @param start   Start of the range, inclusive
+     * @param end     End of the range, exclusive
+     * @param marker  Marker, null never matches
+     * @return True if the marker is in the range
+     */
+    static boolean contains(byte[] content, int start, int end, byte[] marker) {
+        if (marker == null) return false;
+        byte first = marker[0];
+        if (marker.length == 1) {
+            for (int i = start; i < end; i++) {
+                if (content[i] == first) return true;
+            }
+            return false;
+        }
+        int last = end - marker.length;
+        outer:
+        for (int i = start; i <= last; i++) {
+            if (content[i] != first) continue;
+            for (int j = 1; j < marker.length; j++) {
+                if (content[i + j] != marker[j]) continue outer;
+            }
+            return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,44 @@
+package fr.uge.gitclout.analyze.service;
+
+import fr.uge.gitclout.analyze.jpa.AnalysisRequest;
+import fr.uge.gitclout.analyze.jpa.AnalysisStorage;
+import fr.uge.gitclout.analyze.jpa.ContributorRequest;
+import fr.uge.gitclout.analyze.jpa.TagNameStorage;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Objects;
+
+/**
+ * Moves an analysis to another tag sharing its rows, in a single transaction: the rows, the links of the
+ * other tags and the analysis itself either all point to the new tag or are all left untouched.
+ */
+@Service
+public class AnalysisMover {
+
+    private final AnalysisRequest analysisRequests;
+    private final ContributorRequest contributorRequests;
+    private final NameDictionary names;
+
+    public AnalysisMover(AnalysisRequest analysisRequests, ContributorRequest contributorRequests, NameDictionary names) {
+        this.analysisRequests = Objects.requireNonNull(analysisRequests);
+        this.contributorRequests = Objects.requireNonNull(contributorRequests);
+        this.names = Objects.requireNonNull(names);
+    }
+
+    /**
+     * Moves an analysis and its rows to a tag linked to it.
+     *
+     * @param analysis       Analysis to move
+     * @param heir           Linked tag the analysis is moved to
+     * @param repositoryName Repository name of the tag
+     * @param projectName    Project name of the tag
+     */
+    @Transactional
+    public void move(AnalysisStorage analysis, TagNameStorage heir, String repositoryName, String projectName) {
+        contributorRequests.moveTagKey(analysis.tagKey(), heir.id());
+        names.relink(analysis.tagKey(), heir.id());
+        analysis.moveTo(repositoryName, heir.id(), projectName, heir.name());
+        analysisRequests.save(analysis);
+    }
+}
@@ -0,0 +1,144 @@
+package fr.uge.gitclout.analyze.service;
+
+import fr.uge.gitclout.analyze.Contributor;
+import fr.uge.gitclout.analyze.PathExclusions;
+import fr.uge.gitclout.analyze.jpa.AnalysisRequest;
+import fr.uge.gitclout.analyze.jpa.AnalysisStorage;
+import fr.uge.gitclout.analyze.jpa.ContributorRequest;
+import fr.uge.gitclout.analyze.jpa.ContributorRow;
+import fr.uge.gitclout.analyze.jpa.TagNameStorage;
+import fr.uge.gitclout.analyze.language.LanguageRegistry;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.stream.StreamSupport;
+
+/**
+ * Remembers which commit each fully analyzed tag points to. A tag of a commit already analyzed with the
+ * same exclusions and languages, in any repository, is linked to the rows of that analysis instead of being blamed
+ * again: refreshing or re-adding a repository only analyzes the commits it has not seen yet, and a fork
+ * or a mirror only the commits its upstream does not have.
+ */
+@Service
+public class AnalysisService {
+
+    private final AnalysisRequest analysisRequests;
+    private final ContributorRequest contributorRequests;
+    private final NameDictionary names;
+    private final FileCostService fileCostService;
+    private final AnalysisMover mover;
+    private final LanguageRegistry languages;
+
+    public AnalysisService(AnalysisRequest analysisRequests, ContributorRequest contributorRequests, NameDictionary names, FileCostService fileCostService, AnalysisMover mover, LanguageRegistry languages) {
+        this.analysisRequests = Objects.requireNonNull(analysisRequests);
+        this.contributorRequests = Objects.requireNonNull(contributorRequests);
+        this.names = Objects.requireNonNull(names);
+        this.fileCostService = Objects.requireNonNull(fileCostService);
+        this.mover = Objects.requireNonNull(mover);
+        this.languages = Objects.requireNonNull(languages);
+    }
+
+    /**
+     * Looks for a previous analysis of a commit, in any repository.
+     *
+     * @param commitId   Peeled commit id of the tag
+     * @param exclusions Exclusions the tag would be analyzed with
+     * @return Previous analysis, empty if the commit must be analyzed
+     */
+    public Optional<AnalysisStorage> find(String commitId, PathExclusions exclusions) {
+        return analysisRequests.findFirstByCommitIdAndFingerprintOrderById(commitId, fingerprint(exclusions));
+    }
+
+    /**
+     * Records the analysis of a tag, once its contributor rows are saved. When two repositories analyze
+     * the same commit at once, the first one recorded is kept.
+     *
+     * @param projectName Project name
+     * @param tagId       Tag identifier
+     * @param commitId    Peeled commit id of the tag
+     * @param exclusions  Exclusions the tag was analyzed with
+     */
+    public synchronized void record(String projectName, String tagId, String commitId, PathExclusions exclusions) {
+        if (find(commitId, exclusions).isPresent()) return;
+        String tagName = tagId.replace("refs/tags/", "");
+        analysisRequests.save(new AnalysisStorage(repositoryName(projectName), commitId, fingerprint(exclusions),
+                names.tagKey(projectName, tagName), projectName, tagName));
+    }
+
+    /**
+     * Links a tag to a previous analysis: the tag shares its contributor rows and gets a copy of its file costs.
+     *
+     * @param analysis    Previous analysis of the commit of the tag
+     * @param projectName Project name
+     * @param tagId       Tag identifier
+     * @return Contributors of the analysis, to build the summaries of the tag from
+     */
+    public Map<String, Contributor> link(AnalysisStorage analysis, String projectName, String tagId) {
+        String tagName = tagId.replace("refs/tags/", "");
+        names.linkTag(projectName, tagName, analysis.tagKey());
+        fileCostService.copyFileCosts(analysis.projectName(), analysis.tagId(), tagName, projectName);
+        Map<String, Contributor> contributors = new HashMap<>();
+        for (ContributorRow row : contributorRequests.findByTagKey(analysis.tagKey())) {
+            contributors.computeIfAbsent(row.contributorName(), Contributor::new)
+                    .getContributions().put(row.languageName(), row.numberOfLines());
+        }
+        return contributors;
+    }
+
+    /**
+     * Removes the analyses of a repository, before its tags are. An analysis whose rows are still shared
+     * by a tag of another repository is moved to that tag, rows included, instead.
+     *
+     * @param name Repository name
+     */
+    public synchronized void deleteAnalyses(String name) {
+        List<AnalysisStorage> analyses = StreamSupport.stream(analysisRequests.findAll().spliterator(), false)
+                .filter(analysis -> repositoryName(analysis.repositoryName()).equals(name)).toList();
+        for (AnalysisStorage analysis : analyses) {
+            Optional<TagNameStorage> heir = names.linkedTags(analysis.tagKey()).stream()
+                    .filter(tag -> !repositoryName(names.projectName(tag.projectKey())).equals(name))
+                    .findFirst();
+            if (heir.isEmpty()) {
+                analysisRequests.delete(analysis);
+                continue;
+            }
+            TagNameStorage tag = heir.get();
+            String projectName = names.projectName(tag.projectKey());
+            mover.move(analysis, tag, repositoryName(projectName), projectName);
+        }
+    }
+
+    /**
+     * Digests the exclusions together with the loaded languages: an analysis is only reused when both match.
+     *
+     * @param exclusions Exclusions of the analysis
+     * @return Hexadecimal digest
+     */
+    private String fingerprint(PathExclusions exclusions) {
+        try {
+            var digest = MessageDigest.getInstance("SHA-256");
+            digest.update((exclusions.fingerprint() + "\n" + languages.digest()).getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Returns the repository name of a project, which is its name without the timestamp.
+     *
+     * @param projectName Project name
+     * @return Repository name
+     */
+    private static String repositoryName(String projectName) {
+        return projectName.split("_")[0];
+    }
+}
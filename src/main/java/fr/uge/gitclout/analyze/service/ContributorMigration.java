@@ -0,0 +1,79 @@
+package fr.uge.gitclout.analyze.service;
+
+import fr.uge.gitclout.analyze.jpa.ContributorRequest;
+import fr.uge.gitclout.analyze.jpa.ContributorRow;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Moves the rows of the former {@code contributors} table, which repeated every name on every row,
+ * into the normalized {@code contributions} table, then drops it. Tags are migrated one at a time,
+ * each in a single transaction, so an interrupted migration resumes with the first tag left. The
+ * database is vacuumed afterwards, since SQLite keeps the pages of a dropped table otherwise.
+ */
+@Component
+public class ContributorMigration implements ApplicationRunner {
+
+    private static final String LEGACY_TABLE = "contributors";
+
+    private final JdbcTemplate jdbc;
+    private final ContributorRequest contributorRequests;
+    private final NameDictionary names;
+
+    public ContributorMigration(JdbcTemplate jdbc, ContributorRequest contributorRequests, NameDictionary names) {
+        this.jdbc = Objects.requireNonNull(jdbc);
+        this.contributorRequests = Objects.requireNonNull(contributorRequests);
+        this.names = Objects.requireNonNull(names);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        migrate();
+    }
+
+    /**
+     * Migrates the legacy table, if there is one.
+     *
+     * @return Number of rows migrated
+     */
+    public int migrate() {
+        if (!hasLegacyTable()) return 0;
+        jdbc.execute("create index if not exists contributors_migration on contributors (project_name, tag_id)");
+        int migrated = 0;
+        for (Map<String, Object> tag : jdbc.queryForList("select distinct project_name, tag_id from contributors")) {
+            migrated += migrateTag((String) tag.get("project_name"), (String) tag.get("tag_id"));
+        }
+        jdbc.execute("drop table contributors");
+        jdbc.execute("drop table if exists contributors_seq");
+        jdbc.execute("drop table if exists HTE_contributors");
+        jdbc.execute("vacuum");
+        return migrated;
+    }
+
+    private boolean hasLegacyTable() {
+        Integer tables = jdbc.queryForObject("select count(*) from sqlite_master where type = 'table' and name = ?", Integer.class, LEGACY_TABLE);
+        return tables != null && tables > 0;
+    }
+
+    /**
+     * Migrates the rows of one tag, unless a previous run already did.
+     *
+     * @param projectName Project name
+     * @param tagId       Tag name
+     * @return Number of rows migrated
+     */
+    private int migrateTag(String projectName, String tagId) {
+        if (contributorRequests.existsByTagKey(names.tagKey(projectName, tagId))) return 0;
+        List<ContributorRow> rows = jdbc.query("select coalesce(contributor_name, ''), coalesce(language_name, ''), number_of_lines from contributors where project_name = ? and tag_id = ?",
+                (result, index) -> new ContributorRow(result.getString(1), result.getString(2), tagId, result.getInt(3), projectName),
+                projectName, tagId);
+        contributorRequests.saveAll(rows.stream().map(names::encode).toList());
+        return rows.size();
+    }
+}
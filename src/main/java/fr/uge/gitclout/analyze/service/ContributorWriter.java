@@ -0,0 +1,226 @@
+package fr.uge.gitclout.analyze.service;
+
+import fr.uge.gitclout.analyze.jpa.ContributorRequest;
+import fr.uge.gitclout.analyze.jpa.ContributorRow;
+import fr.uge.gitclout.analyze.jpa.ContributorStorage;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Writes the contributor rows of analyzed tags from a dedicated thread. Ingests hand their rows over
+ * through a bounded queue, blocking while the writer is behind, and the writer saves them in batches,
+ * each in its own transaction. The rows of a tag are thus never all in memory at once, neither as a
+ * list nor in a single persistence context. Names are encoded by the {@link NameDictionary} on the
+ * writer thread.
+ * <p>
+ * When a transaction fails, its rows are saved again one by one, so that only the batches with a
+ * faulty row fail. A failed batch then removes the rows it already saved: a tag is stored whole or not at all.
+ */
+@Component
+public class ContributorWriter {
+
+    private record Row(Batch batch, ContributorRow row) {
+    }
+
+    private record Flush(CompletableFuture<Void> done) {
+    }
+
+    private static final Object STOP = new Object();
+    private static final long POLL_MILLIS = 100;
+
+    private final ContributorRequest contributorRequests;
+    private final NameDictionary names;
+    private final BlockingQueue<Object> queue;
+    private final int batchSize;
+    private final Thread writer;
+
+    public ContributorWriter(ContributorRequest contributorRequests, NameDictionary names,
+                             @Value("${gitclout.persistence.queue-capacity:1024}") int queueCapacity,
+                             @Value("${gitclout.persistence.batch-size:200}") int batchSize) {
+        if (queueCapacity <= 0) throw new IllegalArgumentException("queueCapacity <= 0");
+        if (batchSize <= 0) throw new IllegalArgumentException("batchSize <= 0");
+        this.contributorRequests = Objects.requireNonNull(contributorRequests);
+        this.names = Objects.requireNonNull(names);
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.writer = Thread.ofPlatform().name("gitclout-contributor-writer").daemon().start(this::run);
+    }
+
+    /**
+     * Opens a batch of rows, usually the rows of one tag.
+     *
+     * @return Batch to add rows to, then to close to wait until they are saved
+     */
+    public Batch open() {
+        return new Batch();
+    }
+
+    /**
+     * Rows written by one ingest. Rows of concurrent batches may share a transaction.
+     */
+    public final class Batch implements AutoCloseable {
+
+        private volatile Throwable failure;
+        private final Set<Long> tagKeys = new HashSet<>();
+        private int rows;
+
+        private Batch() {
+        }
+
+        /**
+         * Hands a row over to the writer, waiting while the queue is full.
+         *
+         * @param row Contributor row
+         */
+        public void add(ContributorRow row) {
+            Objects.requireNonNull(row);
+            checkFailure();
+            put(new Row(this, row));
+            rows++;
+        }
+
+        /**
+         * Returns the number of rows added to the batch.
+         *
+         * @return Number of rows
+         */
+        public int rows() {
+            return rows;
+        }
+
+        /**
+         * Waits until every row of the batch is saved. If a row could not be saved, the rows of the
+         * batch already saved are removed.
+         *
+         * @throws RuntimeException If a row could not be saved
+         */
+        @Override
+        public void close() {
+            var flush = new Flush(new CompletableFuture<>());
+            put(flush);
+            try {
+                while (true) {
+                    try {
+                        flush.done().get(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                        break;
+                    } catch (TimeoutException e) {
+                        if (!writer.isAlive() && !flush.done().isDone()) throw new IllegalStateException("Error: Contributor writer is stopped");
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Error: Saving contributors", e);
+            } catch (ExecutionException e) {
+                throw new RuntimeException("Error: Saving contributors", e.getCause());
+            }
+            if (failure != null && !tagKeys.isEmpty()) contributorRequests.deleteByTagKeyIn(tagKeys);
+            checkFailure();
+        }
+
+        private void checkFailure() {
+            if (failure != null) throw new RuntimeException("Error: Saving contributors", failure);
+        }
+    }
+
+    private void put(Object item) {
+        try {
+            do {
+                if (!writer.isAlive()) throw new IllegalStateException("Error: Contributor writer is stopped");
+            } while (!queue.offer(item, POLL_MILLIS, TimeUnit.MILLISECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Error: Saving contributors", e);
+        }
+    }
+
+    /**
+     * Loop of the writer thread: saves a batch whenever it is full or a producer waits for its rows.
+     * The flushes still queued when the thread exits, for whatever reason, fail.
+     */
+    private void run() {
+        List<Row> pending = new ArrayList<>(batchSize);
+        try {
+            while (true) {
+                Object item = queue.take();
+                if (item instanceof Row row) {
+                    pending.add(row);
+                    if (pending.size() == batchSize) write(pending);
+                } else if (item instanceof Flush flush) {
+                    write(pending);
+                    flush.done().complete(null);
+                } else if (item == STOP) {
+                    write(pending);
+                    return;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            var stopped = new IllegalStateException("Error: Contributor writer is stopped");
+            pending.forEach(row -> row.batch().failure = stopped);
+            for (Object item; (item = queue.poll()) != null; ) {
+                if (item instanceof Row row) row.batch().failure = stopped;
+                else if (item instanceof Flush flush) flush.done().completeExceptionally(stopped);
+            }
+        }
+    }
+
+    /**
+     * Saves the pending rows in one transaction. If it fails, saves them again one by one, each in its
+     * own transaction, so that only the batches with a faulty row fail.
+     *
+     * @param pending Pending rows, cleared once written
+     */
+    private void write(List<Row> pending) {
+        if (pending.isEmpty()) return;
+        try {
+            List<ContributorStorage> storages = new ArrayList<>(pending.size());
+            for (Row row : pending) storages.add(names.encode(row.row()));
+            contributorRequests.saveAll(storages);
+            for (int i = 0; i < pending.size(); i++) pending.get(i).batch().tagKeys.add(storages.get(i).tagKey());
+        } catch (Throwable e) {
+            pending.forEach(this::writeRow);
+        }
+        pending.clear();
+    }
+
+    /**
+     * Saves a single row, failing its batch if it cannot be saved.
+     *
+     * @param row Pending row
+     */
+    private void writeRow(Row row) {
+        Batch batch = row.batch();
+        if (batch.failure != null) return;
+        try {
+            ContributorStorage storage = names.encode(row.row());
+            contributorRequests.saveAll(List.of(storage));
+            batch.tagKeys.add(storage.tagKey());
+        } catch (Throwable e) {
+            batch.failure = e;
+        }
+    }
+
+    /**
+     * Saves the rows already queued, then stops the writer thread.
+     */
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (!writer.isAlive()) return;
+        queue.put(STOP);
+        writer.join();
+    }
+}
@@ -0,0 +1,111 @@
+package fr.uge.gitclout.analyze.service;
+
+import fr.uge.gitclout.analyze.PathExclusions;
+import fr.uge.gitclout.analyze.api.data.ExclusionData;
+import fr.uge.gitclout.analyze.jpa.ExclusionRequest;
+import fr.uge.gitclout.analyze.jpa.ExclusionStorage;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Stores the exclusions of each repository, kept across refreshes and re-adds since they are
+ * keyed by the repository name rather than by the timestamped project name.
+ * <p>
+ * A repository without stored exclusions gets the default rules and maximum file size, so vendored,
+ * minified and oversized files are left out of its results. Saving exclusions without the default
+ * rules and with no maximum size analyzes every file again.
+ */
+@Service
+public class ExclusionService {
+
+    private final ExclusionRequest exclusionRequests;
+    private final long defaultMaxFileSize;
+
+    public ExclusionService(ExclusionRequest exclusionRequests, @Value("${gitclout.exclusions.max-file-size:1MB}") DataSize defaultMaxFileSize) {
+        if (defaultMaxFileSize.isNegative()) throw new IllegalArgumentException("defaultMaxFileSize < 0");
+        this.exclusionRequests = Objects.requireNonNull(exclusionRequests);
+        this.defaultMaxFileSize = defaultMaxFileSize.toBytes();
+    }
+
+    /**
+     * Returns the exclusions to apply when analyzing a project.
+     *
+     * @param projectName Project name
+     * @return Exclusions of the repository, or the default ones
+     */
+    public PathExclusions exclusions(String projectName) {
+        return toExclusions(load(repositoryName(projectName)));
+    }
+
+    /**
+     * Retrieves the exclusions of a repository.
+     *
+     * @param name Repository name
+     * @return Exclusions of the repository, or the default ones
+     */
+    public Mono<ExclusionData> getExclusions(String name) {
+        return Mono.fromCallable(() -> load(name)).subscribeOn(Schedulers.boundedElastic());
+    }
+
+    /**
+     * Replaces the exclusions of a repository. They apply to the tags analyzed from now on.
+     *
+     * @param name       Repository name
+     * @param exclusions New exclusions
+     * @return Saved exclusions
+     */
+    public Mono<ExclusionData> setExclusions(String name, ExclusionData exclusions) {
+        if (exclusions.maxFileSize() < 0) return Mono.error(new IllegalArgumentException("Error: Negative maximum file size"));
+        List<String> rules = exclusions.rules() == null ? List.of() : exclusions.rules().stream().map(String::strip).filter(rule -> !rule.isEmpty()).toList();
+        return Mono.fromCallable(() -> {
+                    var storage = exclusionRequests.findByRepositoryName(name)
+                            .map(existing -> {
+                                existing.update(rules, exclusions.maxFileSize(), exclusions.defaultRules());
+                                return existing;
+                            })
+                            .orElseGet(() -> new ExclusionStorage(name, rules, exclusions.maxFileSize(), exclusions.defaultRules()));
+                    exclusionRequests.save(storage);
+                    return new ExclusionData(rules, exclusions.maxFileSize(), exclusions.defaultRules());
+                })
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    /**
+     * Removes the exclusions of a repository.
+     *
+     * @param name Repository name
+     */
+    public void deleteExclusions(String name) {
+        exclusionRequests.findByRepositoryName(name).ifPresent(exclusionRequests::delete);
+    }
+
+    private ExclusionData load(String name) {
+        return exclusionRequests.findByRepositoryName(name)
+                .map(storage -> new ExclusionData(storage.rules(), storage.maxFileSize(), storage.defaultRules()))
+                .orElseGet(() -> new ExclusionData(List.of(), defaultMaxFileSize, true));
+    }
+
+    private static PathExclusions toExclusions(ExclusionData data) {
+        List<String> rules = new ArrayList<>();
+        if (data.defaultRules()) rules.addAll(PathExclusions.DEFAULT_RULES);
+        rules.addAll(data.rules());
+        return new PathExclusions(rules, data.maxFileSize());
+    }
+
+    /**
+     * Returns the repository name of a project, which is its name without the timestamp.
+     *
+     * @param projectName Project name
+     * @return Repository name
+     */
+    private static String repositoryName(String projectName) {
+        return projectName.split("_")[0];
+    }
+}
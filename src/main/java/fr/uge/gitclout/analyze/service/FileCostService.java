@@ -0,0 +1,94 @@
+package fr.uge.gitclout.analyze.service;
+
+import fr.uge.gitclout.analyze.FileCost;
+import fr.uge.gitclout.analyze.api.data.FileCostData;
+import fr.uge.gitclout.analyze.jpa.FileCostRequest;
+import fr.uge.gitclout.analyze.jpa.FileCostStorage;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.StreamSupport;
+
+/**
+ * Keeps the most expensive files of each analyzed tag, to find the generated files, lockfiles and
+ * vendored blobs that dominate blame time.
+ */
+@Service
+public class FileCostService {
+
+    private final FileCostRequest fileCostRequests;
+    private final int retained;
+
+    public FileCostService(FileCostRequest fileCostRequests, @Value("${gitclout.file-cost.retained:100}") int retained) {
+        if (retained < 0) throw new IllegalArgumentException("retained < 0");
+        this.fileCostRequests = Objects.requireNonNull(fileCostRequests);
+        this.retained = retained;
+    }
+
+    /**
+     * Saves the most expensive files of an analyzed tag, slowest blame first.
+     *
+     * @param costs       Cost of every file of the tag
+     * @param tagId       Tag identifier
+     * @param projectName Project name
+     */
+    public void saveFileCosts(List<FileCost> costs, String tagId, String projectName) {
+        String tagName = tagId.replace("refs/tags/", "");
+        fileCostRequests.saveAll(costs.stream()
+                .sorted(Comparator.comparingLong(FileCost::blameNanos).reversed())
+                .limit(retained)
+                .map(cost -> new FileCostStorage(cost.path(), tagName, projectName, cost.blameNanos(), cost.size(), cost.lines()))
+                .toList());
+    }
+
+    /**
+     * Gives a tag linked to the analysis of another tag the file costs of that analysis.
+     *
+     * @param sourceProjectName Project name of the analyzed tag
+     * @param sourceTagId       Name of the analyzed tag
+     * @param tagId             Tag identifier
+     * @param projectName       Project name
+     */
+    public void copyFileCosts(String sourceProjectName, String sourceTagId, String tagId, String projectName) {
+        String tagName = tagId.replace("refs/tags/", "");
+        fileCostRequests.saveAll(fileCostRequests.findByProjectNameAndTagId(sourceProjectName, sourceTagId).stream()
+                .map(cost -> new FileCostStorage(cost.path(), tagName, projectName, cost.blameNanos(), cost.size(), cost.numberOfLines()))
+                .toList());
+    }
+
+    /**
+     * Retrieves the most expensive files of a tag, or of a whole project.
+     *
+     * @param projectName Project name
+     * @param tagId       Tag identifier, null for every tag of the project
+     * @param limit       Maximum number of files
+     * @return Flux of files, slowest blame first
+     */
+    public Flux<FileCostData> getSlowestFiles(String projectName, String tagId, int limit) {
+        if (limit <= 0) return Flux.empty();
+        return Mono.fromCallable(() -> tagId == null
+                        ? fileCostRequests.findByProjectNameOrderByBlameNanosDesc(projectName, PageRequest.of(0, limit))
+                        : fileCostRequests.findByProjectNameAndTagIdOrderByBlameNanosDesc(projectName, tagId, PageRequest.of(0, limit)))
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMapIterable(Function.identity())
+                .map(cost -> new FileCostData(cost.tagId(), cost.path(), cost.blameNanos() / 1e6, cost.size(), cost.numberOfLines()));
+    }
+
+    /**
+     * Removes all file costs of a repository.
+     *
+     * @param name Repository name
+     */
+    public void deleteFileCosts(String name) {
+        fileCostRequests.deleteAll(StreamSupport.stream(fileCostRequests.findAll().spliterator(), false)
+                .filter(cost -> cost.projectName().split("_")[0].equals(name)).toList());
+    }
+}
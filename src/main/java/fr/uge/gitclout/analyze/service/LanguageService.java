@@ -1,6 +1,6 @@
 package fr.uge.gitclout.analyze.service;
 
-import fr.uge.gitclout.analyze.language.Language;
+import fr.uge.gitclout.analyze.language.LanguageRegistry;
 import org.springframework.stereotype.Service;
 import fr.uge.gitclout.analyze.api.data.LanguageData;
 import reactor.core.publisher.Flux;
@@ -8,8 +8,14 @@ import reactor.core.publisher.Flux;
 @Service
 public class LanguageService {
 
+    private final LanguageRegistry languages;
+
+    public LanguageService(LanguageRegistry languages) {
+        this.languages = languages;
+    }
+
     public Flux<LanguageData> getAllLanguages() {
-        return Flux.fromArray(Language.values())
-                .map(lang -> new LanguageData(lang.getDisplayName(), lang.getColor()));
+        return Flux.fromIterable(languages.languages())
+                .map(lang -> new LanguageData(lang.displayName(), lang.color()));
     }
 }
@@ -0,0 +1,187 @@
+package fr.uge.gitclout.analyze.service;
+
+import fr.uge.gitclout.analyze.jpa.ContributorNameRequest;
+import fr.uge.gitclout.analyze.jpa.ContributorNameStorage;
+import fr.uge.gitclout.analyze.jpa.ContributorRow;
+import fr.uge.gitclout.analyze.jpa.ContributorStorage;
+import fr.uge.gitclout.analyze.jpa.LanguageNameRequest;
+import fr.uge.gitclout.analyze.jpa.LanguageNameStorage;
+import fr.uge.gitclout.analyze.jpa.ProjectNameRequest;
+import fr.uge.gitclout.analyze.jpa.ProjectNameStorage;
+import fr.uge.gitclout.analyze.jpa.TagNameRequest;
+import fr.uge.gitclout.analyze.jpa.TagNameStorage;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.StreamSupport;
+
+/**
+ * Encodes the project, tag, contributor and language names of contributor rows as integer keys.
+ * A name gets its key the first time it is written; keys are cached, since a name is written far
+ * more often than it is created.
+ */
+@Service
+public class NameDictionary {
+
+    private record TagName(long projectKey, String name) {
+    }
+
+    private final ProjectNameRequest projectNames;
+    private final TagNameRequest tagNames;
+    private final ContributorNameRequest contributorNames;
+    private final LanguageNameRequest languageNames;
+    private final Map<String, Long> projectKeys = new ConcurrentHashMap<>();
+    private final Map<TagName, Long> tagKeys = new ConcurrentHashMap<>();
+    private final Map<String, Long> contributorKeys = new ConcurrentHashMap<>();
+    private final Map<String, Long> languageKeys = new ConcurrentHashMap<>();
+
+    public NameDictionary(ProjectNameRequest projectNames, TagNameRequest tagNames, ContributorNameRequest contributorNames, LanguageNameRequest languageNames) {
+        this.projectNames = Objects.requireNonNull(projectNames);
+        this.tagNames = Objects.requireNonNull(tagNames);
+        this.contributorNames = Objects.requireNonNull(contributorNames);
+        this.languageNames = Objects.requireNonNull(languageNames);
+    }
+
+    /**
+     * Encodes a contributor row.
+     *
+     * @param row Contributor row
+     * @return Row to store
+     */
+    public ContributorStorage encode(ContributorRow row) {
+        return new ContributorStorage(tagKey(row.projectName(), row.tagId()), contributorKey(row.contributorName()),
+                languageKey(row.languageName()), row.numberOfLines());
+    }
+
+    /**
+     * Returns the key of a project, creating it if needed.
+     *
+     * @param name Project name
+     * @return Key of the project
+     */
+    public long projectKey(String name) {
+        return projectKeys.computeIfAbsent(name, key -> projectNames.findByName(key)
+                .orElseGet(() -> projectNames.save(new ProjectNameStorage(key))).id());
+    }
+
+    /**
+     * Returns the key of a tag, creating it and its project if needed.
+     *
+     * @param projectName Project name
+     * @param tagId       Tag name, without the {@code refs/tags/} prefix
+     * @return Key of the tag
+     */
+    public long tagKey(String projectName, String tagId) {
+        return tagKeys.computeIfAbsent(new TagName(projectKey(projectName), tagId), key -> tagNames.findByProjectKeyAndName(key.projectKey(), key.name())
+                .orElseGet(() -> tagNames.save(new TagNameStorage(key.projectKey(), key.name()))).id());
+    }
+
+    /**
+     * Makes a tag share the contributor rows of another tag, creating it if needed.
+     *
+     * @param projectName Project name
+     * @param tagId       Tag name, without the {@code refs/tags/} prefix
+     * @param sourceKey   Key of the tag whose rows are shared
+     */
+    public void linkTag(String projectName, String tagId, long sourceKey) {
+        long key = tagKey(projectName, tagId);
+        tagNames.findById(key).ifPresent(tag -> {
+            tag.link(sourceKey);
+            tagNames.save(tag);
+        });
+    }
+
+    /**
+     * Lists the tags sharing the contributor rows of a tag.
+     *
+     * @param sourceKey Key of the analyzed tag
+     * @return Linked tags
+     */
+    public List<TagNameStorage> linkedTags(long sourceKey) {
+        return tagNames.findBySourceKey(sourceKey);
+    }
+
+    /**
+     * Makes the tags sharing the rows of a tag share them with one of them instead, which the rows are moved to.
+     *
+     * @param sourceKey Key of the analyzed tag
+     * @param heirKey   Key of the linked tag the rows are moved to
+     */
+    public void relink(long sourceKey, long heirKey) {
+        List<TagNameStorage> tags = tagNames.findBySourceKey(sourceKey);
+        for (TagNameStorage tag : tags) {
+            if (tag.id() == heirKey) tag.unlink();
+            else tag.link(heirKey);
+        }
+        tagNames.saveAll(tags);
+    }
+
+    /**
+     * Returns the name of a project.
+     *
+     * @param projectKey Key of the project
+     * @return Project name
+     */
+    public String projectName(long projectKey) {
+        return projectNames.findById(projectKey).map(ProjectNameStorage::name)
+                .orElseThrow(() -> new IllegalStateException("Error: Unknown project " + projectKey));
+    }
+
+    /**
+     * Returns the key of a contributor, creating it if needed.
+     *
+     * @param name Contributor name
+     * @return Key of the contributor
+     */
+    public long contributorKey(String name) {
+        return contributorKeys.computeIfAbsent(name, key -> contributorNames.findByName(key)
+                .orElseGet(() -> contributorNames.save(new ContributorNameStorage(key))).id());
+    }
+
+    /**
+     * Returns the key of a language, creating it if needed.
+     *
+     * @param name Language display name, or "comments"
+     * @return Key of the language
+     */
+    public long languageKey(String name) {
+        return languageKeys.computeIfAbsent(name, key -> languageNames.findByName(key)
+                .orElseGet(() -> languageNames.save(new LanguageNameStorage(key))).id());
+    }
+
+    /**
+     * Returns the keys of the tags of every project of a repository.
+     *
+     * @param name Repository name
+     * @return Keys of the tags
+     */
+    public List<Long> tagKeys(String name) {
+        return tagNames.findByProjectKeyIn(projectsOf(name).stream().map(ProjectNameStorage::id).toList()).stream()
+                .map(TagNameStorage::id)
+                .toList();
+    }
+
+    /**
+     * Removes the projects of a repository and their tags. Contributor and language names are shared
+     * between repositories and kept.
+     *
+     * @param name Repository name
+     */
+    public void deleteRepository(String name) {
+        List<ProjectNameStorage> projects = projectsOf(name);
+        List<Long> keys = projects.stream().map(ProjectNameStorage::id).toList();
+        tagNames.deleteAll(tagNames.findByProjectKeyIn(keys));
+        projectNames.deleteAll(projects);
+        projects.forEach(project -> projectKeys.remove(project.name()));
+        tagKeys.keySet().removeIf(tag -> keys.contains(tag.projectKey()));
+    }
+
+    private List<ProjectNameStorage> projectsOf(String name) {
+        return StreamSupport.stream(projectNames.findAll().spliterator(), false)
+                .filter(project -> project.name().split("_")[0].equals(name))
+                .toList();
+    }
+}
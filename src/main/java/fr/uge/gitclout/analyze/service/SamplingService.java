@@ -0,0 +1,100 @@
+package fr.uge.gitclout.analyze.service;
+
+import fr.uge.gitclout.analyze.Extrapolation;
+import fr.uge.gitclout.analyze.api.data.EstimateData;
+import fr.uge.gitclout.analyze.jpa.ContributorEstimateRequest;
+import fr.uge.gitclout.analyze.jpa.ContributorEstimateStorage;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.StreamSupport;
+
+/**
+ * Keeps the extrapolated lines and confidence intervals of the tags analyzed by sampling. They are
+ * only stored here, never as contributor rows, so that they are not served as blame results.
+ */
+@Service
+public class SamplingService {
+
+    private final ContributorEstimateRequest estimateRequests;
+    private final int defaultSampleSize;
+
+    public SamplingService(ContributorEstimateRequest estimateRequests, @Value("${gitclout.sampling.sample-size:400}") int defaultSampleSize) {
+        if (defaultSampleSize <= 0) throw new IllegalArgumentException("defaultSampleSize <= 0");
+        this.estimateRequests = Objects.requireNonNull(estimateRequests);
+        this.defaultSampleSize = defaultSampleSize;
+    }
+
+    /**
+     * Returns the number of files to blame per tag.
+     *
+     * @param requested Sample size requested for the project, 0 or less for the default
+     * @return Sample size
+     */
+    public int sampleSize(int requested) {
+        return requested > 0 ? requested : defaultSampleSize;
+    }
+
+    /**
+     * Saves the estimates of a tag analyzed by sampling.
+     *
+     * @param extrapolation Extrapolated lines of the tag
+     * @param tagId         Tag identifier
+     * @param projectName   Project name
+     */
+    public void saveEstimates(Extrapolation extrapolation, String tagId, String projectName) {
+        String tagName = tagId.replace("refs/tags/", "");
+        estimateRequests.saveAll(extrapolation.estimates().stream()
+                .map(estimate -> new ContributorEstimateStorage(estimate.contributorName(), estimate.lineType(), tagName, projectName,
+                        estimate.lines(), estimate.lowerBound(), estimate.upperBound(), extrapolation.sampledFiles(), extrapolation.totalFiles()))
+                .toList());
+    }
+
+    /**
+     * Retrieves the estimates of a tag analyzed by sampling, with each contributor's share of the lines of the tag.
+     *
+     * @param projectName Project name
+     * @param tagId       Tag identifier
+     * @return Flux of estimates, most lines first; empty if the tag was fully analyzed
+     */
+    public Flux<EstimateData> getEstimates(String projectName, String tagId) {
+        return Mono.fromCallable(() -> estimateRequests.findByProjectNameAndTagIdOrderByNumberOfLinesDesc(projectName, tagId))
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMapIterable(SamplingService::toData);
+    }
+
+    /**
+     * Converts the estimates of a tag, dividing each one by the estimated lines of the whole tag.
+     *
+     * @param estimates Estimates of a tag
+     * @return Estimates with their shares
+     */
+    private static List<EstimateData> toData(List<ContributorEstimateStorage> estimates) {
+        double total = estimates.stream().mapToLong(ContributorEstimateStorage::numberOfLines).sum();
+        return estimates.stream()
+                .map(estimate -> new EstimateData(estimate.contributorName(), estimate.languageName(),
+                        estimate.numberOfLines(), estimate.lowerBound(), estimate.upperBound(),
+                        share(estimate.numberOfLines(), total), share(estimate.lowerBound(), total), share(estimate.upperBound(), total),
+                        estimate.sampledFiles(), estimate.totalFiles()))
+                .toList();
+    }
+
+    private static double share(int lines, double total) {
+        return total == 0 ? 0 : Math.min(1, lines / total);
+    }
+
+    /**
+     * Removes all estimates of a repository.
+     *
+     * @param name Repository name
+     */
+    public void deleteEstimates(String name) {
+        estimateRequests.deleteAll(StreamSupport.stream(estimateRequests.findAll().spliterator(), false)
+                .filter(estimate -> estimate.projectName().split("_")[0].equals(name)).toList());
+    }
+}
@@ -0,0 +1,142 @@
+package fr.uge.gitclout.cache;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+@Component
+public final class ResultCache {
+
+    /**
+     * Identifies a cached result.
+     *
+     * @param projectName Project name
+     * @param endpoint    Name of the cached read operation
+     * @param tagId       Tag identifier, null for project-wide results
+     * @param number      Extra numeric parameter of the operation, 0 if unused
+     */
+    public record Key(String projectName, String endpoint, String tagId, int number) {
+        public Key {
+            Objects.requireNonNull(projectName);
+            Objects.requireNonNull(endpoint);
+        }
+    }
+
+    private final int maximumSize;
+    private final LinkedHashMap<Key, List<?>> entries;
+    /**
+     * Generation of the cache at the last invalidation of each project. A project without an entry counts
+     * as invalidated when the last repository was removed, so that loads started before are not cached.
+     */
+    private final Map<String, Long> generations = new HashMap<>();
+    private long generation;
+    private long forgotten;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public ResultCache(@Value("${gitclout.cache.maximum-size:1000}") int maximumSize, MeterRegistry registry) {
+        if (maximumSize < 1) {
+            throw new IllegalArgumentException("Error: Cache size must be positive");
+        }
+        this.maximumSize = maximumSize;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true);
+        FunctionCounter.builder("gitclout.cache.hits", hits, AtomicLong::get).register(registry);
+        FunctionCounter.builder("gitclout.cache.misses", misses, AtomicLong::get).register(registry);
+        FunctionCounter.builder("gitclout.cache.evictions", evictions, AtomicLong::get).register(registry);
+        Gauge.builder("gitclout.cache.size", this, ResultCache::size).register(registry);
+    }
+
+    /**
+     * Returns the cached result for a key, or loads it and caches it if it is not empty.
+     * A result loaded while its project was invalidated is returned but not cached.
+     *
+     * @param key    Key of the result
+     * @param loader Computes the result on a miss
+     * @param <T>    Type of the elements
+     * @return Flux of the elements
+     */
+    @SuppressWarnings("unchecked")
+    public <T> Flux<T> get(Key key, Supplier<Flux<T>> loader) {
+        return Flux.defer(() -> {
+            long generation;
+            synchronized (this) {
+                List<?> cached = entries.get(key);
+                if (cached != null) {
+                    hits.incrementAndGet();
+                    return Flux.fromIterable((List<T>) cached);
+                }
+                misses.incrementAndGet();
+                generation = this.generation;
+            }
+            return loader.get().collectList()
+                    .doOnNext(result -> put(key, result, generation))
+                    .flatMapIterable(Function.identity());
+        });
+    }
+
+    /**
+     * Stores a result, evicting the least recently used entries above the maximum size.
+     *
+     * @param key        Key of the result
+     * @param result     Loaded result
+     * @param generation Generation of the cache when the load started
+     */
+    private synchronized void put(Key key, List<?> result, long generation) {
+        if (result.isEmpty() || generations.getOrDefault(key.projectName(), forgotten) > generation) return;
+        entries.put(key, List.copyOf(result));
+        var iterator = entries.keySet().iterator();
+        while (entries.size() > maximumSize) {
+            iterator.next();
+            iterator.remove();
+            evictions.incrementAndGet();
+        }
+    }
+
+    /**
+     * Removes every result of a project.
+     *
+     * @param projectName Project name
+     */
+    public synchronized void invalidate(String projectName) {
+        generations.put(projectName, ++generation);
+        entries.keySet().removeIf(key -> key.projectName().equals(projectName));
+    }
+
+    /**
+     * Removes every result of all the projects of a repository, then forgets the projects.
+     *
+     * @param name Repository name
+     */
+    public synchronized void invalidateRepository(String name) {
+        Set<String> projects = new HashSet<>(generations.keySet());
+        entries.keySet().forEach(key -> projects.add(key.projectName()));
+        projects.removeIf(projectName -> !projectName.split("_")[0].equals(name));
+        projects.forEach(this::invalidate);
+        generations.keySet().removeAll(projects);
+        forgotten = generation;
+    }
+
+    /**
+     * Returns the number of cached results.
+     *
+     * @return Number of entries
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+}
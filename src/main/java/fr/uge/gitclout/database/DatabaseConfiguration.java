@@ -0,0 +1,44 @@
+package fr.uge.gitclout.database;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+@Configuration
+public class DatabaseConfiguration {
+
+    @Bean
+    public HikariDataSource writerDataSource(@Value("${spring.datasource.url}") String url,
+                                             @Value("${gitclout.datasource.busy-timeout:10000}") int busyTimeout) {
+        return SqliteDataSources.writer(url, busyTimeout);
+    }
+
+    @Bean
+    public HikariDataSource readerDataSource(@Value("${spring.datasource.url}") String url,
+                                             @Value("${gitclout.datasource.reader-pool-size:4}") int poolSize,
+                                             @Value("${gitclout.datasource.busy-timeout:10000}") int busyTimeout) {
+        return SqliteDataSources.reader(url, poolSize, busyTimeout);
+    }
+
+    /**
+     * Routes each transaction to the writer or reader pool.
+     * The lazy proxy delays the choice until the first statement, once the read-only flag of the transaction is known.
+     *
+     * @param writer Writer data source
+     * @param reader Reader data source
+     * @return Data source used by JPA
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("writerDataSource") DataSource writer, @Qualifier("readerDataSource") DataSource reader) {
+        var routing = new ReadWriteRoutingDataSource(writer, reader);
+        routing.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+}
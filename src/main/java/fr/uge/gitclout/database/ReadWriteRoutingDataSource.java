@@ -0,0 +1,27 @@
+package fr.uge.gitclout.database;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+public final class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    enum Route { READ, WRITE }
+
+    public ReadWriteRoutingDataSource(DataSource writer, DataSource reader) {
+        setTargetDataSources(Map.of(Route.WRITE, writer, Route.READ, reader));
+        setDefaultTargetDataSource(writer);
+    }
+
+    /**
+     * Sends read-only transactions to the reader pool and everything else to the writer.
+     *
+     * @return Lookup key of the target data source
+     */
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return TransactionSynchronizationManager.isCurrentTransactionReadOnly() ? Route.READ : Route.WRITE;
+    }
+}
@@ -0,0 +1,87 @@
+package fr.uge.gitclout.database;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.sqlite.SQLiteConfig;
+import org.sqlite.SQLiteDataSource;
+
+import java.util.Objects;
+
+public final class SqliteDataSources {
+
+    private static final int CACHE_SIZE_KIB = 20_000;
+    private static final long MMAP_SIZE = 256L * 1024 * 1024;
+
+    private SqliteDataSources() {
+    }
+
+    /**
+     * Creates the single-connection pool used for every write.
+     * SQLite only allows one writer at a time, so a bigger pool would only move the contention into the database.
+     *
+     * @param url         JDBC url of the database
+     * @param busyTimeout Time in milliseconds to wait for a lock before failing
+     * @return Writer data source
+     */
+    public static HikariDataSource writer(String url, int busyTimeout) {
+        SQLiteConfig config = baseConfig(busyTimeout);
+        config.setJournalMode(SQLiteConfig.JournalMode.WAL);
+        config.setSynchronous(SQLiteConfig.SynchronousMode.NORMAL);
+        return pool(url, config, "sqlite-writer", 1, false);
+    }
+
+    /**
+     * Creates the pool of read-only connections.
+     * In WAL mode readers work on a snapshot and are never blocked by the writer.
+     *
+     * @param url         JDBC url of the database
+     * @param poolSize    Number of reader connections
+     * @param busyTimeout Time in milliseconds to wait for a lock before failing
+     * @return Reader data source
+     */
+    public static HikariDataSource reader(String url, int poolSize, int busyTimeout) {
+        SQLiteConfig config = baseConfig(busyTimeout);
+        config.setReadOnly(true);
+        return pool(url, config, "sqlite-reader", poolSize, true);
+    }
+
+    /**
+     * Returns the pragmas shared by readers and writer.
+     *
+     * @param busyTimeout Time in milliseconds to wait for a lock before failing
+     * @return SQLite configuration
+     */
+    private static SQLiteConfig baseConfig(int busyTimeout) {
+        SQLiteConfig config = new SQLiteConfig();
+        config.setBusyTimeout(busyTimeout);
+        config.setCacheSize(-CACHE_SIZE_KIB);
+        config.setTempStore(SQLiteConfig.TempStore.MEMORY);
+        config.setPragma(SQLiteConfig.Pragma.MMAP_SIZE, Long.toString(MMAP_SIZE));
+        return config;
+    }
+
+    /**
+     * Wraps a SQLite configuration in a connection pool.
+     *
+     * @param url      JDBC url of the database
+     * @param config   SQLite configuration
+     * @param name     Pool name
+     * @param poolSize Maximum number of connections
+     * @param readOnly Whether the connections are opened read-only
+     * @return Pooled data source
+     */
+    private static HikariDataSource pool(String url, SQLiteConfig config, String name, int poolSize, boolean readOnly) {
+        Objects.requireNonNull(url);
+        if (poolSize < 1) {
+            throw new IllegalArgumentException("Error: Pool size must be positive");
+        }
+        SQLiteDataSource sqlite = new SQLiteDataSource(config);
+        sqlite.setUrl(url);
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setDataSource(sqlite);
+        dataSource.setPoolName(name);
+        dataSource.setMaximumPoolSize(poolSize);
+        dataSource.setMinimumIdle(1);
+        dataSource.setReadOnly(readOnly);
+        return dataSource;
+    }
+}
@@ -0,0 +1,56 @@
+package fr.uge.gitclout.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event covering the blame of one file of an analyzed tag.
+ */
+@Name("fr.uge.gitclout.Blame")
+@Label("Blame")
+@Category({"gitclout", "Ingest"})
+@Description("Blame of a single file of an analyzed tag")
+@StackTrace(false)
+public final class BlameEvent extends Event {
+
+    @Label("Project")
+    String project;
+
+    @Label("Tag")
+    String tag;
+
+    @Label("Path")
+    String path;
+
+    @Label("Size")
+    @DataAmount
+    long size;
+
+    @Label("Lines")
+    int lines;
+
+    /**
+     * Ends the event and commits it if the event is enabled and above its threshold.
+     *
+     * @param project Project name
+     * @param tag     Tag name
+     * @param path    Path of the file
+     * @param size    Size of the file in bytes
+     * @param lines   Number of lines of the file
+     */
+    public void commit(String project, String tag, String path, long size, int lines) {
+        end();
+        if (!shouldCommit()) return;
+        this.project = project;
+        this.tag = tag;
+        this.path = path;
+        this.size = size;
+        this.lines = lines;
+        commit();
+    }
+}
@@ -0,0 +1,159 @@
+package fr.uge.gitclout.metrics;
+
+import fr.uge.gitclout.metrics.api.data.RecordingData;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * On-demand flight recordings, one per project being ingested.
+ * A recording uses the low-overhead {@code default} settings plus the gitclout events
+ * ({@link BlameEvent}, {@link TagAnalysisEvent}, {@link PersistenceBatchEvent}), and is written to
+ * {@code <directory>/<project>-<start>.jfr} when it is stopped, when the ingest of its project
+ * finishes, or when it reaches its maximum duration.
+ * <p>
+ * An ingest is recorded from its start with {@code POST /addrepository?record=true}, since the project
+ * name is only generated once the request is accepted.
+ * JFR records the whole JVM: a recording also holds the events of the other projects ingested at the
+ * same time, so its gitclout events have to be filtered on their {@code project} field.
+ */
+@Component
+public class FlightRecordings {
+
+    private static final List<Class<?>> EVENTS = List.of(BlameEvent.class, TagAnalysisEvent.class, PersistenceBatchEvent.class);
+    private static final Pattern PROJECT_NAME = Pattern.compile("[A-Za-z0-9._-]+");
+
+    private final Path directory;
+    private final Duration maxDuration;
+    private final Map<String, Recording> recordings = new ConcurrentHashMap<>();
+
+    public FlightRecordings(@Value("${gitclout.recording.directory:./database/recordings}") String directory,
+                            @Value("${gitclout.recording.max-duration:30m}") Duration maxDuration) {
+        this.directory = Paths.get(directory);
+        this.maxDuration = Objects.requireNonNull(maxDuration);
+    }
+
+    /**
+     * Starts recording the ingest of a project, or returns the recording already running for it.
+     * A recording that stopped on its own, after its maximum duration, is replaced by a new one.
+     *
+     * @param projectName Project name
+     * @return Recording
+     * @throws IllegalArgumentException If the project name is missing or is not a valid file name
+     */
+    public RecordingData start(String projectName) {
+        checkProjectName(projectName);
+        Recording recording = recordings.compute(projectName, (name, running) -> {
+            if (running != null && !isOver(running)) return running;
+            if (running != null) running.close();
+            return newRecording(name);
+        });
+        return toData(projectName, recording);
+    }
+
+    /**
+     * Checks that a project name can be part of a file name of the recordings directory.
+     *
+     * @param projectName Project name
+     * @throws IllegalArgumentException If the project name is missing or is not a valid file name
+     */
+    private static void checkProjectName(String projectName) {
+        if (projectName == null || !PROJECT_NAME.matcher(projectName).matches()) {
+            throw new IllegalArgumentException("Error: Invalid project name");
+        }
+    }
+
+    private static boolean isOver(Recording recording) {
+        return recording.getState() == RecordingState.STOPPED || recording.getState() == RecordingState.CLOSED;
+    }
+
+    /**
+     * Creates and starts the recording of a project.
+     *
+     * @param projectName Project name
+     * @return Started recording
+     */
+    private Recording newRecording(String projectName) {
+        try {
+            Files.createDirectories(directory);
+            var recording = new Recording(Configuration.getConfiguration("default"));
+            for (Class<?> event : EVENTS) {
+                recording.enable(event.getName()).withoutThreshold();
+            }
+            recording.setName("gitclout-" + projectName);
+            recording.setToDisk(true);
+            recording.setDuration(maxDuration);
+            Path destination = directory.resolve(projectName + "-" + System.currentTimeMillis() + ".jfr").normalize();
+            if (!destination.startsWith(directory.normalize())) throw new IllegalArgumentException("Error: Invalid project name");
+            recording.setDestination(destination);
+            recording.start();
+            return recording;
+        } catch (IOException | ParseException e) {
+            throw new RuntimeException("Error: Starting recording", e);
+        }
+    }
+
+    /**
+     * Stops the recording of a project and writes it to its destination.
+     *
+     * @param projectName Project name
+     * @return Stopped recording, empty if the project was not being recorded
+     * @throws IllegalArgumentException If the project name is missing or is not a valid file name
+     */
+    public Optional<RecordingData> stop(String projectName) {
+        checkProjectName(projectName);
+        Recording recording = recordings.remove(projectName);
+        if (recording == null) return Optional.empty();
+        try {
+            if (!isOver(recording)) recording.stop();
+            return Optional.of(toData(projectName, recording));
+        } finally {
+            recording.close();
+        }
+    }
+
+    /**
+     * Stops the recording of a project once its ingest is over, if it is being recorded.
+     *
+     * @param projectName Project name
+     */
+    public void ingestFinished(String projectName) {
+        if (projectName != null && recordings.containsKey(projectName)) stop(projectName);
+    }
+
+    /**
+     * Returns the recordings currently running. Recordings that stopped on their own are forgotten.
+     *
+     * @return Running recordings
+     */
+    public List<RecordingData> recordings() {
+        recordings.entrySet().removeIf(entry -> {
+            if (!isOver(entry.getValue())) return false;
+            entry.getValue().close();
+            return true;
+        });
+        return recordings.entrySet().stream()
+                .map(entry -> toData(entry.getKey(), entry.getValue()))
+                .toList();
+    }
+
+    private static RecordingData toData(String projectName, Recording recording) {
+        Path destination = recording.getDestination();
+        return new RecordingData(projectName, recording.getState().name(), destination == null ? null : destination.toString());
+    }
+}
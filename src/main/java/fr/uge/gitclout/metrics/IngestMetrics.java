@@ -0,0 +1,128 @@
+package fr.uge.gitclout.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Timers and counters of the ingest pipeline, published through the actuator metrics endpoint.
+ * <ul>
+ *     <li>{@code gitclout.ingest.phase}: time spent in each {@link Phase}, tagged by phase</li>
+ *     <li>{@code gitclout.ingest.files} and {@code gitclout.ingest.lines}: files and lines analyzed</li>
+ *     <li>{@code gitclout.ingest.throughput}: files and lines per second of each analyzed tag, tagged by unit</li>
+ *     <li>{@code gitclout.ingest.queue}: files waiting for a blame worker</li>
+ * </ul>
+ */
+@Component
+public class IngestMetrics {
+
+    /**
+     * Phases of the ingest of a repository.
+     */
+    public enum Phase {
+        CLONE, TREE_WALK, BLAME, CLASSIFICATION, COLLECT, SAVE;
+
+        private String tag() {
+            return name().toLowerCase(Locale.ROOT).replace('_', '-');
+        }
+    }
+
+    private final Map<Phase, Timer> timers = new EnumMap<>(Phase.class);
+    private final Counter files;
+    private final Counter lines;
+    private final DistributionSummary filesPerSecond;
+    private final DistributionSummary linesPerSecond;
+    private final AtomicInteger queued = new AtomicInteger();
+
+    public IngestMetrics(MeterRegistry registry) {
+        for (Phase phase : Phase.values()) {
+            timers.put(phase, Timer.builder("gitclout.ingest.phase").tag("phase", phase.tag()).register(registry));
+        }
+        files = Counter.builder("gitclout.ingest.files").register(registry);
+        lines = Counter.builder("gitclout.ingest.lines").register(registry);
+        filesPerSecond = DistributionSummary.builder("gitclout.ingest.throughput").tag("unit", "files").baseUnit("files/s").register(registry);
+        linesPerSecond = DistributionSummary.builder("gitclout.ingest.throughput").tag("unit", "lines").baseUnit("lines/s").register(registry);
+        Gauge.builder("gitclout.ingest.queue", queued, AtomicInteger::get).register(registry);
+    }
+
+    /**
+     * Returns metrics that are not published anywhere, for code running outside the application context.
+     *
+     * @return Unpublished metrics
+     */
+    public static IngestMetrics disabled() {
+        return new IngestMetrics(new CompositeMeterRegistry());
+    }
+
+    /**
+     * Starts timing a phase.
+     *
+     * @return Start time, to give back to {@link #stop(long, Phase)}
+     */
+    public long start() {
+        return System.nanoTime();
+    }
+
+    /**
+     * Records the time spent in a phase.
+     *
+     * @param start Start time returned by {@link #start()}
+     * @param phase Phase
+     * @return Time spent in the phase, in nanoseconds
+     */
+    public long stop(long start, Phase phase) {
+        long nanos = System.nanoTime() - start;
+        timers.get(phase).record(nanos, TimeUnit.NANOSECONDS);
+        return nanos;
+    }
+
+    /**
+     * Records that files were queued for analysis.
+     *
+     * @param count Number of files
+     */
+    public void queued(int count) {
+        queued.addAndGet(count);
+    }
+
+    /**
+     * Records that a queued file was picked up by a worker.
+     */
+    public void dequeued() {
+        queued.decrementAndGet();
+    }
+
+    /**
+     * Records an analyzed file.
+     *
+     * @param lineCount Number of lines of the file
+     */
+    public void fileAnalyzed(int lineCount) {
+        files.increment();
+        lines.increment(lineCount);
+    }
+
+    /**
+     * Records the throughput of an analyzed tag.
+     *
+     * @param fileCount Number of files analyzed
+     * @param lineCount Number of lines analyzed
+     * @param nanos     Time spent analyzing the tag
+     */
+    public void tagAnalyzed(int fileCount, long lineCount, long nanos) {
+        if (nanos <= 0) return;
+        double seconds = nanos / 1e9;
+        filesPerSecond.record(fileCount / seconds);
+        linesPerSecond.record(lineCount / seconds);
+    }
+}
@@ -0,0 +1,44 @@
+package fr.uge.gitclout.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event covering the persistence of the results of one analyzed tag.
+ */
+@Name("fr.uge.gitclout.PersistenceBatch")
+@Label("Persistence Batch")
+@Category({"gitclout", "Ingest"})
+@Description("Contributor rows and summaries of a tag written to the database")
+@StackTrace(false)
+public final class PersistenceBatchEvent extends Event {
+
+    @Label("Project")
+    String project;
+
+    @Label("Tag")
+    String tag;
+
+    @Label("Rows")
+    int rows;
+
+    /**
+     * Ends the event and commits it if the event is enabled and above its threshold.
+     *
+     * @param project Project name
+     * @param tag     Tag name
+     * @param rows    Number of contributor rows written
+     */
+    public void commit(String project, String tag, int rows) {
+        end();
+        if (!shouldCommit()) return;
+        this.project = project;
+        this.tag = tag;
+        this.rows = rows;
+        commit();
+    }
+}
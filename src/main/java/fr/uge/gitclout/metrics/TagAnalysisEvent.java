@@ -0,0 +1,49 @@
+package fr.uge.gitclout.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event covering the analysis of all the files of a tag.
+ */
+@Name("fr.uge.gitclout.TagAnalysis")
+@Label("Tag Analysis")
+@Category({"gitclout", "Ingest"})
+@Description("Tree walk, blame and classification of all the files of a tag")
+@StackTrace(false)
+public final class TagAnalysisEvent extends Event {
+
+    @Label("Project")
+    String project;
+
+    @Label("Tag")
+    String tag;
+
+    @Label("Files")
+    int files;
+
+    @Label("Lines")
+    long lines;
+
+    /**
+     * Ends the event and commits it if the event is enabled and above its threshold.
+     *
+     * @param project Project name
+     * @param tag     Tag name
+     * @param files   Number of files analyzed
+     * @param lines   Number of lines analyzed
+     */
+    public void commit(String project, String tag, int files, long lines) {
+        end();
+        if (!shouldCommit()) return;
+        this.project = project;
+        this.tag = tag;
+        this.files = files;
+        this.lines = lines;
+        commit();
+    }
+}
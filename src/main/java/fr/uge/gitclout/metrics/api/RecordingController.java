@@ -0,0 +1,40 @@
+package fr.uge.gitclout.metrics.api;
+
+import fr.uge.gitclout.metrics.FlightRecordings;
+import fr.uge.gitclout.metrics.api.data.RecordingData;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@RestController
+public class RecordingController {
+
+    private final FlightRecordings recordings;
+
+    public RecordingController(FlightRecordings recordings) {
+        this.recordings = recordings;
+    }
+
+    @GetMapping("/admin/recordings")
+    public Flux<RecordingData> getRecordings() {
+        return Flux.fromIterable(recordings.recordings());
+    }
+
+    @PostMapping("/admin/recordings/start")
+    public Mono<RecordingData> startRecording(@RequestParam(required = false) String name) {
+        return Mono.fromCallable(() -> recordings.start(name))
+                .onErrorMap(IllegalArgumentException.class, e -> new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage()));
+    }
+
+    @PostMapping("/admin/recordings/stop")
+    public Mono<RecordingData> stopRecording(@RequestParam(required = false) String name) {
+        return Mono.fromCallable(() -> recordings.stop(name))
+                .onErrorMap(IllegalArgumentException.class, e -> new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage()))
+                .flatMap(Mono::justOrEmpty);
+    }
+}
@@ -0,0 +1,5 @@
+package fr.uge.gitclout.metrics.api.data;
+
+public record RecordingData(String projectName, String state, String path) {
+
+}
@@ -2,9 +2,12 @@ package fr.uge.gitclout.repositories.api;
 
 import fr.uge.gitclout.repositories.api.data.HistoryData;
 import fr.uge.gitclout.repositories.api.data.RepositoryData;
+import fr.uge.gitclout.repositories.services.AnalysisMode;
 import fr.uge.gitclout.repositories.services.RepositoryService;
 import fr.uge.gitclout.tags.api.data.RefreshData;
+import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
@@ -18,8 +21,14 @@ public class RepositoryController {
     }
 
     @PostMapping("/addrepository")
-    public Mono<RepositoryData> addRepository(@RequestBody String repository) {
-        return repositories.addRepository(repository);
+    public Mono<RepositoryData> addRepository(@RequestBody String repository,
+                                              @RequestParam(defaultValue = "FULL") AnalysisMode mode,
+                                              @RequestParam(defaultValue = "0") int sampleSize,
+                                              @RequestParam(defaultValue = "false") boolean record) {
+        if (sampleSize < 0) {
+            return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST, "Error: Negative sample size"));
+        }
+        return repositories.addRepository(repository, mode, sampleSize, record);
     }
 
     @GetMapping("/repositories/history")
@@ -0,0 +1,25 @@
+package fr.uge.gitclout.repositories.services;
+
+/**
+ * How the tags of a repository are analyzed when it is ingested.
+ */
+public enum AnalysisMode {
+    /**
+     * Blame every file of every tag, giving lines per contributor and language.
+     */
+    FULL,
+    /**
+     * Only count code and comment lines per language, reading each blob once without blame.
+     */
+    QUICK,
+    /**
+     * Blame a stratified sample of the files of every tag and extrapolate the lines per contributor
+     * and language, with confidence intervals.
+     */
+    SAMPLED,
+    /**
+     * Diff the commits between consecutive tags, giving lines added and removed per author and language,
+     * at a cost proportional to the size of the changes.
+     */
+    ACTIVITY
+}
@@ -0,0 +1,80 @@
+package fr.uge.gitclout.repositories.services;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * State of a single ingest. Each call to add or refresh a repository gets its own context,
+ * so the services themselves stay stateless and several ingests can run at the same time.
+ */
+public final class IngestContext {
+
+    private final String repositoryUrl;
+    private final String projectName;
+    private final AnalysisMode mode;
+    private final int sampleSize;
+    private final AtomicInteger tagsAnalyzed = new AtomicInteger();
+    private volatile int numberOfTags;
+
+    public IngestContext(String repositoryUrl, String projectName) {
+        this(repositoryUrl, projectName, AnalysisMode.FULL);
+    }
+
+    public IngestContext(String repositoryUrl, String projectName, AnalysisMode mode) {
+        this(repositoryUrl, projectName, mode, 0);
+    }
+
+    /**
+     * @param repositoryUrl Git repository URL
+     * @param projectName   Project name
+     * @param mode          How the tags are analyzed
+     * @param sampleSize    Files blamed per tag in {@link AnalysisMode#SAMPLED} mode, 0 for the default
+     */
+    public IngestContext(String repositoryUrl, String projectName, AnalysisMode mode, int sampleSize) {
+        if (sampleSize < 0) throw new IllegalArgumentException("sampleSize < 0");
+        this.repositoryUrl = repositoryUrl;
+        this.projectName = projectName;
+        this.mode = Objects.requireNonNull(mode);
+        this.sampleSize = sampleSize;
+    }
+
+    public String repositoryUrl() {
+        return repositoryUrl;
+    }
+
+    public String projectName() {
+        return projectName;
+    }
+
+    public AnalysisMode mode() {
+        return mode;
+    }
+
+    public int sampleSize() {
+        return sampleSize;
+    }
+
+    /**
+     * Starts the progress of the ingest.
+     *
+     * @param alreadyAnalyzed Number of tags analyzed by a previous ingest
+     * @param numberOfTags    Number of tags of the repository
+     */
+    public void start(int alreadyAnalyzed, int numberOfTags) {
+        tagsAnalyzed.set(alreadyAnalyzed);
+        this.numberOfTags = numberOfTags;
+    }
+
+    /**
+     * Records that one more tag was analyzed.
+     *
+     * @return Number of tags analyzed so far
+     */
+    public int tagAnalyzed() {
+        return tagsAnalyzed.incrementAndGet();
+    }
+
+    public int numberOfTags() {
+        return numberOfTags;
+    }
+}
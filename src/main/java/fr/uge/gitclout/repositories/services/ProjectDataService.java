@@ -0,0 +1,92 @@
+package fr.uge.gitclout.repositories.services;
+
+import fr.uge.gitclout.analyze.jpa.ContributorRequest;
+import fr.uge.gitclout.analyze.service.AnalysisService;
+import fr.uge.gitclout.analyze.service.ExclusionService;
+import fr.uge.gitclout.analyze.service.FileCostService;
+import fr.uge.gitclout.analyze.service.NameDictionary;
+import fr.uge.gitclout.analyze.service.SamplingService;
+import fr.uge.gitclout.tags.jpa.TagRequest;
+import fr.uge.gitclout.tags.services.ActivityService;
+import fr.uge.gitclout.tags.services.QuickScanService;
+import fr.uge.gitclout.tags.services.SummaryService;
+import fr.uge.gitclout.tags.services.TagIndexService;
+import org.springframework.stereotype.Service;
+
+import java.util.Objects;
+
+/**
+ * Gathers the services storing data about the tags of a project, so that a repository is deleted
+ * from all of them at once.
+ */
+@Service
+public class ProjectDataService {
+
+    private final TagRequest tagRequests;
+    private final ContributorRequest contributorsRequests;
+    private final NameDictionary nameDictionary;
+    private final AnalysisService analysisService;
+    private final SummaryService summaryService;
+    private final FileCostService fileCostService;
+    private final SamplingService samplingService;
+    private final ExclusionService exclusionService;
+    private final QuickScanService quickScanService;
+    private final ActivityService activityService;
+    private final TagIndexService tagIndexService;
+
+    public ProjectDataService(TagRequest tagRequests, ContributorRequest contributorsRequests, NameDictionary nameDictionary, AnalysisService analysisService, SummaryService summaryService, FileCostService fileCostService, SamplingService samplingService, ExclusionService exclusionService, QuickScanService quickScanService, ActivityService activityService, TagIndexService tagIndexService) {
+        this.tagRequests = Objects.requireNonNull(tagRequests);
+        this.contributorsRequests = Objects.requireNonNull(contributorsRequests);
+        this.nameDictionary = Objects.requireNonNull(nameDictionary);
+        this.analysisService = Objects.requireNonNull(analysisService);
+        this.summaryService = Objects.requireNonNull(summaryService);
+        this.fileCostService = Objects.requireNonNull(fileCostService);
+        this.samplingService = Objects.requireNonNull(samplingService);
+        this.exclusionService = Objects.requireNonNull(exclusionService);
+        this.quickScanService = Objects.requireNonNull(quickScanService);
+        this.activityService = Objects.requireNonNull(activityService);
+        this.tagIndexService = Objects.requireNonNull(tagIndexService);
+    }
+
+    /**
+     * Deletes the tags of all the projects of a repository, with everything analyzed from them.
+     *
+     * @param name Repository name
+     */
+    public void deleteRepository(String name) {
+        analysisService.deleteAnalyses(name);
+        removeAllTags(name);
+        summaryService.deleteSummaries(name);
+        fileCostService.deleteFileCosts(name);
+        samplingService.deleteEstimates(name);
+        exclusionService.deleteExclusions(name);
+        quickScanService.deleteQuickScans(name);
+        activityService.deleteActivities(name);
+        tagIndexService.deleteIndex(name);
+    }
+
+    /**
+     * Removes all tags of a repository.
+     *
+     * @param name Repository name
+     */
+    private void removeAllTags(String name) {
+        for (var tag : tagRequests.findAll()) {
+            if (tag.projectName().split("_")[0].equals(name)) {
+                tagRequests.delete(tag);
+            }
+        }
+        removeContributors(name);
+    }
+
+    /**
+     * Removes all contributors of a repository.
+     *
+     * @param name Repository name
+     */
+    private void removeContributors(String name) {
+        var tagKeys = nameDictionary.tagKeys(name);
+        if (!tagKeys.isEmpty()) contributorsRequests.deleteByTagKeyIn(tagKeys);
+        nameDictionary.deleteRepository(name);
+    }
+}
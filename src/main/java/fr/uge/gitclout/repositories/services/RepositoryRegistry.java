@@ -0,0 +1,192 @@
+package fr.uge.gitclout.repositories.services;
+
+import fr.uge.gitclout.tags.services.TagService;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.lib.RepositoryCache;
+import org.eclipse.jgit.storage.file.FileRepositoryBuilder;
+import org.eclipse.jgit.util.FS;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+@Component
+public final class RepositoryRegistry {
+
+    /**
+     * Shared handle on an open repository. Closing the handle releases it, the repository itself stays open until it is idle.
+     */
+    public final class Handle implements AutoCloseable {
+        private final String projectName;
+        private final Entry entry;
+        private final Repository repository;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Handle(String projectName, Entry entry, Repository repository) {
+            this.projectName = projectName;
+            this.entry = entry;
+            this.repository = repository;
+        }
+
+        public Repository repository() {
+            return repository;
+        }
+
+        /**
+         * Wraps the repository in a Git command facade. Closing the facade does not close the repository.
+         *
+         * @return Git facade
+         */
+        public Git git() {
+            return Git.wrap(repository);
+        }
+
+        @Override
+        public void close() {
+            if (released.compareAndSet(false, true)) {
+                release(projectName, entry);
+            }
+        }
+    }
+
+    /**
+     * Repository of a project, completed by the request that opens it. An entry is only closed once no
+     * handle references it, so its repository is always opened by then.
+     */
+    private static final class Entry {
+        private final CompletableFuture<Repository> repository = new CompletableFuture<>();
+        private int references;
+        private long lastReleased;
+
+        private void close() {
+            repository.join().close();
+        }
+    }
+
+    private final Map<String, Entry> entries = new HashMap<>();
+    private final long idleTimeout;
+
+    public RepositoryRegistry(@Value("${gitclout.repositories.idle-timeout:60000}") long idleTimeout, MeterRegistry registry) {
+        this.idleTimeout = idleTimeout;
+        Gauge.builder("gitclout.repositories.open", this, RepositoryRegistry::openHandles).register(registry);
+    }
+
+    /**
+     * Returns a handle on the local clone of a project, opening it if no other request uses it.
+     * The repository is opened outside the registry lock, so a slow open only delays the requests
+     * of the same project.
+     *
+     * @param projectName Project name
+     * @return Handle to close once the repository is no longer needed
+     * @throws IOException If the repository does not exist or cannot be opened
+     */
+    public Handle acquire(String projectName) throws IOException {
+        Objects.requireNonNull(projectName);
+        Entry entry;
+        boolean opening;
+        synchronized (this) {
+            entry = entries.get(projectName);
+            opening = entry == null;
+            if (opening) {
+                entry = new Entry();
+                entries.put(projectName, entry);
+            }
+            entry.references++;
+        }
+        if (opening) open(projectName, entry);
+        try {
+            return new Handle(projectName, entry, entry.repository.join());
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof IOException cause) throw cause;
+            throw e;
+        }
+    }
+
+    /**
+     * Opens the repository of an entry, and forgets the entry if it cannot be opened.
+     *
+     * @param projectName Project name
+     * @param entry       Entry of the repository
+     */
+    private void open(String projectName, Entry entry) {
+        try {
+            var key = RepositoryCache.FileKey.lenient(TagService.getRepositoryPath(projectName).toFile(), FS.DETECTED);
+            entry.repository.complete(new FileRepositoryBuilder().setFS(FS.DETECTED).setGitDir(key.getFile()).setMustExist(true).build());
+        } catch (IOException | RuntimeException e) {
+            synchronized (this) {
+                entries.remove(projectName, entry);
+            }
+            entry.repository.completeExceptionally(e);
+        }
+    }
+
+    /**
+     * Releases a handle.
+     *
+     * @param projectName Project name
+     * @param entry       Entry of the repository
+     */
+    private synchronized void release(String projectName, Entry entry) {
+        entry.references--;
+        entry.lastReleased = System.currentTimeMillis();
+    }
+
+    /**
+     * Closes the repositories no request has used for longer than the idle timeout.
+     */
+    @Scheduled(fixedDelayString = "${gitclout.repositories.idle-check:10000}")
+    public void closeIdle() {
+        closeIdle(System.currentTimeMillis() - idleTimeout);
+    }
+
+    /**
+     * Closes the unused repositories released before a given time.
+     *
+     * @param releasedBefore Time in milliseconds
+     */
+    synchronized void closeIdle(long releasedBefore) {
+        var iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            Entry entry = iterator.next();
+            if (entry.references == 0 && entry.lastReleased <= releasedBefore) {
+                entry.close();
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * Closes the unused repositories of all the projects of a repository.
+     *
+     * @param name Repository name
+     */
+    public synchronized void evict(String name) {
+        var iterator = entries.entrySet().iterator();
+        while (iterator.hasNext()) {
+            var entry = iterator.next();
+            if (entry.getKey().split("_")[0].equals(name) && entry.getValue().references == 0) {
+                entry.getValue().close();
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * Returns the number of open repositories.
+     *
+     * @return Number of open repositories
+     */
+    public synchronized int openHandles() {
+        return entries.size();
+    }
+}
@@ -1,15 +1,17 @@
 package fr.uge.gitclout.repositories.services;
 
 import fr.uge.gitclout.analyze.Refresh;
-import fr.uge.gitclout.analyze.jpa.ContributorRequest;
+import fr.uge.gitclout.cache.ResultCache;
+import fr.uge.gitclout.metrics.FlightRecordings;
+import fr.uge.gitclout.metrics.IngestMetrics;
 import fr.uge.gitclout.repositories.api.data.RepositoryData;
 import fr.uge.gitclout.repositories.jpa.RepositoryRequest;
 import fr.uge.gitclout.repositories.jpa.RepositoryStorage;
-import fr.uge.gitclout.tags.api.SseController;
+import fr.uge.gitclout.snapshot.SnapshotStore;
 import fr.uge.gitclout.repositories.api.data.HistoryData;
 import fr.uge.gitclout.tags.api.data.RefreshData;
+import fr.uge.gitclout.tags.services.TagIndexService;
 import fr.uge.gitclout.tags.services.TagService;
-import fr.uge.gitclout.tags.jpa.TagRequest;
 import org.eclipse.jgit.api.Git;
 import org.eclipse.jgit.api.LsRemoteCommand;
 import org.eclipse.jgit.api.errors.GitAPIException;
@@ -25,50 +27,151 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.text.SimpleDateFormat;
 import java.util.Date;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
 
 @Service
 public class RepositoryService {
 
-    private final TagRequest tagRequests;
-    private final ContributorRequest contributorsRequests;
     private final RepositoryRequest repositoryRequests;
-    private final SseController sseController;
-    private String repositoryUrl;
-    private String projectName;
+    private final TagService tagService;
+    private final TagIndexService tagIndexService;
+    private final ProjectDataService projectData;
+    private final SnapshotStore snapshotStore;
+    private final ResultCache resultCache;
+    private final RepositoryRegistry repositoryRegistry;
+    private final IngestMetrics metrics;
+    private final FlightRecordings recordings;
+    private final AtomicLong nameSequence = new AtomicLong();
 
-    public RepositoryService(RepositoryRequest repositoryRequests, TagRequest tagRequests, SseController sseController, ContributorRequest contributorsRequests) {
-        this.contributorsRequests = contributorsRequests;
+    /**
+     * Lock of a repository URL with the number of threads holding or waiting for it.
+     */
+    private static final class RepositoryLock {
+        private final ReentrantLock lock = new ReentrantLock();
+        private int users;
+    }
+
+    private final ConcurrentHashMap<String, RepositoryLock> repositoryLocks = new ConcurrentHashMap<>();
+
+    public RepositoryService(RepositoryRequest repositoryRequests, TagService tagService, TagIndexService tagIndexService, ProjectDataService projectData, SnapshotStore snapshotStore, ResultCache resultCache, RepositoryRegistry repositoryRegistry, IngestMetrics metrics, FlightRecordings recordings) {
         this.repositoryRequests = repositoryRequests;
-        this.tagRequests = tagRequests;
-        this.sseController = sseController;
+        this.tagService = tagService;
+        this.tagIndexService = tagIndexService;
+        this.projectData = projectData;
+        this.snapshotStore = snapshotStore;
+        this.resultCache = resultCache;
+        this.repositoryRegistry = repositoryRegistry;
+        this.metrics = metrics;
+        this.recordings = recordings;
     }
 
     /**
      * Downloads the Git repository to the local file system.
+     *
+     * @param context Ingest context
      */
-    public void downloadRepository()  {
+    public void downloadRepository(IngestContext context)  {
         String tempDir = System.getProperty("java.io.tmpdir");
-        String destination = tempDir + File.separator + "gitclout_tmp" + File.separator + projectName;
+        String destination = tempDir + File.separator + "gitclout_tmp" + File.separator + context.projectName();
+        long start = metrics.start();
         try {
             Path destinationPath = Paths.get(destination);
-            Git.cloneRepository().setURI(repositoryUrl).setDirectory(destinationPath.toFile()).setBare(true).call();
+            Git.cloneRepository().setURI(context.repositoryUrl()).setDirectory(destinationPath.toFile()).setBare(true).call();
+            metrics.stop(start, IngestMetrics.Phase.CLONE);
         } catch (GitAPIException e) {
             throw new RuntimeException("Error: Downloading repository", e);
         }
     }
 
     /**
-     * Adds a new Git repository to the local file system.
+     * Adds a new Git repository to the local file system and analyzes all its tags.
      *
      * @param url Git repository URL
      * @return Repository data
      */
     public Mono<RepositoryData> addRepository(String url) {
-        if (!checkUrl(url)) {
-            return handleInvalidRepository();
+        return addRepository(url, AnalysisMode.FULL);
+    }
+
+    /**
+     * Adds a new Git repository to the local file system.
+     *
+     * @param url  Git repository URL
+     * @param mode How the tags are analyzed
+     * @return Repository data
+     */
+    public Mono<RepositoryData> addRepository(String url, AnalysisMode mode) {
+        return addRepository(url, mode, 0);
+    }
+
+    /**
+     * Adds a new Git repository to the local file system. The clone and the analysis run on the bounded
+     * elastic scheduler once the returned Mono is subscribed.
+     *
+     * @param url        Git repository URL
+     * @param mode       How the tags are analyzed
+     * @param sampleSize Files blamed per tag in {@link AnalysisMode#SAMPLED} mode, 0 for the default
+     * @return Repository data
+     */
+    public Mono<RepositoryData> addRepository(String url, AnalysisMode mode, int sampleSize) {
+        return addRepository(url, mode, sampleSize, false);
+    }
+
+    /**
+     * Adds a new Git repository to the local file system, optionally recording its ingest. The recording
+     * starts under the generated project name before the clone and is written when the ingest finishes.
+     *
+     * @param url        Git repository URL
+     * @param mode       How the tags are analyzed
+     * @param sampleSize Files blamed per tag in {@link AnalysisMode#SAMPLED} mode, 0 for the default
+     * @param record     Whether the ingest is flight recorded
+     * @return Repository data
+     */
+    public Mono<RepositoryData> addRepository(String url, AnalysisMode mode, int sampleSize, boolean record) {
+        if (sampleSize < 0) {
+            return Mono.error(new IllegalArgumentException("Error: Negative sample size"));
         }
-        this.repositoryUrl = url;
-        return handleNewOrExistingRepository();
+        return Mono.fromCallable(() -> {
+                    if (!checkUrl(url)) {
+                        return handleInvalidRepository();
+                    }
+                    lock(url);
+                    try {
+                        return handleNewOrExistingRepository(url, mode, sampleSize, record);
+                    } finally {
+                        unlock(url);
+                    }
+                })
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    /**
+     * Acquires the lock guarding the ingest of a repository URL, so that two requests for the same
+     * repository are serialized while different repositories are ingested in parallel.
+     *
+     * @param url Git repository URL
+     */
+    private void lock(String url) {
+        repositoryLocks.compute(url, (key, lock) -> {
+            if (lock == null) lock = new RepositoryLock();
+            lock.users++;
+            return lock;
+        }).lock.lock();
+    }
+
+    /**
+     * Releases the lock of a repository URL, and forgets it when no other thread holds or waits for it.
+     *
+     * @param url Git repository URL
+     */
+    private void unlock(String url) {
+        repositoryLocks.computeIfPresent(url, (key, lock) -> {
+            lock.lock.unlock();
+            return --lock.users == 0 ? null : lock;
+        });
     }
 
     /**
@@ -91,14 +194,20 @@ public class RepositoryService {
      */
     public Mono<RefreshData> refreshTags(String name) {
         return Mono.fromCallable(() -> {
+                    String repositoryUrl = null;
                     for (RepositoryStorage repository : repositoryRequests.findAll()) {
                         if (repository.projectName().equals(name.split("_")[0])) {
                             repositoryUrl = repository.repositoryUrl();
                             break;
                         }
                     }
-                    Thread.sleep(1000); // wait don't get the same timestamp
-                    downloadRepositoryForRefresh(name);
+                    String lockKey = Objects.requireNonNullElse(repositoryUrl, name);
+                    lock(lockKey);
+                    try {
+                        downloadRepositoryForRefresh(repositoryUrl, name);
+                    } finally {
+                        unlock(lockKey);
+                    }
                     return new RefreshData("Tags refreshed", 0);
                 }).subscribeOn(Schedulers.boundedElastic()).onErrorResume(e -> Mono.error(new RuntimeException("Error: Refreshing tags", e)));
     }
@@ -106,13 +215,19 @@ public class RepositoryService {
     /**
      * Downloads a Git repository for refreshing.
      *
+     * @param url  Git repository URL
      * @param name Git repository name
      */
-    public void downloadRepositoryForRefresh(String name) {
-        projectName = getRepositoryName(getDisplayName(name));
-        downloadRepository();
-        var refresh = new Refresh(projectName, tagRequests, contributorsRequests);
-        refresh.refreshTags();
+    public void downloadRepositoryForRefresh(String url, String name) {
+        var context = new IngestContext(url, getRepositoryName(getDisplayName(name)));
+        try {
+            downloadRepository(context);
+            var refresh = new Refresh(context, tagService, tagIndexService, repositoryRegistry);
+            refresh.refreshTags();
+            snapshotStore.write(context.projectName());
+        } finally {
+            recordings.ingestFinished(context.projectName());
+        }
     }
 
     /**
@@ -136,15 +251,13 @@ public class RepositoryService {
     /**
      * Checks if the given Git repository URL already exists in the database.
      *
+     * @param url Git repository URL
      * @return True if the repository exists, false otherwise
      */
-    private boolean isRepositoryExist() {
-        String[] parts = repositoryUrl.split("/");
-        projectName = getRepositoryName(parts[parts.length - 1]);
+    private boolean isRepositoryExist(String url) {
         if (repositoryRequests == null) return false;
         for (RepositoryStorage repository : repositoryRequests.findAll()) {
-            if (repository.repositoryUrl().equals(repositoryUrl)) {
-                projectName = getRepositoryName(repository.projectName());
+            if (repository.repositoryUrl().equals(url)) {
                 return true;
             }
         }
@@ -153,60 +266,98 @@ public class RepositoryService {
 
     /**
      * Inserts the repository in the database.
+     *
+     * @param context Ingest context
      */
-    private void insertInDatabase() {
+    private void insertInDatabase(IngestContext context) {
         String tempDir = System.getProperty("java.io.tmpdir");
-        String repositoryPath = tempDir + "gitclout_tmp" + File.separator + projectName;
-        TagService tagServices = new TagService(tagRequests, contributorsRequests, sseController);
-        var displayName = getDisplayName(projectName);
-        var storage = new RepositoryStorage(repositoryUrl, displayName, repositoryPath);
+        String repositoryPath = tempDir + "gitclout_tmp" + File.separator + context.projectName();
+        var displayName = getDisplayName(context.projectName());
+        var storage = new RepositoryStorage(context.repositoryUrl(), displayName, repositoryPath);
         repositoryRequests.save(storage);
-        tagServices.insertTagsInDatabase(projectName);
+        tagService.insertTagsInDatabase(context);
+        writeSnapshot(context);
+    }
+
+    /**
+     * Writes the snapshot of a project once its tags are blamed. The other modes store no contributor
+     * rows to snapshot.
+     *
+     * @param context Ingest context
+     */
+    private void writeSnapshot(IngestContext context) {
+        if (context.mode() == AnalysisMode.FULL) snapshotStore.write(context.projectName());
     }
 
     /**
      * Handles the new or existing repository.
      *
+     * @param url        Git repository URL
+     * @param mode       How the tags are analyzed
+     * @param sampleSize Files blamed per tag when sampling
+     * @param record     Whether the ingest is flight recorded
      * @return Repository data
      */
-    private Mono<RepositoryData> handleNewOrExistingRepository() {
-        var tagServices = new TagService(tagRequests, contributorsRequests, sseController);
-        return isRepositoryExist() ? handleExistingRepository(tagServices) : handleNewRepository();
+    private RepositoryData handleNewOrExistingRepository(String url, AnalysisMode mode, int sampleSize, boolean record) {
+        return isRepositoryExist(url) ? handleExistingRepository(url, mode, sampleSize, record) : handleNewRepository(url, mode, sampleSize, record);
     }
 
     /**
      * Handles the new repository.
      *
+     * @param url        Git repository URL
+     * @param mode       How the tags are analyzed
+     * @param sampleSize Files blamed per tag when sampling
+     * @param record     Whether the ingest is flight recorded
      * @return Repository data
      */
-    private Mono<RepositoryData> handleNewRepository() {
-        downloadRepository();
-        insertInDatabase();
-        return Mono.just(new RepositoryData("Your repository has been added", 0, projectName));
+    private RepositoryData handleNewRepository(String url, AnalysisMode mode, int sampleSize, boolean record) {
+        String[] parts = url.split("/");
+        var context = new IngestContext(url, getRepositoryName(parts[parts.length - 1]), mode, sampleSize);
+        if (record) recordings.start(context.projectName());
+        try {
+            downloadRepository(context);
+            insertInDatabase(context);
+        } finally {
+            recordings.ingestFinished(context.projectName());
+        }
+        return new RepositoryData("Your repository has been added", 0, context.projectName());
     }
 
     /**
      * Handles the existing repository.
      *
-     * @param tagServices Tag services
+     * @param url        Git repository URL
+     * @param mode       How the tags are analyzed
+     * @param sampleSize Files blamed per tag when sampling
+     * @param record     Whether the ingest is flight recorded
      * @return Repository data
      */
-    private Mono<RepositoryData> handleExistingRepository(TagService tagServices) {
-        updateProjectNameForExistingRepository();
-        tagServices.insertTagsInDatabase(projectName);
-        return Mono.just(new RepositoryData("Your repository already exists", -1, projectName));
+    private RepositoryData handleExistingRepository(String url, AnalysisMode mode, int sampleSize, boolean record) {
+        var context = new IngestContext(url, getExistingProjectName(url), mode, sampleSize);
+        if (record) recordings.start(context.projectName());
+        try {
+            tagService.insertTagsInDatabase(context);
+            writeSnapshot(context);
+        } finally {
+            recordings.ingestFinished(context.projectName());
+        }
+        return new RepositoryData("Your repository already exists", -1, context.projectName());
     }
 
     /**
-     * Updates the project name for an existing repository.
+     * Returns the project name of an existing repository.
+     *
+     * @param url Git repository URL
+     * @return Project name
      */
-    private void updateProjectNameForExistingRepository() {
+    private String getExistingProjectName(String url) {
         for (RepositoryStorage repository : repositoryRequests.findAll()) {
-            if (repository.repositoryUrl().equals(repositoryUrl)) {
-                projectName = repository.projectName() + "_" + getLastPathSegment(repository.repositoryPath());
-                break;
+            if (repository.repositoryUrl().equals(url)) {
+                return repository.projectName() + "_" + getLastPathSegment(repository.repositoryPath());
             }
         }
+        throw new IllegalStateException("Error: Repository not found " + url);
     }
 
     /**
@@ -225,8 +376,8 @@ public class RepositoryService {
      *
      * @return Repository data
      */
-    private static Mono<RepositoryData> handleInvalidRepository() {
-        return Mono.just(new RepositoryData("Error : this repository doesn't exist !", 1, "null"));
+    private static RepositoryData handleInvalidRepository() {
+        return new RepositoryData("Error : this repository doesn't exist !", 1, "null");
     }
 
     /**
@@ -241,15 +392,16 @@ public class RepositoryService {
     }
 
     /**
-     * Generates a unique repository name based on the current timestamp.
+     * Generates a unique repository name based on the current timestamp. A sequence number tells apart
+     * the names generated within the same second, such as two forks with the same name.
      *
      * @param name Original repository name
      * @return Unique repository name
      */
-    private static String getRepositoryName(String name) {
+    private String getRepositoryName(String name) {
         SimpleDateFormat dateFormat = new SimpleDateFormat("yyyyMMdd-HHmmss");
         String timestamp = dateFormat.format(new Date());
-        return name + "_" + timestamp;
+        return name + "_" + timestamp + "-" + nameSequence.incrementAndGet();
     }
 
     /**
@@ -266,35 +418,11 @@ public class RepositoryService {
                             break;
                         }
                     }
-                    removeAllTags(name);
+                    projectData.deleteRepository(name);
+                    snapshotStore.delete(name);
+                    resultCache.invalidateRepository(name);
+                    repositoryRegistry.evict(name);
                 })
                 .subscribeOn(Schedulers.boundedElastic()).then();
     }
-
-    /**
-     * Removes all tags of a repository.
-     *
-     * @param name Repository name
-     */
-    private void removeAllTags(String name) {
-        for (var tag : tagRequests.findAll()) {
-            if (tag.projectName().split("_")[0].equals(name)) {
-                tagRequests.delete(tag);
-            }
-        }
-        removeContributors(name);
-    }
-
-    /**
-     * Removes all contributors of a repository.
-     *
-     * @param name Repository name
-     */
-    private void removeContributors(String name) {
-        for (var contributor : contributorsRequests.findAll()) {
-            if (contributor.projectName().split("_")[0].equals(name)) {
-                contributorsRequests.delete(contributor);
-            }
-        }
-    }
 }
@@ -0,0 +1,218 @@
+package fr.uge.gitclout.snapshot;
+
+import fr.uge.gitclout.analyze.api.data.ContributorData;
+import fr.uge.gitclout.analyze.jpa.ContributorRow;
+import fr.uge.gitclout.tags.jpa.ContributorHistoryRow;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.BufferedOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeSet;
+
+/**
+ * Columnar snapshot of the contributions of an analyzed project, read through a memory-mapped buffer.
+ * <p>
+ * Layout, all integers big-endian:
+ * <pre>
+ * magic, version, tag count, contributor count, language count, row count
+ * tag ids, contributor names, language names    (length-prefixed UTF-8, padded to 4 bytes)
+ * row offset of each tag                        (tag count + 1 ints)
+ * contributor id, language id, number of lines  (one column of row count ints each)
+ * </pre>
+ * Tags are stored in index order and dictionaries are sorted by name, so the rows of a tag are contiguous
+ * and already ordered by contributor name. A tag without rows, such as a tag not analyzed yet when the
+ * snapshot was written, is treated as missing, so that callers read it from the database.
+ */
+public final class SnapshotFile {
+
+    private static final int MAGIC = 0x47435331; // "GCS1"
+    private static final int VERSION = 1;
+
+    private final String[] tagIds;
+    private final String[] contributors;
+    private final String[] languages;
+    private final Map<String, Integer> tagPositions;
+    private final IntBuffer offsets;
+    private final IntBuffer contributorIds;
+    private final IntBuffer languageIds;
+    private final IntBuffer lines;
+
+    private SnapshotFile(ByteBuffer buffer) throws IOException {
+        if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+            throw new IOException("Error: Not a snapshot file");
+        }
+        int tagCount = buffer.getInt();
+        int contributorCount = buffer.getInt();
+        int languageCount = buffer.getInt();
+        int rowCount = buffer.getInt();
+        tagIds = readStrings(buffer, tagCount);
+        contributors = readStrings(buffer, contributorCount);
+        languages = readStrings(buffer, languageCount);
+        tagPositions = new HashMap<>();
+        for (int i = 0; i < tagIds.length; i++) {
+            tagPositions.put(tagIds[i], i);
+        }
+        offsets = column(buffer, tagCount + 1);
+        contributorIds = column(buffer, rowCount);
+        languageIds = column(buffer, rowCount);
+        lines = column(buffer, rowCount);
+    }
+
+    /**
+     * Maps a snapshot file in memory.
+     *
+     * @param file Snapshot file
+     * @return Snapshot backed by the mapped file
+     * @throws IOException If the file cannot be read or is not a snapshot
+     */
+    public static SnapshotFile open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return new SnapshotFile(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Writes the snapshot of a project. The file is written next to its destination and moved in place,
+     * so readers never see a partial file.
+     *
+     * @param file   Snapshot file
+     * @param tagIds Tag identifiers, in index order
+     * @param rows   Contributions of the project
+     * @throws IOException If the file cannot be written
+     */
+    public static void write(Path file, List<String> tagIds, List<ContributorRow> rows) throws IOException {
+        Map<String, Integer> tagPositions = new HashMap<>();
+        for (String tagId : tagIds) {
+            tagPositions.putIfAbsent(tagId, tagPositions.size());
+        }
+        List<ContributorRow> sorted = rows.stream()
+                .filter(row -> tagPositions.containsKey(row.tagId()))
+                .sorted(Comparator.comparing((ContributorRow row) -> tagPositions.get(row.tagId()))
+                        .thenComparing(ContributorRow::contributorName)
+                        .thenComparing(ContributorRow::languageName))
+                .toList();
+        String[] contributors = sorted.stream().map(ContributorRow::contributorName).collect(TreeSet<String>::new, TreeSet::add, TreeSet::addAll).toArray(String[]::new);
+        String[] languages = sorted.stream().map(ContributorRow::languageName).collect(TreeSet<String>::new, TreeSet::add, TreeSet::addAll).toArray(String[]::new);
+
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        try (var output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+            output.writeInt(MAGIC);
+            output.writeInt(VERSION);
+            output.writeInt(tagPositions.size());
+            output.writeInt(contributors.length);
+            output.writeInt(languages.length);
+            output.writeInt(sorted.size());
+            writeStrings(output, tagIds.stream().distinct().toArray(String[]::new));
+            writeStrings(output, contributors);
+            writeStrings(output, languages);
+            int row = 0;
+            for (int tag = 0; tag <= tagPositions.size(); tag++) {
+                while (row < sorted.size() && tagPositions.get(sorted.get(row).tagId()) < tag) row++;
+                output.writeInt(row);
+            }
+            for (ContributorRow storage : sorted) output.writeInt(Arrays.binarySearch(contributors, storage.contributorName()));
+            for (ContributorRow storage : sorted) output.writeInt(Arrays.binarySearch(languages, storage.languageName()));
+            for (ContributorRow storage : sorted) output.writeInt(storage.numberOfLines());
+        }
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static void writeStrings(DataOutputStream output, String[] values) throws IOException {
+        for (String value : values) {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            output.writeInt(bytes.length);
+            output.write(bytes);
+            output.write(new byte[padding(bytes.length)]);
+        }
+    }
+
+    private static String[] readStrings(ByteBuffer buffer, int count) {
+        String[] values = new String[count];
+        for (int i = 0; i < count; i++) {
+            byte[] bytes = new byte[buffer.getInt()];
+            buffer.get(bytes);
+            buffer.position(buffer.position() + padding(bytes.length));
+            values[i] = new String(bytes, StandardCharsets.UTF_8);
+        }
+        return values;
+    }
+
+    private static int padding(int length) {
+        return (4 - length % 4) % 4;
+    }
+
+    private static IntBuffer column(ByteBuffer buffer, int length) {
+        IntBuffer column = buffer.slice(buffer.position(), length * Integer.BYTES).asIntBuffer();
+        buffer.position(buffer.position() + length * Integer.BYTES);
+        return column;
+    }
+
+    /**
+     * Retrieves the contributions of each contributor for a tag.
+     *
+     * @param tagId Tag identifier
+     * @return Contributors ordered by name, empty if the tag has no rows in the snapshot
+     */
+    public Optional<List<ContributorData>> contributors(String tagId) {
+        Integer tag = tagPositions.get(tagId);
+        if (tag == null || isMissing(tag)) return Optional.empty();
+        Map<String, Map<String, Integer>> contributions = new LinkedHashMap<>();
+        for (int row = offsets.get(tag); row < offsets.get(tag + 1); row++) {
+            contributions.computeIfAbsent(contributors[contributorIds.get(row)], key -> new HashMap<>())
+                    .put(languages[languageIds.get(row)], lines.get(row));
+        }
+        List<ContributorData> result = new ArrayList<>(contributions.size());
+        contributions.forEach((name, languageLines) -> result.add(new ContributorData(name, languageLines)));
+        return Optional.of(result);
+    }
+
+    /**
+     * Retrieves the contributor totals of a tag and of the tags preceding it.
+     *
+     * @param tagId  Tag identifier
+     * @param number Number of tags to look back, including the given one
+     * @return Contributor totals ordered by tag position, empty if one of the tags has no rows in the snapshot
+     */
+    public Optional<List<ContributorHistoryRow>> history(String tagId, int number) {
+        Integer current = tagPositions.get(tagId);
+        if (current == null) return Optional.empty();
+        int first = Math.max(0, current - number + 1);
+        for (int tag = first; tag <= current; tag++) {
+            if (isMissing(tag)) return Optional.empty();
+        }
+        List<ContributorHistoryRow> rows = new ArrayList<>();
+        for (int tag = first; tag <= current; tag++) {
+            int end = offsets.get(tag + 1);
+            int row = offsets.get(tag);
+            while (row < end) {
+                int contributor = contributorIds.get(row);
+                int total = 0;
+                for (; row < end && contributorIds.get(row) == contributor; row++) {
+                    total += lines.get(row);
+                }
+                rows.add(new ContributorHistoryRow(contributors[contributor], tagIds[tag], tag, total));
+            }
+        }
+        return Optional.of(rows);
+    }
+
+    private boolean isMissing(int tag) {
+        return offsets.get(tag) == offsets.get(tag + 1);
+    }
+}
@@ -0,0 +1,99 @@
+package fr.uge.gitclout.snapshot;
+
+import fr.uge.gitclout.analyze.jpa.ContributorRequest;
+import fr.uge.gitclout.tags.jpa.TagIndexStorage;
+import fr.uge.gitclout.tags.services.TagIndexService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Optional serving store keeping a {@link SnapshotFile} per analyzed project.
+ * Snapshots are written once a project is ingested and read without going through the ORM;
+ * when the store is disabled or a project has no snapshot, callers read from the database.
+ */
+@Component
+public class SnapshotStore {
+
+    private final boolean enabled;
+    private final Path directory;
+    private final TagIndexService tagIndexService;
+    private final ContributorRequest contributorsRequests;
+    private final Map<String, SnapshotFile> snapshots = new ConcurrentHashMap<>();
+
+    public SnapshotStore(@Value("${gitclout.snapshot.enabled:false}") boolean enabled,
+                         @Value("${gitclout.snapshot.directory:./database/snapshots}") String directory,
+                         TagIndexService tagIndexService, ContributorRequest contributorsRequests) {
+        this.enabled = enabled;
+        this.directory = Paths.get(directory);
+        this.tagIndexService = Objects.requireNonNull(tagIndexService);
+        this.contributorsRequests = Objects.requireNonNull(contributorsRequests);
+    }
+
+    /**
+     * Writes the snapshot of a project from the database, replacing the previous one.
+     *
+     * @param projectName Project name
+     */
+    public void write(String projectName) {
+        if (!enabled) return;
+        try {
+            Files.createDirectories(directory);
+            var tagIds = tagIndexService.getIndex(projectName).stream().map(TagIndexStorage::tagId).toList();
+            SnapshotFile.write(path(projectName), tagIds, contributorsRequests.findByProjectName(projectName));
+            snapshots.remove(projectName);
+        } catch (IOException e) {
+            throw new RuntimeException("Error: Writing snapshot", e);
+        }
+    }
+
+    /**
+     * Retrieves the snapshot of a project.
+     *
+     * @param projectName Project name
+     * @return Snapshot, empty if the store is disabled or the project has no snapshot
+     */
+    public Optional<SnapshotFile> find(String projectName) {
+        if (!enabled) return Optional.empty();
+        SnapshotFile snapshot = snapshots.get(projectName);
+        if (snapshot != null) return Optional.of(snapshot);
+        Path file = path(projectName);
+        if (!Files.exists(file)) return Optional.empty();
+        try {
+            snapshot = SnapshotFile.open(file);
+        } catch (IOException e) {
+            throw new RuntimeException("Error: Reading snapshot", e);
+        }
+        snapshots.put(projectName, snapshot);
+        return Optional.of(snapshot);
+    }
+
+    /**
+     * Removes the snapshots of a repository.
+     *
+     * @param name Repository name
+     */
+    public void delete(String name) {
+        snapshots.keySet().removeIf(projectName -> projectName.split("_")[0].equals(name));
+        if (!Files.isDirectory(directory)) return;
+        try (var files = Files.list(directory)) {
+            for (Path file : files.filter(file -> file.getFileName().toString().split("_")[0].equals(name)).toList()) {
+                Files.deleteIfExists(file);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Error: Deleting snapshots", e);
+        }
+    }
+
+    private Path path(String projectName) {
+        return directory.resolve(projectName + ".snap");
+    }
+}
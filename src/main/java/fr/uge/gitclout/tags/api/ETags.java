@@ -0,0 +1,93 @@
+package fr.uge.gitclout.tags.api;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+final class ETags {
+
+    /**
+     * Cache policy of the results of an analyzed tag, which never change.
+     */
+    static final CacheControl IMMUTABLE = CacheControl.maxAge(Duration.ofDays(365)).cachePublic().immutable();
+
+    /**
+     * Cache policy of the results that must be revalidated before reuse.
+     */
+    static final CacheControl REVALIDATE = CacheControl.noCache();
+
+    private ETags() {
+    }
+
+    /**
+     * Builds a strong entity tag from a project and the versions of the tags its result depends on.
+     *
+     * @param projectName Project name
+     * @param versions    Object ids of the tags, with their ref names when the result lists the tags
+     * @return Quoted entity tag
+     */
+    static String of(String projectName, List<String> versions) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(projectName.getBytes(StandardCharsets.UTF_8));
+            for (String version : versions) {
+                digest.update((byte) 0);
+                digest.update(version.getBytes(StandardCharsets.UTF_8));
+            }
+            return "\"" + HexFormat.of().formatHex(digest.digest(), 0, 16) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Error: SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * Checks if an If-None-Match header matches an entity tag.
+     *
+     * @param ifNoneMatch Value of the If-None-Match header, may be null
+     * @param etag        Current entity tag
+     * @return True if the client already has the current representation
+     */
+    static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) return false;
+        for (String candidate : ifNoneMatch.split(",")) {
+            String value = candidate.trim();
+            if (value.equals("*") || value.equals(etag) || value.equals("W/" + etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Answers a conditional GET, loading and serializing the body only when the client does not have it yet.
+     *
+     * @param etag         Entity tag of the result, empty if the result is not cacheable yet
+     * @param ifNoneMatch  Value of the If-None-Match header, may be null
+     * @param cacheControl Cache policy of the result
+     * @param body         Loads the result
+     * @param <T>          Type of the elements
+     * @return Mono of the response, 304 when the entity tag matches
+     */
+    static <T> Mono<ResponseEntity<List<T>>> conditional(Mono<String> etag, String ifNoneMatch, CacheControl cacheControl, Supplier<Flux<T>> body) {
+        return etag.map(Optional::of).defaultIfEmpty(Optional.empty()).flatMap(current -> {
+            if (current.isEmpty()) {
+                return body.get().collectList().map(list -> ResponseEntity.ok().cacheControl(REVALIDATE).body(list));
+            }
+            if (matches(ifNoneMatch, current.get())) {
+                return Mono.just(ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(current.get()).cacheControl(cacheControl).<List<T>>build());
+            }
+            return body.get().collectList().map(list -> ResponseEntity.ok().eTag(current.get()).cacheControl(cacheControl).body(list));
+        });
+    }
+}
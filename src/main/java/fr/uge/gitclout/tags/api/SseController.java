@@ -17,7 +17,7 @@ public class SseController {
     private Long lastId = 0L;
 
     @GetMapping("/subscribe")
-    public Mono<SseEmitter> subscribe() {
+    public synchronized Mono<SseEmitter> subscribe() {
         try {
             this.emitter = new SseEmitter(0L);
             this.emitter.send(SseEmitter.event()
@@ -31,7 +31,7 @@ public class SseController {
         }
     }
 
-    public void sendProgress(Progress progress) {
+    public synchronized void sendProgress(Progress progress) {
         try {
             if (this.emitter != null) {
                 this.emitter.send(SseEmitter.event()
@@ -1,34 +1,99 @@
 package fr.uge.gitclout.tags.api;
 
 import fr.uge.gitclout.analyze.api.data.ContributorData;
+import fr.uge.gitclout.tags.api.data.ActivityData;
+import fr.uge.gitclout.tags.api.data.LanguageTotalData;
+import fr.uge.gitclout.tags.api.data.QuickScanData;
 import fr.uge.gitclout.tags.api.data.TagData;
+import fr.uge.gitclout.tags.api.data.TagSummaryData;
 import fr.uge.gitclout.tags.api.data.VariationData;
+import fr.uge.gitclout.tags.services.ActivityService;
+import fr.uge.gitclout.tags.services.ContributorSort;
+import fr.uge.gitclout.tags.services.QuickScanService;
+import fr.uge.gitclout.tags.services.SummaryService;
 import fr.uge.gitclout.tags.services.TagService;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
 
 @RestController
 public class TagController {
 
     private final TagService tags;
+    private final SummaryService summaries;
+    private final QuickScanService quickScans;
+    private final ActivityService activities;
 
-    public TagController(TagService tags) {
+    public TagController(TagService tags, SummaryService summaries, QuickScanService quickScans, ActivityService activities) {
         this.tags = tags;
+        this.summaries = summaries;
+        this.quickScans = quickScans;
+        this.activities = activities;
     }
 
     @GetMapping(path="/repositories/tags")
-    public Flux<TagData> getTags(String repositoryId) {
-        return tags.getTags(repositoryId);
+    public Mono<ResponseEntity<List<TagData>>> getTags(String repositoryId, @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        Mono<String> etag = tags.getTagRefs(repositoryId).collectList()
+                .filter(refs -> !refs.isEmpty())
+                .map(refs -> ETags.of(repositoryId, refs));
+        return ETags.conditional(etag, ifNoneMatch, ETags.REVALIDATE, () -> tags.getTags(repositoryId));
     }
 
     @GetMapping("/repositories/tags/contributors")
-    public Flux<ContributorData> getContributors(String repositoryId, String tagId) {
-        return tags.getContributors(repositoryId, tagId);
+    public Mono<ResponseEntity<List<ContributorData>>> getContributors(String repositoryId, String tagId,
+                                                                       @RequestParam(defaultValue = "NAME") ContributorSort sort,
+                                                                       @RequestParam(required = false) String language,
+                                                                       @RequestParam(defaultValue = "0") int offset,
+                                                                       @RequestParam(defaultValue = "0") int limit,
+                                                                       @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        if (offset < 0 || limit < 0) {
+            return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST, "Error: Negative offset or limit"));
+        }
+        return ETags.conditional(tagETag(repositoryId, tagId), ifNoneMatch, ETags.IMMUTABLE, () -> tags.getContributors(repositoryId, tagId, sort, language, offset, limit));
     }
 
     @GetMapping("/repositories/tags/contributors/history")
     public Flux<VariationData> getContributorsHistory(String repositoryId, String tagId, int number) {
         return tags.getContributorsHistory(repositoryId, tagId, number);
     }
+
+    @GetMapping("/repositories/tags/quickscan")
+    public Flux<QuickScanData> getQuickScan(String repositoryId, String tagId) {
+        return quickScans.getQuickScan(repositoryId, tagId);
+    }
+
+    @GetMapping("/repositories/tags/activity")
+    public Flux<ActivityData> getActivity(String repositoryId, String tagId) {
+        return activities.getActivity(repositoryId, tagId);
+    }
+
+    @GetMapping("/repositories/tags/summary")
+    public Mono<TagSummaryData> getTagSummary(String repositoryId, String tagId) {
+        return summaries.getTagSummary(repositoryId, tagId);
+    }
+
+    @GetMapping("/repositories/tags/languages")
+    public Mono<ResponseEntity<List<LanguageTotalData>>> getLanguageTotals(String repositoryId, String tagId, @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return ETags.conditional(tagETag(repositoryId, tagId), ifNoneMatch, ETags.IMMUTABLE, () -> summaries.getLanguageTotals(repositoryId, tagId));
+    }
+
+    /**
+     * Returns the entity tag of the results of an analyzed tag.
+     *
+     * @param repositoryId Repository identifier
+     * @param tagId        Tag identifier
+     * @return Mono of the entity tag, empty while the tag is not analyzed
+     */
+    private Mono<String> tagETag(String repositoryId, String tagId) {
+        return tags.getTagObjectId(repositoryId, tagId).map(objectId -> ETags.of(repositoryId, List.of(objectId)));
+    }
 }
@@ -0,0 +1,5 @@
+package fr.uge.gitclout.tags.api.data;
+
+public record ActivityData(String name, String languageName, String previousTagId, int commits, long linesAdded, long linesRemoved) {
+
+}
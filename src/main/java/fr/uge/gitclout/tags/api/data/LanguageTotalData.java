@@ -0,0 +1,4 @@
+package fr.uge.gitclout.tags.api.data;
+
+public record LanguageTotalData(String name, int numberOfLines) {
+}
@@ -0,0 +1,5 @@
+package fr.uge.gitclout.tags.api.data;
+
+public record QuickScanData(String languageName, int numberOfFiles, long codeLines, long commentLines, long bytes) {
+
+}
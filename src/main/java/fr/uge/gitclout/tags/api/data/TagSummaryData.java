@@ -0,0 +1,4 @@
+package fr.uge.gitclout.tags.api.data;
+
+public record TagSummaryData(String name, int numberOfLines, int numberOfContributors, int numberOfLanguages) {
+}
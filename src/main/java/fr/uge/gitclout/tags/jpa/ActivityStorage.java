@@ -0,0 +1,94 @@
+package fr.uge.gitclout.tags.jpa;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+
+@Entity
+@Table(name = "activities", indexes = @Index(columnList = "projectName, tagId"))
+public class ActivityStorage {
+
+    @Id
+    @GeneratedValue
+    private Long id;
+
+    private String tagId;
+
+    private String previousTagId;
+
+    private String projectName;
+
+    private String contributorName;
+
+    private String languageName;
+
+    private int commits;
+
+    private long linesAdded;
+
+    private long linesRemoved;
+
+    protected ActivityStorage() {
+    }
+
+    public ActivityStorage(String tagId, String previousTagId, String projectName, String contributorName, String languageName, int commits, long linesAdded, long linesRemoved) {
+        this.tagId = tagId;
+        this.previousTagId = previousTagId;
+        this.projectName = projectName;
+        this.contributorName = contributorName;
+        this.languageName = languageName;
+        this.commits = commits;
+        this.linesAdded = linesAdded;
+        this.linesRemoved = linesRemoved;
+    }
+
+    /**
+     * Creates the marker of an interval without activity: it has no contributor nor language.
+     *
+     * @param tagId         Tag identifier
+     * @param previousTagId Previous tag identifier, null for the first tag
+     * @param projectName   Project name
+     * @return Marker row
+     */
+    public static ActivityStorage empty(String tagId, String previousTagId, String projectName) {
+        return new ActivityStorage(tagId, previousTagId, projectName, null, null, 0, 0, 0);
+    }
+
+    public boolean isEmpty() {
+        return contributorName == null;
+    }
+
+    public String tagId() {
+        return tagId;
+    }
+
+    public String previousTagId() {
+        return previousTagId;
+    }
+
+    public String projectName() {
+        return projectName;
+    }
+
+    public String contributorName() {
+        return contributorName;
+    }
+
+    public String languageName() {
+        return languageName;
+    }
+
+    public int commits() {
+        return commits;
+    }
+
+    public long linesAdded() {
+        return linesAdded;
+    }
+
+    public long linesRemoved() {
+        return linesRemoved;
+    }
+}
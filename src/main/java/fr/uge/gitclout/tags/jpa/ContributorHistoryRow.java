@@ -0,0 +1,4 @@
+package fr.uge.gitclout.tags.jpa;
+
+public record ContributorHistoryRow(String contributorName, String tagId, int position, int numberOfLines) {
+}
@@ -0,0 +1,41 @@
+package fr.uge.gitclout.tags.jpa;
+
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+@Repository
+public interface ContributorSummaryRequest extends CrudRepository<ContributorSummaryStorage, Long> {
+
+    @Transactional(readOnly = true)
+    List<ContributorSummaryStorage> findByProjectNameAndTagIdOrderByNumberOfLinesDesc(String projectName, String tagId);
+
+    /**
+     * Retrieves the contributor totals of a tag and of the tags preceding it in the tag index.
+     *
+     * @param projectName Project name
+     * @param tagId       Tag identifier
+     * @param number      Number of tags to look back, including the given one
+     * @return Contributor totals ordered by index position
+     */
+    @Transactional(readOnly = true)
+    @Query("""
+            select new fr.uge.gitclout.tags.jpa.ContributorHistoryRow(c.contributorName, c.tagId, t.position, c.numberOfLines)
+            from TagIndexStorage current, TagIndexStorage t, ContributorSummaryStorage c
+            where current.projectName = :projectName and current.tagId = :tagId
+              and t.projectName = :projectName and t.position <= current.position and t.position > current.position - :number
+              and c.projectName = :projectName and c.tagId = t.tagId
+            order by t.position""")
+    List<ContributorHistoryRow> findHistory(String projectName, String tagId, int number);
+
+    /**
+     * Removes the summaries of every project of a repository.
+     *
+     * @param prefix Repository name followed by the project name separator
+     */
+    @Transactional
+    void deleteByProjectNameStartingWith(String prefix);
+}
@@ -0,0 +1,50 @@
+package fr.uge.gitclout.tags.jpa;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+
+@Entity
+@Table(name = "contributor_summaries", indexes = @Index(columnList = "projectName, tagId"))
+public class ContributorSummaryStorage {
+
+    @Id
+    @GeneratedValue
+    private Long id;
+
+    private String contributorName;
+
+    private String tagId;
+
+    private String projectName;
+
+    private int numberOfLines;
+
+    protected ContributorSummaryStorage() {
+    }
+
+    public ContributorSummaryStorage(String contributorName, String tagId, String projectName, int numberOfLines) {
+        this.contributorName = contributorName;
+        this.tagId = tagId;
+        this.projectName = projectName;
+        this.numberOfLines = numberOfLines;
+    }
+
+    public String contributorName() {
+        return contributorName;
+    }
+
+    public String tagId() {
+        return tagId;
+    }
+
+    public String projectName() {
+        return projectName;
+    }
+
+    public int numberOfLines() {
+        return numberOfLines;
+    }
+}
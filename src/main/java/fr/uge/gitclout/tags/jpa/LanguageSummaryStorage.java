@@ -0,0 +1,50 @@
+package fr.uge.gitclout.tags.jpa;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+
+@Entity
+@Table(name = "language_summaries", indexes = @Index(columnList = "projectName, tagId"))
+public class LanguageSummaryStorage {
+
+    @Id
+    @GeneratedValue
+    private Long id;
+
+    private String languageName;
+
+    private String tagId;
+
+    private String projectName;
+
+    private int numberOfLines;
+
+    protected LanguageSummaryStorage() {
+    }
+
+    public LanguageSummaryStorage(String languageName, String tagId, String projectName, int numberOfLines) {
+        this.languageName = languageName;
+        this.tagId = tagId;
+        this.projectName = projectName;
+        this.numberOfLines = numberOfLines;
+    }
+
+    public String languageName() {
+        return languageName;
+    }
+
+    public String tagId() {
+        return tagId;
+    }
+
+    public String projectName() {
+        return projectName;
+    }
+
+    public int numberOfLines() {
+        return numberOfLines;
+    }
+}
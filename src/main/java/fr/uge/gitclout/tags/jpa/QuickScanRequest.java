@@ -0,0 +1,17 @@
+package fr.uge.gitclout.tags.jpa;
+
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+@Repository
+public interface QuickScanRequest extends CrudRepository<QuickScanStorage, Long> {
+
+    @Transactional(readOnly = true)
+    List<QuickScanStorage> findByProjectNameAndTagIdOrderByCodeLinesDesc(String projectName, String tagId);
+
+    @Transactional(readOnly = true)
+    boolean existsByProjectNameAndTagId(String projectName, String tagId);
+}
@@ -0,0 +1,86 @@
+package fr.uge.gitclout.tags.jpa;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+
+@Entity
+@Table(name = "quick_scans", indexes = @Index(columnList = "projectName, tagId"))
+public class QuickScanStorage {
+
+    @Id
+    @GeneratedValue
+    private Long id;
+
+    private String tagId;
+
+    private String projectName;
+
+    private String languageName;
+
+    private int numberOfFiles;
+
+    private long codeLines;
+
+    private long commentLines;
+
+    private long bytes;
+
+    protected QuickScanStorage() {
+    }
+
+    public QuickScanStorage(String tagId, String projectName, String languageName, int numberOfFiles, long codeLines, long commentLines, long bytes) {
+        this.tagId = tagId;
+        this.projectName = projectName;
+        this.languageName = languageName;
+        this.numberOfFiles = numberOfFiles;
+        this.codeLines = codeLines;
+        this.commentLines = commentLines;
+        this.bytes = bytes;
+    }
+
+    /**
+     * Creates the marker of a tag without any recognized file: it has no language.
+     *
+     * @param tagId       Tag identifier
+     * @param projectName Project name
+     * @return Marker row
+     */
+    public static QuickScanStorage empty(String tagId, String projectName) {
+        return new QuickScanStorage(tagId, projectName, null, 0, 0, 0, 0);
+    }
+
+    public boolean isEmpty() {
+        return languageName == null;
+    }
+
+    public String tagId() {
+        return tagId;
+    }
+
+    public String projectName() {
+        return projectName;
+    }
+
+    public String languageName() {
+        return languageName;
+    }
+
+    public int numberOfFiles() {
+        return numberOfFiles;
+    }
+
+    public long codeLines() {
+        return codeLines;
+    }
+
+    public long commentLines() {
+        return commentLines;
+    }
+
+    public long bytes() {
+        return bytes;
+    }
+}
@@ -0,0 +1,26 @@
+package fr.uge.gitclout.tags.jpa;
+
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+@Repository
+public interface TagIndexRequest extends CrudRepository<TagIndexStorage, Long> {
+
+    @Transactional(readOnly = true)
+    List<TagIndexStorage> findByProjectNameOrderByPosition(String projectName);
+
+    @Modifying
+    @Transactional
+    @Query("delete from TagIndexStorage t where t.projectName = :projectName")
+    void deleteByProjectName(String projectName);
+
+    @Modifying
+    @Transactional
+    @Query("update TagIndexStorage t set t.projectName = :newProjectName where t.projectName = :projectName")
+    void renameProject(String projectName, String newProjectName);
+}
@@ -0,0 +1,74 @@
+package fr.uge.gitclout.tags.jpa;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+
+@Entity
+@Table(name = "tag_index", indexes = {
+        @Index(columnList = "projectName, position"),
+        @Index(columnList = "projectName, tagId")
+})
+public class TagIndexStorage {
+
+    @Id
+    @GeneratedValue
+    private Long id;
+
+    private String tagId;
+
+    private String refName;
+
+    private String projectName;
+
+    private String objectId;
+
+    private String commitId;
+
+    private long commitTime;
+
+    private int position;
+
+    protected TagIndexStorage() {
+    }
+
+    public TagIndexStorage(String tagId, String refName, String projectName, String objectId, String commitId, long commitTime, int position) {
+        this.tagId = tagId;
+        this.refName = refName;
+        this.projectName = projectName;
+        this.objectId = objectId;
+        this.commitId = commitId;
+        this.commitTime = commitTime;
+        this.position = position;
+    }
+
+    public String tagId() {
+        return tagId;
+    }
+
+    public String refName() {
+        return refName;
+    }
+
+    public String projectName() {
+        return projectName;
+    }
+
+    public String objectId() {
+        return objectId;
+    }
+
+    public String commitId() {
+        return commitId;
+    }
+
+    public long commitTime() {
+        return commitTime;
+    }
+
+    public int position() {
+        return position;
+    }
+}
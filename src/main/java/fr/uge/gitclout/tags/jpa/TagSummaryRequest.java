@@ -0,0 +1,22 @@
+package fr.uge.gitclout.tags.jpa;
+
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+
+@Repository
+public interface TagSummaryRequest extends CrudRepository<TagSummaryStorage, Long> {
+
+    @Transactional(readOnly = true)
+    Optional<TagSummaryStorage> findFirstByProjectNameAndTagId(String projectName, String tagId);
+
+    /**
+     * Removes the summaries of every project of a repository.
+     *
+     * @param prefix Repository name followed by the project name separator
+     */
+    @Transactional
+    void deleteByProjectNameStartingWith(String prefix);
+}
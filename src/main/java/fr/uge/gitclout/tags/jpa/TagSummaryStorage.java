@@ -0,0 +1,64 @@
+package fr.uge.gitclout.tags.jpa;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+
+@Entity
+@Table(name = "tag_summaries", indexes = @Index(columnList = "projectName, tagId"))
+public class TagSummaryStorage {
+
+    @Id
+    @GeneratedValue
+    private Long id;
+
+    private String tagId;
+
+    private String projectName;
+
+    private String objectId;
+
+    private int numberOfLines;
+
+    private int numberOfContributors;
+
+    private int numberOfLanguages;
+
+    protected TagSummaryStorage() {
+    }
+
+    public TagSummaryStorage(String tagId, String projectName, String objectId, int numberOfLines, int numberOfContributors, int numberOfLanguages) {
+        this.tagId = tagId;
+        this.projectName = projectName;
+        this.objectId = objectId;
+        this.numberOfLines = numberOfLines;
+        this.numberOfContributors = numberOfContributors;
+        this.numberOfLanguages = numberOfLanguages;
+    }
+
+    public String tagId() {
+        return tagId;
+    }
+
+    public String projectName() {
+        return projectName;
+    }
+
+    public String objectId() {
+        return objectId;
+    }
+
+    public int numberOfLines() {
+        return numberOfLines;
+    }
+
+    public int numberOfContributors() {
+        return numberOfContributors;
+    }
+
+    public int numberOfLanguages() {
+        return numberOfLanguages;
+    }
+}
@@ -0,0 +1,135 @@
+package fr.uge.gitclout.tags.services;
+
+import fr.uge.gitclout.analyze.CommitActivity;
+import fr.uge.gitclout.analyze.language.LanguageRegistry;
+import fr.uge.gitclout.analyze.service.ExclusionService;
+import fr.uge.gitclout.repositories.services.RepositoryRegistry;
+import fr.uge.gitclout.tags.api.data.ActivityData;
+import fr.uge.gitclout.tags.jpa.ActivityRequest;
+import fr.uge.gitclout.tags.jpa.ActivityStorage;
+import fr.uge.gitclout.tags.jpa.TagIndexStorage;
+import jakarta.annotation.PreDestroy;
+import org.eclipse.jgit.lib.Repository;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+import java.util.stream.StreamSupport;
+
+/**
+ * Stores and serves the commit activity of tags: lines added and removed per author and language since
+ * the previous tag of the tag index. A tag is analyzed during a
+ * {@link fr.uge.gitclout.repositories.services.AnalysisMode#ACTIVITY} ingest, or on the first request
+ * for its activity. An interval without activity is stored as a single marker row, so that it is not
+ * diffed again.
+ */
+@Service
+public class ActivityService {
+
+    private final ActivityRequest activityRequests;
+    private final TagIndexService tagIndexService;
+    private final RepositoryRegistry repositoryRegistry;
+    private final ExclusionService exclusionService;
+    private final LanguageRegistry languages;
+    private final KeyedLocks activityLocks = new KeyedLocks();
+    private final ExecutorService executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(),
+            Thread.ofPlatform().name("gitclout-activity-", 0).daemon().factory());
+
+    public ActivityService(ActivityRequest activityRequests, TagIndexService tagIndexService, RepositoryRegistry repositoryRegistry, ExclusionService exclusionService, LanguageRegistry languages) {
+        this.activityRequests = Objects.requireNonNull(activityRequests);
+        this.tagIndexService = Objects.requireNonNull(tagIndexService);
+        this.repositoryRegistry = Objects.requireNonNull(repositoryRegistry);
+        this.exclusionService = Objects.requireNonNull(exclusionService);
+        this.languages = Objects.requireNonNull(languages);
+    }
+
+    /**
+     * Analyzes the activity of a tag since the previous one and stores it, unless it was already analyzed.
+     * Concurrent analyses of the same tag wait for the first one; the lock of a tag is dropped once its
+     * analysis is done.
+     *
+     * @param repository  Repository of the project
+     * @param tag         Tag index entry
+     * @param previous    Previous tag in the index, null for the first tag
+     * @param projectName Project name
+     */
+    public void analyzeTag(Repository repository, TagIndexStorage tag, TagIndexStorage previous, String projectName) {
+        activityLocks.run(projectName + '/' + tag.tagId(), () -> analyze(repository, tag, previous, projectName));
+    }
+
+    private void analyze(Repository repository, TagIndexStorage tag, TagIndexStorage previous, String projectName) {
+        if (activityRequests.existsByProjectNameAndTagId(projectName, tag.tagId())) return;
+        String previousTagId = previous == null ? null : previous.tagId();
+        try {
+            var activities = new CommitActivity(tag.refName(), previous == null ? null : previous.refName(), repository,
+                    languages, exclusionService.exclusions(projectName), executor).analyze();
+            if (activities.isEmpty()) {
+                activityRequests.save(ActivityStorage.empty(tag.tagId(), previousTagId, projectName));
+                return;
+            }
+            activityRequests.saveAll(activities.stream()
+                    .map(activity -> new ActivityStorage(tag.tagId(), previousTagId, projectName, activity.contributorName(),
+                            activity.language(), activity.commits(), activity.linesAdded(), activity.linesRemoved()))
+                    .toList());
+        } catch (IOException e) {
+            throw new RuntimeException("Error: Analyzing activity", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Error: Analyzing activity", e);
+        }
+    }
+
+    /**
+     * Retrieves the activity of a tag since the previous one, analyzing it first if needed.
+     *
+     * @param projectName Project name
+     * @param tagId       Tag identifier
+     * @return Flux of activities, by contributor then language; empty if the project or the tag does not exist
+     */
+    public Flux<ActivityData> getActivity(String projectName, String tagId) {
+        return Mono.fromCallable(() -> {
+                    if (!activityRequests.existsByProjectNameAndTagId(projectName, tagId)
+                            && TagService.getRepositoryPath(projectName).toFile().exists()) {
+                        List<TagIndexStorage> index = tagIndexService.getIndex(projectName);
+                        for (int i = 0; i < index.size(); i++) {
+                            if (!index.get(i).tagId().equals(tagId)) continue;
+                            try (RepositoryRegistry.Handle handle = repositoryRegistry.acquire(projectName)) {
+                                analyzeTag(handle.repository(), index.get(i), i == 0 ? null : index.get(i - 1), projectName);
+                            }
+                            break;
+                        }
+                    }
+                    return activityRequests.findByProjectNameAndTagIdOrderByContributorNameAscLanguageNameAsc(projectName, tagId);
+                })
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMapIterable(Function.identity())
+                .filter(activity -> !activity.isEmpty())
+                .map(activity -> new ActivityData(activity.contributorName(), activity.languageName(), activity.previousTagId(),
+                        activity.commits(), activity.linesAdded(), activity.linesRemoved()));
+    }
+
+    /**
+     * Removes all activities of a repository.
+     *
+     * @param name Repository name
+     */
+    public void deleteActivities(String name) {
+        activityRequests.deleteAll(StreamSupport.stream(activityRequests.findAll().spliterator(), false)
+                .filter(activity -> activity.projectName().split("_")[0].equals(name)).toList());
+    }
+
+    /**
+     * Stops the threads the commits are diffed on.
+     */
+    @PreDestroy
+    public void close() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,88 @@
+package fr.uge.gitclout.tags.services;
+
+import fr.uge.gitclout.analyze.api.data.ContributorData;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.PriorityQueue;
+
+/**
+ * Sorts and pages the contributors of a tag. When a limit is given only the first {@code offset + limit}
+ * contributors are kept, in a bounded heap, instead of sorting every contributor.
+ */
+public final class ContributorRanking {
+
+    private ContributorRanking() {
+    }
+
+    /**
+     * Returns a page of contributors.
+     *
+     * @param contributors Contributors, in name order
+     * @param sort         Order of the contributors
+     * @param language     Language whose lines are compared when sorting by lines, null for the total
+     * @param offset       Number of contributors to skip
+     * @param limit        Maximum number of contributors to return, 0 for no limit
+     * @return Page of contributors
+     */
+    public static List<ContributorData> page(List<ContributorData> contributors, ContributorSort sort, String language, int offset, int limit) {
+        Objects.requireNonNull(contributors);
+        Objects.requireNonNull(sort);
+        if (offset < 0 || limit < 0) {
+            throw new IllegalArgumentException("Error: Offset and limit must not be negative");
+        }
+        if (sort == ContributorSort.NAME) {
+            return slice(contributors, offset, limit);
+        }
+        Comparator<ContributorData> order = Comparator.comparingInt((ContributorData contributor) -> lines(contributor, language)).reversed()
+                .thenComparing(ContributorData::name);
+        if (limit == 0) {
+            List<ContributorData> sorted = new ArrayList<>(contributors);
+            sorted.sort(order);
+            return slice(sorted, offset, 0);
+        }
+        return slice(top(contributors, order, (int) Math.min((long) offset + limit, contributors.size())), offset, limit);
+    }
+
+    /**
+     * Keeps the first contributors of an order with a heap holding at most {@code size} of them.
+     *
+     * @param contributors Contributors
+     * @param order        Order of the contributors
+     * @param size         Number of contributors to keep, at most the number of contributors
+     * @return First contributors, sorted
+     */
+    private static List<ContributorData> top(List<ContributorData> contributors, Comparator<ContributorData> order, int size) {
+        PriorityQueue<ContributorData> heap = new PriorityQueue<>(size + 1, order.reversed());
+        for (ContributorData contributor : contributors) {
+            if (heap.size() < size) {
+                heap.add(contributor);
+            } else if (order.compare(contributor, heap.peek()) < 0) {
+                heap.poll();
+                heap.add(contributor);
+            }
+        }
+        List<ContributorData> top = new ArrayList<>(heap);
+        top.sort(order);
+        return top;
+    }
+
+    private static int lines(ContributorData contributor, String language) {
+        if (language != null) {
+            return contributor.contributions().getOrDefault(language, 0);
+        }
+        int total = 0;
+        for (int lines : contributor.contributions().values()) {
+            total += lines;
+        }
+        return total;
+    }
+
+    private static List<ContributorData> slice(List<ContributorData> contributors, int offset, int limit) {
+        int from = Math.min(offset, contributors.size());
+        int to = limit == 0 ? contributors.size() : (int) Math.min((long) from + limit, contributors.size());
+        return contributors.subList(from, to);
+    }
+}
@@ -0,0 +1,15 @@
+package fr.uge.gitclout.tags.services;
+
+/**
+ * Order of the contributors of a tag.
+ */
+public enum ContributorSort {
+    /**
+     * Alphabetical order of the contributor names.
+     */
+    NAME,
+    /**
+     * Largest number of lines first, in total or for a single language.
+     */
+    LINES
+}
@@ -0,0 +1,44 @@
+package fr.uge.gitclout.tags.services;
+
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Runs the work done on a key, such as the analysis of a tag, one caller at a time. The lock of a key
+ * is dropped once its work is done, so the map only holds the keys being worked on.
+ */
+final class KeyedLocks {
+
+    private final ConcurrentHashMap<String, Object> locks = new ConcurrentHashMap<>();
+
+    /**
+     * Runs an action while holding the lock of a key. A caller that waited on a lock dropped in the
+     * meantime takes the lock of the key again.
+     *
+     * @param key    Key of the work
+     * @param action Work to run
+     */
+    void run(String key, Runnable action) {
+        Objects.requireNonNull(key);
+        Objects.requireNonNull(action);
+        while (true) {
+            Object lock = locks.computeIfAbsent(key, k -> new Object());
+            synchronized (lock) {
+                if (locks.get(key) != lock) continue;
+                try {
+                    action.run();
+                } finally {
+                    locks.remove(key);
+                }
+                return;
+            }
+        }
+    }
+
+    /**
+     * @return Number of keys being worked on
+     */
+    int size() {
+        return locks.size();
+    }
+}
@@ -0,0 +1,122 @@
+package fr.uge.gitclout.tags.services;
+
+import fr.uge.gitclout.analyze.QuickScan;
+import fr.uge.gitclout.analyze.language.LanguageRegistry;
+import fr.uge.gitclout.analyze.service.ExclusionService;
+import fr.uge.gitclout.repositories.services.RepositoryRegistry;
+import fr.uge.gitclout.tags.api.data.QuickScanData;
+import fr.uge.gitclout.tags.jpa.QuickScanRequest;
+import fr.uge.gitclout.tags.jpa.QuickScanStorage;
+import jakarta.annotation.PreDestroy;
+import org.eclipse.jgit.lib.Repository;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+import java.util.stream.StreamSupport;
+
+/**
+ * Stores and serves the quick scans of tags: code and comment lines per language, computed without blame.
+ * A tag is scanned during a {@link fr.uge.gitclout.repositories.services.AnalysisMode#QUICK} ingest,
+ * or on the first request for its scan. A tag without any recognized file is stored as a single marker
+ * row, so that it is not scanned again.
+ */
+@Service
+public class QuickScanService {
+
+    private final QuickScanRequest quickScanRequests;
+    private final RepositoryRegistry repositoryRegistry;
+    private final ExclusionService exclusionService;
+    private final LanguageRegistry languages;
+    private final KeyedLocks scanLocks = new KeyedLocks();
+    private final ExecutorService executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(),
+            Thread.ofPlatform().name("gitclout-quickscan-", 0).daemon().factory());
+
+    public QuickScanService(QuickScanRequest quickScanRequests, RepositoryRegistry repositoryRegistry, ExclusionService exclusionService, LanguageRegistry languages) {
+        this.quickScanRequests = Objects.requireNonNull(quickScanRequests);
+        this.repositoryRegistry = Objects.requireNonNull(repositoryRegistry);
+        this.exclusionService = Objects.requireNonNull(exclusionService);
+        this.languages = Objects.requireNonNull(languages);
+    }
+
+    /**
+     * Scans a tag and stores its language totals, unless it was already scanned. Concurrent scans of the
+     * same tag wait for the first one; the lock of a tag is dropped once its scan is done.
+     *
+     * @param repository  Repository of the project
+     * @param tagId       Tag identifier, with or without the {@code refs/tags/} prefix
+     * @param projectName Project name
+     */
+    public void scanTag(Repository repository, String tagId, String projectName) {
+        String tagName = tagId.replace("refs/tags/", "");
+        scanLocks.run(projectName + '/' + tagName, () -> scan(repository, tagName, projectName));
+    }
+
+    private void scan(Repository repository, String tagName, String projectName) {
+        if (quickScanRequests.existsByProjectNameAndTagId(projectName, tagName)) return;
+        try {
+            var counts = new QuickScan("refs/tags/" + tagName, repository, languages, exclusionService.exclusions(projectName), executor).scan();
+            if (counts.isEmpty()) {
+                quickScanRequests.save(QuickScanStorage.empty(tagName, projectName));
+                return;
+            }
+            quickScanRequests.saveAll(counts.values().stream()
+                    .map(count -> new QuickScanStorage(tagName, projectName, count.language(), count.files(), count.codeLines(), count.commentLines(), count.bytes()))
+                    .toList());
+        } catch (IOException e) {
+            throw new RuntimeException("Error: Scanning tag", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Error: Scanning tag", e);
+        }
+    }
+
+    /**
+     * Retrieves the language totals of a tag, scanning it first if needed.
+     *
+     * @param projectName Project name
+     * @param tagId       Tag identifier
+     * @return Flux of language totals, most code lines first; empty if the project or the tag does not exist
+     */
+    public Flux<QuickScanData> getQuickScan(String projectName, String tagId) {
+        return Mono.fromCallable(() -> {
+                    if (!quickScanRequests.existsByProjectNameAndTagId(projectName, tagId)
+                            && TagService.getRepositoryPath(projectName).toFile().exists()) {
+                        try (RepositoryRegistry.Handle handle = repositoryRegistry.acquire(projectName)) {
+                            if (handle.repository().exactRef("refs/tags/" + tagId) != null) {
+                                scanTag(handle.repository(), tagId, projectName);
+                            }
+                        }
+                    }
+                    return quickScanRequests.findByProjectNameAndTagIdOrderByCodeLinesDesc(projectName, tagId);
+                })
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMapIterable(Function.identity())
+                .filter(scan -> !scan.isEmpty())
+                .map(scan -> new QuickScanData(scan.languageName(), scan.numberOfFiles(), scan.codeLines(), scan.commentLines(), scan.bytes()));
+    }
+
+    /**
+     * Removes all quick scans of a repository.
+     *
+     * @param name Repository name
+     */
+    public void deleteQuickScans(String name) {
+        quickScanRequests.deleteAll(StreamSupport.stream(quickScanRequests.findAll().spliterator(), false)
+                .filter(scan -> scan.projectName().split("_")[0].equals(name)).toList());
+    }
+
+    /**
+     * Stops the threads the files are scanned on.
+     */
+    @PreDestroy
+    public void close() {
+        executor.shutdownNow();
+    }
+}
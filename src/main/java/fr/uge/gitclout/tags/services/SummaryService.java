@@ -0,0 +1,130 @@
+package fr.uge.gitclout.tags.services;
+
+import fr.uge.gitclout.analyze.Contributor;
+import fr.uge.gitclout.tags.api.data.LanguageTotalData;
+import fr.uge.gitclout.tags.api.data.TagSummaryData;
+import fr.uge.gitclout.tags.jpa.ContributorHistoryRow;
+import fr.uge.gitclout.tags.jpa.ContributorSummaryRequest;
+import fr.uge.gitclout.tags.jpa.ContributorSummaryStorage;
+import fr.uge.gitclout.tags.jpa.LanguageSummaryRequest;
+import fr.uge.gitclout.tags.jpa.LanguageSummaryStorage;
+import fr.uge.gitclout.tags.jpa.TagSummaryRequest;
+import fr.uge.gitclout.tags.jpa.TagSummaryStorage;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Function;
+
+@Service
+public class SummaryService {
+
+    private final TagSummaryRequest tagSummaryRequests;
+    private final ContributorSummaryRequest contributorSummaryRequests;
+    private final LanguageSummaryRequest languageSummaryRequests;
+
+    public SummaryService(TagSummaryRequest tagSummaryRequests, ContributorSummaryRequest contributorSummaryRequests, LanguageSummaryRequest languageSummaryRequests) {
+        this.tagSummaryRequests = Objects.requireNonNull(tagSummaryRequests);
+        this.contributorSummaryRequests = Objects.requireNonNull(contributorSummaryRequests);
+        this.languageSummaryRequests = Objects.requireNonNull(languageSummaryRequests);
+    }
+
+    /**
+     * Saves the per-tag, per-contributor and per-language totals of an analyzed tag.
+     *
+     * @param contributors Map of contributors
+     * @param tagId        Tag identifier
+     * @param projectName  Project name
+     * @param objectId     Object id the tag points to
+     */
+    public void saveSummaries(Map<String, Contributor> contributors, String tagId, String projectName, String objectId) {
+        if (contributors == null) return;
+        String tagName = tagId.replace("refs/tags/", "");
+        List<ContributorSummaryStorage> contributorSummaries = new ArrayList<>();
+        Map<String, Integer> languageTotals = new HashMap<>();
+        int total = 0;
+        for (var entry : contributors.entrySet()) {
+            int lines = 0;
+            for (var contribution : entry.getValue().getContributions().entrySet()) {
+                lines += contribution.getValue();
+                languageTotals.merge(contribution.getKey(), contribution.getValue(), Integer::sum);
+            }
+            contributorSummaries.add(new ContributorSummaryStorage(entry.getKey(), tagName, projectName, lines));
+            total += lines;
+        }
+        contributorSummaryRequests.saveAll(contributorSummaries);
+        languageSummaryRequests.saveAll(languageTotals.entrySet().stream()
+                .map(entry -> new LanguageSummaryStorage(entry.getKey(), tagName, projectName, entry.getValue()))
+                .toList());
+        tagSummaryRequests.save(new TagSummaryStorage(tagName, projectName, objectId, total, contributors.size(), languageTotals.size()));
+    }
+
+    /**
+     * Retrieves the contributor totals of a tag and of the tags preceding it, in a single query.
+     *
+     * @param projectName Project name
+     * @param tagId       Tag identifier
+     * @param number      Number of tags to look back, including the given one
+     * @return Contributor totals ordered by tag position
+     */
+    public List<ContributorHistoryRow> getContributorHistory(String projectName, String tagId, int number) {
+        return contributorSummaryRequests.findHistory(projectName, tagId, number);
+    }
+
+    /**
+     * Retrieves the object id of an analyzed tag.
+     *
+     * @param projectName Project name
+     * @param tagId       Tag identifier
+     * @return Object id the tag pointed to when it was analyzed, empty if the tag was not analyzed
+     */
+    public Optional<String> getObjectId(String projectName, String tagId) {
+        return tagSummaryRequests.findFirstByProjectNameAndTagId(projectName, tagId).map(TagSummaryStorage::objectId);
+    }
+
+    /**
+     * Retrieves the totals of a specific tag.
+     *
+     * @param projectName Project name
+     * @param tagId       Tag identifier
+     * @return Mono of the tag summary, empty if the tag was not analyzed
+     */
+    public Mono<TagSummaryData> getTagSummary(String projectName, String tagId) {
+        return Mono.fromCallable(() -> tagSummaryRequests.findFirstByProjectNameAndTagId(projectName, tagId))
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMap(Mono::justOrEmpty)
+                .map(summary -> new TagSummaryData(summary.tagId(), summary.numberOfLines(), summary.numberOfContributors(), summary.numberOfLanguages()));
+    }
+
+    /**
+     * Retrieves the number of lines of each language for a specific tag.
+     *
+     * @param projectName Project name
+     * @param tagId       Tag identifier
+     * @return Flux of language totals, largest first
+     */
+    public Flux<LanguageTotalData> getLanguageTotals(String projectName, String tagId) {
+        return Mono.fromCallable(() -> languageSummaryRequests.findByProjectNameAndTagIdOrderByNumberOfLinesDesc(projectName, tagId))
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMapIterable(Function.identity())
+                .map(summary -> new LanguageTotalData(summary.languageName(), summary.numberOfLines()));
+    }
+
+    /**
+     * Removes all summaries of a repository.
+     *
+     * @param name Repository name
+     */
+    public void deleteSummaries(String name) {
+        tagSummaryRequests.deleteByProjectNameStartingWith(name + "_");
+        contributorSummaryRequests.deleteByProjectNameStartingWith(name + "_");
+        languageSummaryRequests.deleteByProjectNameStartingWith(name + "_");
+    }
+}
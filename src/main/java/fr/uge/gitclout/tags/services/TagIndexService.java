@@ -0,0 +1,127 @@
+package fr.uge.gitclout.tags.services;
+
+import fr.uge.gitclout.tags.jpa.TagIndexRequest;
+import fr.uge.gitclout.tags.jpa.TagIndexStorage;
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.api.errors.GitAPIException;
+import org.eclipse.jgit.errors.IncorrectObjectTypeException;
+import org.eclipse.jgit.lib.Ref;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.revwalk.RevSort;
+import org.eclipse.jgit.revwalk.RevWalk;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.StreamSupport;
+
+/**
+ * Keeps the order of the tags of each project, computed once at ingest time.
+ * Tags are ordered by ancestry first and by commit time between unrelated tags, so the tags preceding
+ * a given one are found with a range query on the position instead of listing the tags from Git.
+ */
+@Service
+public class TagIndexService {
+
+    private static final String PENDING = "#pending";
+
+    private final TagIndexRequest tagIndexRequests;
+    private final TransactionTemplate transactions;
+
+    public TagIndexService(TagIndexRequest tagIndexRequests, TransactionTemplate transactions) {
+        this.tagIndexRequests = Objects.requireNonNull(tagIndexRequests);
+        this.transactions = Objects.requireNonNull(transactions);
+    }
+
+    /**
+     * Builds the tag index of a project and replaces the one stored in the database. The new index is
+     * saved under a pending name first, then swapped with the former one in a single transaction, so
+     * readers never see the project without an index and a failed save leaves the former one in place.
+     * The swap only deletes and updates rows, since new identifiers are allocated on a connection of
+     * their own and the writer pool has a single one.
+     *
+     * @param git         Git repository of the project
+     * @param projectName Project name
+     * @return Tags of the project, in index order
+     * @throws IOException     If an error occurs while walking the history
+     * @throws GitAPIException If an error occurs while listing the tags
+     */
+    public List<TagIndexStorage> indexTags(Git git, String projectName) throws IOException, GitAPIException {
+        String pending = projectName + PENDING;
+        List<TagIndexStorage> index = buildIndex(git, pending);
+        tagIndexRequests.deleteByProjectName(pending);
+        tagIndexRequests.saveAll(index);
+        transactions.executeWithoutResult(status -> {
+            tagIndexRequests.deleteByProjectName(projectName);
+            tagIndexRequests.renameProject(pending, projectName);
+        });
+        return getIndex(projectName);
+    }
+
+    /**
+     * Computes the tag index of a repository. Ancestors come before their descendants and unrelated
+     * tags are ordered by commit time; tags of the same commit are ordered by name.
+     * Tags that do not point to a commit are left out.
+     *
+     * @param git         Git repository
+     * @param projectName Project name
+     * @return Tags of the repository, in index order
+     * @throws IOException     If an error occurs while walking the history
+     * @throws GitAPIException If an error occurs while listing the tags
+     */
+    public static List<TagIndexStorage> buildIndex(Git git, String projectName) throws IOException, GitAPIException {
+        List<TagIndexStorage> index = new ArrayList<>();
+        try (RevWalk walk = new RevWalk(git.getRepository())) {
+            Map<RevCommit, List<Ref>> tagsByCommit = new HashMap<>();
+            for (Ref tag : git.tagList().call()) {
+                RevCommit commit;
+                try {
+                    commit = walk.parseCommit(tag.getObjectId());
+                } catch (IncorrectObjectTypeException e) {
+                    continue;
+                }
+                tagsByCommit.computeIfAbsent(commit, key -> new ArrayList<>()).add(tag);
+                walk.markStart(commit);
+            }
+            walk.sort(RevSort.TOPO, true);
+            walk.sort(RevSort.COMMIT_TIME_DESC, true);
+            walk.sort(RevSort.REVERSE, true);
+            for (RevCommit commit : walk) {
+                List<Ref> tags = tagsByCommit.get(commit);
+                if (tags == null) continue;
+                tags.sort(Comparator.comparing(Ref::getName));
+                for (Ref tag : tags) {
+                    index.add(new TagIndexStorage(tag.getName().replace("refs/tags/", ""), tag.getName(), projectName,
+                            tag.getObjectId().getName(), commit.getName(), commit.getCommitTime(), index.size()));
+                }
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Retrieves the tag index of a project.
+     *
+     * @param projectName Project name
+     * @return Tags of the project, in index order
+     */
+    public List<TagIndexStorage> getIndex(String projectName) {
+        return tagIndexRequests.findByProjectNameOrderByPosition(projectName);
+    }
+
+    /**
+     * Removes the tag index of a repository.
+     *
+     * @param name Repository name
+     */
+    public void deleteIndex(String name) {
+        tagIndexRequests.deleteAll(StreamSupport.stream(tagIndexRequests.findAll().spliterator(), false)
+                .filter(tag -> tag.projectName().split("_")[0].equals(name)).toList());
+    }
+}
@@ -1,13 +1,30 @@
 package fr.uge.gitclout.tags.services;
 
 import fr.uge.gitclout.analyze.Contributor;
+import fr.uge.gitclout.cache.ResultCache;
+import fr.uge.gitclout.metrics.IngestMetrics;
+import fr.uge.gitclout.metrics.PersistenceBatchEvent;
+import fr.uge.gitclout.repositories.services.AnalysisMode;
+import fr.uge.gitclout.repositories.services.IngestContext;
+import fr.uge.gitclout.repositories.services.RepositoryRegistry;
+import fr.uge.gitclout.snapshot.SnapshotStore;
 import fr.uge.gitclout.analyze.FileExtractor;
+import fr.uge.gitclout.analyze.PathExclusions;
+import fr.uge.gitclout.analyze.language.LanguageRegistry;
+import fr.uge.gitclout.analyze.service.AnalysisService;
+import fr.uge.gitclout.analyze.service.ContributorWriter;
+import fr.uge.gitclout.analyze.service.ExclusionService;
+import fr.uge.gitclout.analyze.service.FileCostService;
+import fr.uge.gitclout.analyze.service.SamplingService;
 import fr.uge.gitclout.analyze.api.data.ContributorData;
+import fr.uge.gitclout.analyze.jpa.AnalysisStorage;
 import fr.uge.gitclout.analyze.jpa.ContributorRequest;
 import fr.uge.gitclout.tags.api.data.VariationData;
+import fr.uge.gitclout.tags.jpa.ContributorHistoryRow;
+import fr.uge.gitclout.tags.jpa.TagIndexStorage;
 import fr.uge.gitclout.tags.jpa.TagRequest;
 import fr.uge.gitclout.tags.jpa.TagStorage;
-import fr.uge.gitclout.analyze.jpa.ContributorStorage;
+import fr.uge.gitclout.analyze.jpa.ContributorRow;
 import fr.uge.gitclout.tags.api.data.TagData;
 import fr.uge.gitclout.tags.api.SseController;
 import fr.uge.gitclout.tags.api.data.Progress;
@@ -24,27 +41,57 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Function;
 
 @Service
 public class TagService {
 
     private final TagRequest tagRequests;
     private final ContributorRequest contributorsRequests;
-    private Git git;
+    private final ContributorWriter contributorWriter;
+    private final AnalysisService analysisService;
+    private final SummaryService summaryService;
+    private final QuickScanService quickScanService;
+    private final ActivityService activityService;
+    private final FileCostService fileCostService;
+    private final SamplingService samplingService;
+    private final ExclusionService exclusionService;
+    private final TagIndexService tagIndexService;
+    private final SnapshotStore snapshotStore;
+    private final ResultCache resultCache;
+    private final RepositoryRegistry repositoryRegistry;
     private final SseController sseController;
-    private int tagAnalyzed = 0;
+    private final IngestMetrics metrics;
+    private final LanguageRegistry languages;
 
-    public TagService(TagRequest tagRequests, ContributorRequest contributorsRequests, SseController sseController) {
+    public TagService(TagRequest tagRequests, ContributorRequest contributorsRequests, ContributorWriter contributorWriter, AnalysisService analysisService, SummaryService summaryService, QuickScanService quickScanService, ActivityService activityService, FileCostService fileCostService, SamplingService samplingService, ExclusionService exclusionService, TagIndexService tagIndexService, SnapshotStore snapshotStore, ResultCache resultCache, RepositoryRegistry repositoryRegistry, SseController sseController, IngestMetrics metrics, LanguageRegistry languages) {
         Objects.requireNonNull(tagRequests);
         Objects.requireNonNull(sseController);
         this.contributorsRequests = contributorsRequests;
+        this.contributorWriter = Objects.requireNonNull(contributorWriter);
+        this.analysisService = Objects.requireNonNull(analysisService);
         this.tagRequests = tagRequests;
+        this.summaryService = summaryService;
+        this.quickScanService = Objects.requireNonNull(quickScanService);
+        this.activityService = Objects.requireNonNull(activityService);
+        this.fileCostService = Objects.requireNonNull(fileCostService);
+        this.samplingService = Objects.requireNonNull(samplingService);
+        this.exclusionService = Objects.requireNonNull(exclusionService);
+        this.tagIndexService = Objects.requireNonNull(tagIndexService);
+        this.snapshotStore = Objects.requireNonNull(snapshotStore);
+        this.resultCache = Objects.requireNonNull(resultCache);
+        this.repositoryRegistry = Objects.requireNonNull(repositoryRegistry);
         this.sseController = sseController;
+        this.metrics = Objects.requireNonNull(metrics);
+        this.languages = Objects.requireNonNull(languages);
     }
 
     /**
@@ -79,22 +126,43 @@ public class TagService {
     }
 
     /**
-     * Inserts a tag into the database along with contributor information.
+     * Inserts a tag into the database along with contributor information, unless it is already stored.
      *
-     * @param tag      Git tag reference
-     * @param projectName Project name
-     * @throws IOException If an error occurs while analyzing contributors
+     * @param git     Git repository of the project
+     * @param tag     Tag index entry
+     * @param context Ingest context
+     */
+    private void insertATagInDatabase(Git git, TagIndexStorage tag, IngestContext context) {
+        if (!isTagExist(context.projectName(), tag.refName())) {
+            analyzeTag(git, tag, context);
+        }
+    }
+
+    /**
+     * Analyzes a tag and saves it with its contributors. A tag whose commit was already fully analyzed,
+     * by this repository or another one, is linked to that analysis instead.
+     *
+     * @param git     Git repository of the project
+     * @param tag     Tag index entry
+     * @param context Ingest context
      */
-    private void insertATagInDatabase(Ref tag, String projectName) throws IOException {
-        String tagId = getTagName(tag);
-        if (!isTagExist(projectName, tagId)) {
-            try {
-                getAllContributors(new FileExtractor(tagId, git), new TagStorage(tagId, projectName), tagId, projectName);
-            } catch (IOException e) {
-                throw new RuntimeException("Error: Inserting a tag in database", e);
-            } catch (InterruptedException e) {
-                throw new RuntimeException(e);
+    public void analyzeTag(Git git, TagIndexStorage tag, IngestContext context) {
+        String tagId = tag.refName();
+        String projectName = context.projectName();
+        try {
+            PathExclusions exclusions = exclusionService.exclusions(projectName);
+            Optional<AnalysisStorage> analysis = context.mode() == AnalysisMode.FULL
+                    ? analysisService.find(tag.commitId(), exclusions)
+                    : Optional.empty();
+            if (analysis.isPresent()) {
+                linkContributors(analysis.get(), new TagStorage(tagId, projectName), tag, context);
+            } else {
+                getAllContributors(new FileExtractor(tagId, git, metrics, languages, exclusions), new TagStorage(tagId, projectName), tag, context, exclusions);
             }
+        } catch (IOException e) {
+            throw new RuntimeException("Error: Inserting a tag in database", e);
+        } catch (InterruptedException e) {
+            throw new RuntimeException(e);
         }
     }
 
@@ -103,65 +171,169 @@ public class TagService {
      *
      * @param filesExtractor File extractor object
      * @param storage        Tag storage object
-     * @param tagId          Tag identifier
-     * @param projectName    Project name
+     * @param tag            Tag index entry
+     * @param context        Ingest context
+     * @param exclusions     Exclusions the tag is analyzed with
      * @throws InterruptedException If an error occurs while analyzing contributors
      */
-    private void getAllContributors(FileExtractor filesExtractor, TagStorage storage, String tagId, String projectName) throws InterruptedException {
+    private void getAllContributors(FileExtractor filesExtractor, TagStorage storage, TagIndexStorage tag, IngestContext context, PathExclusions exclusions) throws InterruptedException {
+        String tagId = tag.refName();
+        String projectName = context.projectName();
+        if (context.mode() == AnalysisMode.SAMPLED) {
+            saveEstimates(filesExtractor, storage, tagId, context);
+            return;
+        }
         Map<String, Contributor> contributors = filesExtractor.analyzeAllContributors();
-        List<ContributorStorage> contributorStorages = collectContributorStorages(contributors, tagId, projectName);
-        contributorsRequests.saveAll(contributorStorages);
-        updateProgressAndSaveTag(projectName, storage);
+        var event = new PersistenceBatchEvent();
+        event.begin();
+        int rows;
+        long start;
+        try (ContributorWriter.Batch batch = contributorWriter.open()) {
+            start = metrics.start();
+            contributorRows(contributors, tagId, projectName).forEach(batch::add);
+            metrics.stop(start, IngestMetrics.Phase.COLLECT);
+            start = metrics.start();
+            summaryService.saveSummaries(contributors, tagId, projectName, tag.objectId());
+            fileCostService.saveFileCosts(filesExtractor.fileCosts(), tagId, projectName);
+            rows = batch.rows();
+        }
+        analysisService.record(projectName, tagId, tag.commitId(), exclusions);
+        metrics.stop(start, IngestMetrics.Phase.SAVE);
+        event.commit(projectName, tagId, rows);
+        updateProgressAndSaveTag(context, storage);
+    }
+
+    /**
+     * Blames a sample of the files of a tag and saves the extrapolated estimates. They are only kept
+     * apart, in the estimates table, so that they are never served as blame results.
+     *
+     * @param filesExtractor File extractor object
+     * @param storage        Tag storage object
+     * @param tagId          Tag identifier
+     * @param context        Ingest context
+     * @throws InterruptedException If an error occurs while analyzing contributors
+     */
+    private void saveEstimates(FileExtractor filesExtractor, TagStorage storage, String tagId, IngestContext context) throws InterruptedException {
+        var extrapolation = filesExtractor.analyzeSampledContributors(samplingService.sampleSize(context.sampleSize()));
+        samplingService.saveEstimates(extrapolation, tagId, context.projectName());
+        fileCostService.saveFileCosts(filesExtractor.fileCosts(), tagId, context.projectName());
+        updateProgressAndSaveTag(context, storage);
+    }
+
+    /**
+     * Links a tag to the previous analysis of its commit, then builds its summaries from it.
+     *
+     * @param analysis Previous analysis of the commit of the tag
+     * @param storage  Tag storage object
+     * @param tag      Tag index entry
+     * @param context  Ingest context
+     */
+    private void linkContributors(AnalysisStorage analysis, TagStorage storage, TagIndexStorage tag, IngestContext context) {
+        String projectName = context.projectName();
+        Map<String, Contributor> contributors = analysisService.link(analysis, projectName, tag.refName());
+        summaryService.saveSummaries(contributors, tag.refName(), projectName, tag.objectId());
+        updateProgressAndSaveTag(context, storage);
     }
 
     /**
-     * Collects contributor storage objects from the analyzed contributors.
+     * Collects contributor rows from the analyzed contributors.
      *
      * @param contributors Map of contributors
      * @param tagId        Tag identifier
      * @param projectName Project name
-     * @return List of contributor storage objects
+     * @return List of contributor rows
      */
-    public static List<ContributorStorage> collectContributorStorages(Map<String, Contributor> contributors, String tagId, String projectName) {
+    public static List<ContributorRow> collectContributorRows(Map<String, Contributor> contributors, String tagId, String projectName) {
+        return contributorRows(contributors, tagId, projectName).collect(Collectors.toList());
+    }
+
+    /**
+     * Lazily builds the contributor rows of the analyzed contributors, one row per contributor and language.
+     *
+     * @param contributors Map of contributors
+     * @param tagId        Tag identifier
+     * @param projectName  Project name
+     * @return Stream of contributor rows
+     */
+    public static Stream<ContributorRow> contributorRows(Map<String, Contributor> contributors, String tagId, String projectName) {
         if (contributors == null) {
-            return new ArrayList<>();
+            return Stream.empty();
         }
+        String tagName = tagId.replace("refs/tags/", "");
         return contributors.entrySet().stream()
                 .flatMap(entry -> entry.getValue().getContributions().entrySet().stream()
-                        .map(languageEntry -> new ContributorStorage(entry.getKey(), languageEntry.getKey(), tagId.replace("refs/tags/", ""), languageEntry.getValue(), projectName)))
-                .collect(Collectors.toList());
+                        .map(languageEntry -> new ContributorRow(entry.getKey(), languageEntry.getKey(), tagName, languageEntry.getValue(), projectName)));
     }
 
     /**
      * Updates progress and saves the tag in the database.
      *
-     * @param projectName Project name
-     * @param storage     Tag storage object
+     * @param context Ingest context
+     * @param storage Tag storage object
      */
-    private void updateProgressAndSaveTag(String projectName, TagStorage storage) {
-        tagAnalyzed++;
-        sseController.sendProgress(new Progress("progress", getNumberOfTags(projectName), tagAnalyzed));
+    private void updateProgressAndSaveTag(IngestContext context, TagStorage storage) {
+        sseController.sendProgress(new Progress("progress", context.numberOfTags(), context.tagAnalyzed()));
         tagRequests.save(storage);
+        resultCache.invalidate(context.projectName());
     }
 
     /**
      * Inserts all tags of a project into the database.
      *
-     * @param projectName Project name
+     * @param context Ingest context
      */
-    public void insertTagsInDatabase(String projectName) {
+    public void insertTagsInDatabase(IngestContext context) {
+        String projectName = context.projectName();
         try {
-            setTagAnalyzed(projectName);
             if (!getRepositoryPath(projectName).toFile().exists()) throw new RuntimeException("Error: Repository does not exist");
-            git = Git.open(getRepositoryPath(projectName).toFile());
-            List<Ref> tags = git.tagList().call();
-            for (var tag : tags) {
-                insertATagInDatabase(tag, projectName);
+            try (RepositoryRegistry.Handle handle = repositoryRegistry.acquire(projectName)) {
+                List<TagIndexStorage> tags = tagIndexService.indexTags(handle.git(), projectName);
+                resultCache.invalidate(projectName);
+                if (context.mode() == AnalysisMode.QUICK) {
+                    scanTags(handle.git(), tags, context);
+                    return;
+                }
+                if (context.mode() == AnalysisMode.ACTIVITY) {
+                    analyzeActivity(handle.git(), tags, context);
+                    return;
+                }
+                context.start(countAnalyzedTags(projectName), tags.size());
+                for (TagIndexStorage tag : tags) {
+                    insertATagInDatabase(handle.git(), tag, context);
+                }
             }
         } catch (IOException | GitAPIException e) {
             throw new RuntimeException("Error: Inserting tags in database", e);
-        } finally {
-            closeGit();
+        }
+    }
+
+    /**
+     * Quick-scans all tags of a project instead of blaming them.
+     *
+     * @param git     Git repository of the project
+     * @param tags    Tags of the project
+     * @param context Ingest context
+     */
+    private void scanTags(Git git, List<TagIndexStorage> tags, IngestContext context) {
+        context.start(0, tags.size());
+        for (TagIndexStorage tag : tags) {
+            quickScanService.scanTag(git.getRepository(), tag.refName(), context.projectName());
+            sseController.sendProgress(new Progress("progress", context.numberOfTags(), context.tagAnalyzed()));
+        }
+    }
+
+    /**
+     * Analyzes the commit activity between consecutive tags of a project instead of blaming them.
+     *
+     * @param git     Git repository of the project
+     * @param tags    Tags of the project, in index order
+     * @param context Ingest context
+     */
+    private void analyzeActivity(Git git, List<TagIndexStorage> tags, IngestContext context) {
+        context.start(0, tags.size());
+        for (int i = 0; i < tags.size(); i++) {
+            activityService.analyzeTag(git.getRepository(), tags.get(i), i == 0 ? null : tags.get(i - 1), context.projectName());
+            sseController.sendProgress(new Progress("progress", context.numberOfTags(), context.tagAnalyzed()));
         }
     }
 
@@ -169,13 +341,16 @@ public class TagService {
      * Retrieves the number of tags analyzed for a specific project.
      *
      * @param projectName Project name
+     * @return Number of tags analyzed
      */
-    private void setTagAnalyzed(String projectName) {
+    private int countAnalyzedTags(String projectName) {
+        int tagAnalyzed = 0;
         for (TagStorage tag : tagRequests.findAll()) {
             if (tag.projectName().equals(projectName)) {
                 tagAnalyzed++;
             }
         }
+        return tagAnalyzed;
     }
 
     /**
@@ -189,64 +364,58 @@ public class TagService {
         return Paths.get(tempDir, "gitclout_tmp", projectName);
     }
 
-    /**
-     * Closes the Git instance.
-     */
-    private void closeGit() {
-        if (git != null) {
-            git.close();
-            git = null;
-        }
-    }
-
     /**
      * Retrieves contributors for a specific tag.
+     * They are read from the project's snapshot when there is one, from the database otherwise.
      *
      * @param projectName Project name
      * @param tagId       Tag identifier
      * @return Flux of contributors
      */
     public Flux<ContributorData> getContributors(String projectName, String tagId) {
-        return Mono.fromCallable(() -> {
-                    Map<String, Map<String, Integer>> contributorsMap = new HashMap<>();
-                    for (var contributor : contributorsRequests.findAll()) {
-                        if (contributor.tagId().equals(tagId) && contributor.projectName().equals(projectName)) {
-                            contributorsMap.computeIfAbsent(contributor.contributorName(), k -> new HashMap<>()).merge(contributor.languageName(), contributor.numberOfLines(), Integer::sum);
-                        }
-                    }
-                    return contributorsMap;
-                })
-                .subscribeOn(Schedulers.boundedElastic()).flatMapMany(map -> Flux.fromIterable(map.entrySet())).map(entry -> new ContributorData(entry.getKey(), entry.getValue())).onErrorResume(e -> Flux.error(new RuntimeException("Error retrieving contributors: " + e.getMessage())));
+        return resultCache.get(new ResultCache.Key(projectName, "contributors", tagId, 0), () -> Mono.fromCallable(() -> snapshotStore.find(projectName)
+                        .flatMap(snapshot -> snapshot.contributors(tagId))
+                        .orElseGet(() -> loadContributors(projectName, tagId)))
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMapIterable(Function.identity())).onErrorResume(e -> Flux.error(new RuntimeException("Error retrieving contributors: " + e.getMessage())));
     }
 
-
     /**
-     * Retrieves the number of tags for a specific project.
+     * Retrieves a page of the contributors of a specific tag.
      *
      * @param projectName Project name
-     * @return Number of tags
+     * @param tagId       Tag identifier
+     * @param sort        Order of the contributors
+     * @param language    Language whose lines are compared when sorting by lines, null for the total
+     * @param offset      Number of contributors to skip
+     * @param limit       Maximum number of contributors to return, 0 for no limit
+     * @return Flux of contributors
      */
-    private int getNumberOfTags(String projectName) {
-        try {
-            Path repositoryPath = getRepositoryPath(projectName);
-            git = Git.open(repositoryPath.toFile());
-            return git.tagList().call().size();
-        } catch (IOException | GitAPIException e) {
-            throw new RuntimeException("Error: Getting number of tags", e);
+    public Flux<ContributorData> getContributors(String projectName, String tagId, ContributorSort sort, String language, int offset, int limit) {
+        if (sort == ContributorSort.NAME && offset == 0 && limit == 0) {
+            return getContributors(projectName, tagId);
         }
+        return getContributors(projectName, tagId).collectList()
+                .flatMapIterable(contributors -> ContributorRanking.page(contributors, sort, language, offset, limit));
     }
 
     /**
-     * Checks if a repository exists based on its identifier.
+     * Retrieves contributors for a specific tag from the database.
      *
-     * @param repositoryId Repository identifier
-     * @return True if the repository exists, false otherwise
+     * @param projectName Project name
+     * @param tagId       Tag identifier
+     * @return Contributors ordered by name
      */
-    private static boolean isRepositoryExist(String repositoryId) {
-        Path repositoryPath = getRepositoryPath(repositoryId);
-        return repositoryPath.toFile().exists();
+    private List<ContributorData> loadContributors(String projectName, String tagId) {
+        return contributorsRequests.findByProjectNameAndTagIdOrderByContributorName(projectName, tagId).stream()
+                .collect(Collectors.groupingBy(ContributorRow::contributorName, LinkedHashMap::new,
+                        Collectors.toMap(ContributorRow::languageName, ContributorRow::numberOfLines, Integer::sum)))
+                .entrySet().stream()
+                .map(entry -> new ContributorData(entry.getKey(), entry.getValue()))
+                .toList();
     }
 
+
     /**
      * Retrieves all tags for a specific repository.
      *
@@ -254,62 +423,103 @@ public class TagService {
      * @return Flux of TagData
      */
     public Flux<TagData> getTags(String repositoryId) {
-        if (!isRepositoryExist(repositoryId)) return Flux.empty();
-        try {
-            Path repositoryPath = getRepositoryPath(repositoryId);
-            git = Git.open(repositoryPath.toFile());
-            return Flux.fromIterable(git.tagList().call()).map(tagRef -> new TagData(tagRef.getName(), tagRef.getName().replace("refs/tags/", "")));
-        } catch (GitAPIException | IOException e) {
-            throw new RuntimeException("Error: Getting tags", e);
-        } finally {
-            closeGit();
-        }
+        return resultCache.get(new ResultCache.Key(repositoryId, "tags", null, 0), () -> loadTags(repositoryId));
     }
 
     /**
-     * Retrieves the number of contributors for a specific tag.
-     * @param repositoryId
-     * @param tagId
-     * @param number
-     * @return
+     * Lists the tags of a repository from the tag index.
+     *
+     * @param repositoryId Repository identifier
+     * @return Flux of TagData, in index order
+     */
+    private Flux<TagData> loadTags(String repositoryId) {
+        return Mono.fromCallable(() -> tagIndexService.getIndex(repositoryId))
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMapIterable(Function.identity())
+                .map(tag -> new TagData(tag.refName(), tag.tagId()));
+    }
+
+    /**
+     * Retrieves the object id of an analyzed tag.
+     *
+     * @param repositoryId Repository identifier
+     * @param tagId        Tag identifier
+     * @return Mono of the object id, empty while the tag is not analyzed
+     */
+    public Mono<String> getTagObjectId(String repositoryId, String tagId) {
+        return resultCache.get(new ResultCache.Key(repositoryId, "objectId", tagId, 0),
+                () -> Mono.fromCallable(() -> summaryService.getObjectId(repositoryId, tagId))
+                        .subscribeOn(Schedulers.boundedElastic())
+                        .flatMapMany(objectId -> Flux.fromStream(objectId.stream()))).next();
+    }
+
+    /**
+     * Retrieves the ref name and object id of all the tags of a repository.
+     *
+     * @param repositoryId Repository identifier
+     * @return Flux of the ref names, each followed by a space and the object id it points to, in tag order
+     */
+    public Flux<String> getTagRefs(String repositoryId) {
+        return resultCache.get(new ResultCache.Key(repositoryId, "refs", null, 0), () -> loadTagRefs(repositoryId));
+    }
+
+    /**
+     * Lists the ref names and object ids of the tags of a repository from the tag index.
+     *
+     * @param repositoryId Repository identifier
+     * @return Flux of the ref names with their object ids
+     */
+    private Flux<String> loadTagRefs(String repositoryId) {
+        return Mono.fromCallable(() -> tagIndexService.getIndex(repositoryId))
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMapIterable(Function.identity())
+                .map(tag -> tag.refName() + " " + tag.objectId());
+    }
+
+    /**
+     * Retrieves the variation of each contributor of a tag compared to the previous tags.
+     * The totals of all the requested tags are fetched with a single query, in the order of the tag index.
+     *
+     * @param repositoryId Repository identifier
+     * @param tagId        Tag identifier
+     * @param number       Number of tags to look back, including the given one
+     * @return Flux of variation data
      */
     public Flux<VariationData> getContributorsHistory(String repositoryId, String tagId, int number) {
-        if (!isRepositoryExist(repositoryId)) return Flux.empty();
-        try {
-            List<Ref> recentTags = getRecentTags(repositoryId, tagId, number);
-            if (isTagAbsent(recentTags, tagId)) return Flux.empty();
-            Map<String, List<Integer>> contributorContributions = calculateContributions(repositoryId, recentTags);
-            Map<String, Integer> averageContributions = calculateAverageContributions(contributorContributions);
-            Map<String, Integer> currentTagContributions = getContributionsForTag(repositoryId, tagId);
-            return createVariationDataFlux(contributorContributions, averageContributions, currentTagContributions);
-        } catch (Exception e) {
-            return Flux.error(new RuntimeException("Error while retrieving contributors history: " + e.getMessage()));
-        }
+        return resultCache.get(new ResultCache.Key(repositoryId, "history", tagId, number), () -> loadContributorsHistory(repositoryId, tagId, number));
     }
 
     /**
-     * Checks if a tag is absent from the database.
-     * @param recentTags
-     * @param tagId
-     * @return
+     * Computes the variation of each contributor from the project's snapshot, or from the summary tables when there is none.
+     *
+     * @param repositoryId Repository identifier
+     * @param tagId        Tag identifier
+     * @param number       Number of tags to look back, including the given one
+     * @return Flux of variation data
      */
-    private boolean isTagAbsent(List<Ref> recentTags, String tagId) {
-        return recentTags.stream().noneMatch(tag -> tag.getName().endsWith(tagId));
+    private Flux<VariationData> loadContributorsHistory(String repositoryId, String tagId, int number) {
+        return Mono.fromCallable(() -> snapshotStore.find(repositoryId)
+                        .flatMap(snapshot -> snapshot.history(tagId, number))
+                        .orElseGet(() -> summaryService.getContributorHistory(repositoryId, tagId, number)))
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMapMany(rows -> {
+                    Map<String, List<Integer>> contributorContributions = calculateContributions(rows);
+                    Map<String, Integer> averageContributions = calculateAverageContributions(contributorContributions);
+                    Map<String, Integer> currentTagContributions = getContributionsForTag(rows, tagId);
+                    return createVariationDataFlux(contributorContributions, averageContributions, currentTagContributions);
+                })
+                .onErrorResume(e -> Flux.error(new RuntimeException("Error while retrieving contributors history: " + e.getMessage())));
     }
 
     /**
      * Calculates the contributions for each contributor.
-     * @param repositoryId
-     * @param recentTags
-     * @return
+     * @param rows Contributor totals ordered by tag position
+     * @return Contributions of each contributor, in tag order
      */
-    private Map<String, List<Integer>> calculateContributions(String repositoryId, List<Ref> recentTags) {
+    private Map<String, List<Integer>> calculateContributions(List<ContributorHistoryRow> rows) {
         Map<String, List<Integer>> contributorContributions = new HashMap<>();
-        for (Ref tag : recentTags) {
-            String currentTagId = tag.getName().replace("refs/tags/", "");
-            Map<String, Integer> contributions = getContributionsForTag(repositoryId, currentTagId);
-            contributions.forEach((contributor, lines) ->
-                    contributorContributions.computeIfAbsent(contributor, k -> new ArrayList<>()).add(lines));
+        for (ContributorHistoryRow row : rows) {
+            contributorContributions.computeIfAbsent(row.contributorName(), k -> new ArrayList<>()).add(row.numberOfLines());
         }
         return contributorContributions;
     }
@@ -362,40 +572,17 @@ public class TagService {
         return entry.getValue() - lastContribution > averageContributions.getOrDefault(entry.getKey(), 0);
     }
 
-    /**
-     * Retrieves the recent tags for a specific tag.
-     * @param repositoryId
-     * @param tagId
-     * @param number
-     * @return
-     * @throws GitAPIException
-     * @throws IOException
-     */
-    private List<Ref> getRecentTags(String repositoryId, String tagId, int number) throws GitAPIException, IOException {
-        Path repositoryPath = getRepositoryPath(repositoryId);
-        git = Git.open(repositoryPath.toFile());
-        List<Ref> tags = git.tagList().call();
-        List<Ref> recentTags = new ArrayList<>();
-        for (Ref tag : tags) {
-            recentTags.add(tag);
-            if (tagId.equals(tag.getName().replace("refs/tags/", ""))) {
-                break;
-            }
-        }
-        return recentTags.subList(Math.max(recentTags.size() - number, 0), recentTags.size());
-    }
-
     /**
      * Retrieves the contributions for a specific tag.
-     * @param repositoryId
-     * @param tagId
-     * @return
+     * @param rows  Contributor totals ordered by tag position
+     * @param tagId Tag identifier
+     * @return Number of lines of each contributor
      */
-    private Map<String, Integer> getContributionsForTag(String repositoryId, String tagId) {
+    private Map<String, Integer> getContributionsForTag(List<ContributorHistoryRow> rows, String tagId) {
         Map<String, Integer> contributions = new HashMap<>();
-        for (ContributorStorage contributor : contributorsRequests.findAll()) {
-            if (contributor.tagId().equals(tagId) && contributor.projectName().equals(repositoryId)) {
-                contributions.merge(contributor.contributorName(), contributor.numberOfLines(), Integer::sum);
+        for (ContributorHistoryRow row : rows) {
+            if (row.tagId().equals(tagId)) {
+                contributions.put(row.contributorName(), row.numberOfLines());
             }
         }
         return contributions;
@@ -3,34 +3,60 @@ package fr.uge.gitclout;
 import fr.uge.gitclout.analyze.Contributor;
 import fr.uge.gitclout.analyze.FileExtractor;
 import fr.uge.gitclout.analyze.Refresh;
+import fr.uge.gitclout.analyze.language.CommentSyntax;
 import fr.uge.gitclout.analyze.language.Language;
+import fr.uge.gitclout.analyze.language.LanguageRegistry;
+import fr.uge.gitclout.analyze.language.LineClassifier;
 import fr.uge.gitclout.analyze.api.data.ContributorData;
 import fr.uge.gitclout.analyze.jpa.ContributorRequest;
-import fr.uge.gitclout.analyze.jpa.ContributorStorage;
-import fr.uge.gitclout.analyze.language.Regex;
+import fr.uge.gitclout.analyze.jpa.ContributorRow;
+import fr.uge.gitclout.analyze.jpa.ExclusionRequest;
+import fr.uge.gitclout.analyze.service.AnalysisService;
+import fr.uge.gitclout.analyze.service.ContributorWriter;
+import fr.uge.gitclout.analyze.service.ExclusionService;
+import fr.uge.gitclout.analyze.service.FileCostService;
+import fr.uge.gitclout.analyze.service.NameDictionary;
+import fr.uge.gitclout.analyze.service.SamplingService;
+import fr.uge.gitclout.cache.ResultCache;
+import fr.uge.gitclout.metrics.FlightRecordings;
+import fr.uge.gitclout.metrics.IngestMetrics;
 import fr.uge.gitclout.repositories.api.data.HistoryData;
 import fr.uge.gitclout.repositories.api.data.RepositoryData;
 import fr.uge.gitclout.repositories.jpa.RepositoryRequest;
+import fr.uge.gitclout.repositories.jpa.RepositoryStorage;
+import fr.uge.gitclout.repositories.services.RepositoryRegistry;
+import fr.uge.gitclout.repositories.services.IngestContext;
+import fr.uge.gitclout.repositories.services.ProjectDataService;
 import fr.uge.gitclout.repositories.services.RepositoryService;
+import fr.uge.gitclout.snapshot.SnapshotStore;
 import fr.uge.gitclout.tags.api.SseController;
 import fr.uge.gitclout.tags.api.data.RefreshData;
 import fr.uge.gitclout.tags.api.data.TagData;
+import fr.uge.gitclout.tags.jpa.TagIndexStorage;
 import fr.uge.gitclout.tags.jpa.TagRequest;
+import fr.uge.gitclout.tags.services.ActivityService;
+import fr.uge.gitclout.tags.services.SummaryService;
+import fr.uge.gitclout.tags.services.QuickScanService;
+import fr.uge.gitclout.tags.services.TagIndexService;
 import fr.uge.gitclout.tags.services.TagService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.eclipse.jgit.api.Git;
 import org.eclipse.jgit.api.errors.GitAPIException;
 import org.junit.jupiter.api.*;
 import org.mockito.Mockito;
-import org.mockito.MockitoAnnotations;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.util.unit.DataSize;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
 import java.io.IOException;
 import java.lang.reflect.InvocationTargetException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.text.SimpleDateFormat;
+import java.time.Duration;
 import java.util.*;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -41,26 +67,84 @@ class GitcloutApplicationTests {
 
 	private static RepositoryService repositoryService;
 
-	private final String url = "https://github.com/bruno00o/test-gitclout.git";
+	private static Path fixture;
+
+	private static String url;
 
 	private static Mono<RepositoryData> repositoryTmp;
 
 	private static TagService tagService;
 
+	private static ProjectDataService projectData;
+
+	private static final byte[] TEST = "test".getBytes();
+
+	private static Language language(String name) {
+		return LanguageRegistry.defaults().byName(name).orElseThrow();
+	}
+
 	@BeforeAll
-	static void setUpAll() {
+	static void setUpAll() throws IOException, GitAPIException {
+		fixture = Files.createTempDirectory("gitclout-fixture");
+		url = createTestRepository(fixture.resolve("test-gitclout.git")).toUri().toString();
 		TagRequest tagRequest = Mockito.mock(TagRequest.class);
 		ContributorRequest contributorRequest = Mockito.mock(ContributorRequest.class);
 		SseController sseController = Mockito.mock(SseController.class);
 		RepositoryRequest repositoryRequest = Mockito.mock(RepositoryRequest.class);
-		repositoryService = new RepositoryService(repositoryRequest, tagRequest, sseController, contributorRequest);
-		repositoryTmp = repositoryService.addRepository("https://github.com/bruno00o/test-gitclout.git");
-		tagService = new TagService(tagRequest, contributorRequest, sseController);
+		List<RepositoryStorage> repositories = new ArrayList<>();
+		Mockito.when(repositoryRequest.save(Mockito.any())).thenAnswer(invocation -> {
+			repositories.add(invocation.getArgument(0));
+			return invocation.getArgument(0);
+		});
+		Mockito.when(repositoryRequest.findAll()).thenReturn(repositories);
+		SummaryService summaryService = Mockito.mock(SummaryService.class);
+		FileCostService fileCostService = Mockito.mock(FileCostService.class);
+		QuickScanService quickScanService = Mockito.mock(QuickScanService.class);
+		ActivityService activityService = Mockito.mock(ActivityService.class);
+		SamplingService samplingService = Mockito.mock(SamplingService.class);
+		NameDictionary nameDictionary = Mockito.mock(NameDictionary.class);
+		ContributorWriter contributorWriter = new ContributorWriter(contributorRequest, nameDictionary, 16, 4);
+		AnalysisService analysisService = Mockito.mock(AnalysisService.class);
+		ExclusionService exclusionService = new ExclusionService(Mockito.mock(ExclusionRequest.class), DataSize.ofMegabytes(1));
+		ResultCache resultCache = new ResultCache(100, new SimpleMeterRegistry());
+		RepositoryRegistry repositoryRegistry = new RepositoryRegistry(60_000, new SimpleMeterRegistry());
+		TagIndexService tagIndexService = Mockito.mock(TagIndexService.class);
+		IngestMetrics ingestMetrics = new IngestMetrics(new SimpleMeterRegistry());
+		FlightRecordings flightRecordings = new FlightRecordings(fixture.resolve("recordings").toString(), Duration.ofMinutes(1));
+		SnapshotStore snapshotStore = new SnapshotStore(false, "snapshots", tagIndexService, contributorRequest);
+		tagService = new TagService(tagRequest, contributorRequest, contributorWriter, analysisService, summaryService, quickScanService, activityService, fileCostService, samplingService, exclusionService, tagIndexService, snapshotStore, resultCache, repositoryRegistry, sseController, ingestMetrics, LanguageRegistry.defaults());
+		projectData = new ProjectDataService(tagRequest, contributorRequest, nameDictionary, analysisService, summaryService, fileCostService, samplingService, exclusionService, quickScanService, activityService, tagIndexService);
+		repositoryService = new RepositoryService(repositoryRequest, tagService, tagIndexService, projectData, snapshotStore, resultCache, repositoryRegistry, ingestMetrics, flightRecordings);
+		repositoryTmp = repositoryService.addRepository(url).cache();
 	}
 
 	@AfterAll
-	static void tearDown() {
+	static void tearDown() throws IOException {
 		repositoryService.deleteRepository(Objects.requireNonNull(repositoryTmp.block()).repositoryName());
+		SyntheticRepositoryGenerator.delete(fixture);
+	}
+
+	/**
+	 * Creates the repository analyzed by the tests: a python file of 7 lines of code and 21 lines of comments
+	 * written by Bruno and tagged v1.0.0.
+	 */
+	private static Path createTestRepository(Path destination) throws IOException, GitAPIException {
+		return SyntheticRepositoryGenerator.writeBare(destination, (git, workTree) -> {
+			List<String> lines = new ArrayList<>();
+			lines.add("\"\"\"");
+			lines.add("Test repository of GitClout.");
+			lines.add("\"\"\"");
+			for (int i = 0; i < 18; i++) {
+				lines.add("# comment " + i);
+			}
+			for (int i = 0; i < 7; i++) {
+				lines.add("value" + i + " = " + i);
+			}
+			Files.write(workTree.resolve("main.py"), lines);
+			git.add().addFilepattern("main.py").call();
+			git.commit().setMessage("Initial commit").setAuthor("Bruno", "bruno@example.com").setCommitter("Bruno", "bruno@example.com").call();
+			git.tag().setName("v1.0.0").call();
+		});
 	}
 
 	@Nested
@@ -98,11 +182,11 @@ class GitcloutApplicationTests {
 		@Test
 		@Order(4)
 		public void refreshRepositoryTest() {
-			var repositoryData = repositoryService.addRepository(url);
-			Mono<RefreshData> refreshData = repositoryService.refreshTags(Objects.requireNonNull(repositoryData.block()).repositoryName());
+			var repositoryData = Objects.requireNonNull(repositoryService.addRepository(url).block());
+			Mono<RefreshData> refreshData = repositoryService.refreshTags(repositoryData.repositoryName()).cache();
 			assertEquals(0, Objects.requireNonNull(refreshData.block()).error());
 			assertEquals("Tags refreshed", Objects.requireNonNull(refreshData.block()).message());
-			repositoryService.deleteRepository(Objects.requireNonNull(repositoryData.block()).repositoryName());
+			repositoryService.deleteRepository(repositoryData.repositoryName());
 		}
 
 		@Test
@@ -112,7 +196,7 @@ class GitcloutApplicationTests {
 					.findFirst()
 					.orElseThrow();
 			privateMethod.setAccessible(true);
-			assertFalse((boolean) privateMethod.invoke(repositoryService));
+			assertFalse((boolean) privateMethod.invoke(repositoryService, "https://example.com/unknown.git"));
 		}
 
 		@Test
@@ -133,29 +217,32 @@ class GitcloutApplicationTests {
 					.orElseThrow();
 			privateMethod.setAccessible(true);
 			SimpleDateFormat dateFormat = new SimpleDateFormat("yyyyMMdd-HHmmss");
-			assertEquals("test-gitclout.git_" + dateFormat.format(new Date()), privateMethod.invoke(repositoryService, "test-gitclout.git"));
+			String first = (String) privateMethod.invoke(repositoryService, "test-gitclout.git");
+			String second = (String) privateMethod.invoke(repositoryService, "test-gitclout.git");
+			assertTrue(first.startsWith("test-gitclout.git_" + dateFormat.format(new Date()) + "-"));
+			assertNotEquals(first, second);
 		}
 
 
 
 		@Test
 		public void removeAllTagsTest() {
-			var privateMethod = Arrays.stream(RepositoryService.class.getDeclaredMethods())
+			var privateMethod = Arrays.stream(ProjectDataService.class.getDeclaredMethods())
 					.filter(method -> method.getName().equals("removeAllTags"))
 					.findFirst()
 					.orElseThrow();
 			privateMethod.setAccessible(true);
-			assertDoesNotThrow(() -> privateMethod.invoke(repositoryService, projectName));
+			assertDoesNotThrow(() -> privateMethod.invoke(projectData, projectName));
 		}
 
 		@Test
 		public void removeContributorsTest() {
-			var privateMethod = Arrays.stream(RepositoryService.class.getDeclaredMethods())
+			var privateMethod = Arrays.stream(ProjectDataService.class.getDeclaredMethods())
 					.filter(method -> method.getName().equals("removeContributors"))
 					.findFirst()
 					.orElseThrow();
 			privateMethod.setAccessible(true);
-			assertDoesNotThrow(() -> privateMethod.invoke(repositoryService, projectName));
+			assertDoesNotThrow(() -> privateMethod.invoke(projectData, projectName));
 		}
 	}
 
@@ -174,19 +261,19 @@ class GitcloutApplicationTests {
 
 		@Test
 		public void collectContributorsStorageTest() throws IOException, GitAPIException, InterruptedException {
-			List<ContributorStorage> realContributor = new ArrayList<>();
-			realContributor.add(new ContributorStorage("Bruno", "python", "v1.0.0", 7, Objects.requireNonNull(repositoryTmp.block()).repositoryName()));
+			List<ContributorRow> realContributor = new ArrayList<>();
+			realContributor.add(new ContributorRow("Bruno", "python", "v1.0.0", 7, Objects.requireNonNull(repositoryTmp.block()).repositoryName()));
 			Git git = Git.open(Objects.requireNonNull(TagService.getRepositoryPath(Objects.requireNonNull(repositoryTmp.block()).repositoryName())).toFile());
 			var tag = git.tagList().call().get(0);
 			var filesExtractor = new FileExtractor(TagService.getTagName(tag), git);
 			var contributors = filesExtractor.analyzeAllContributors();
-			List<ContributorStorage> contributorStorages = TagService.collectContributorStorages(contributors, TagService.getTagName(tag), Objects.requireNonNull(repositoryTmp.block()).repositoryName());
+			List<ContributorRow> contributorStorages = TagService.collectContributorRows(contributors, TagService.getTagName(tag), Objects.requireNonNull(repositoryTmp.block()).repositoryName());
 			assertEquals(realContributor.get(0).contributorName(), contributorStorages.get(0).contributorName());
 		}
 
 		@Test
 		public void insertTagsInDatabaseTest() {
-			assertThrows(RuntimeException.class, () -> tagService.insertTagsInDatabase("no"));
+			assertThrows(RuntimeException.class, () -> tagService.insertTagsInDatabase(new IngestContext("no", "no")));
 		}
 
 		@Test
@@ -196,19 +283,9 @@ class GitcloutApplicationTests {
 		}
 
 		@Test
-		public void closeGitTest() {
-			var privateMethod = Arrays.stream(TagService.class.getDeclaredMethods())
-					.filter(method -> method.getName().equals("closeGit"))
-					.findFirst()
-					.orElseThrow();
-			privateMethod.setAccessible(true);
-			assertDoesNotThrow(() -> privateMethod.invoke(tagService));
-		}
-
-		@Test
-		public void setTagAnalyzedTest() {
+		public void countAnalyzedTagsTest() {
 			var privateMethod = Arrays.stream(TagService.class.getDeclaredMethods())
-					.filter(method -> method.getName().equals("setTagAnalyzed"))
+					.filter(method -> method.getName().equals("countAnalyzedTags"))
 					.findFirst()
 					.orElseThrow();
 			privateMethod.setAccessible(true);
@@ -277,31 +354,6 @@ class GitcloutApplicationTests {
 			assertThrows(NullPointerException.class, () -> privateMethod.invoke(new FileExtractor("no", null), "no"));
 		}
 
-		@Test
-		public void getTypeTest() throws IOException, InvocationTargetException, IllegalAccessException {
-			var privateMethod = Arrays.stream(FileExtractor.class.getDeclaredMethods())
-					.filter(method -> method.getName().equals("getType"))
-					.findFirst()
-					.orElseThrow();
-			privateMethod.setAccessible(true);
-			assertEquals("py", privateMethod.invoke(fileExtractor, "test.py"));
-			assertEquals("java", privateMethod.invoke(fileExtractor, "test.java"));
-			assertEquals("c", privateMethod.invoke(fileExtractor, "test.c"));
-		}
-
-		@Test
-		public void isLanguageCompatibleTest() throws IOException, InvocationTargetException, IllegalAccessException {
-			var privateMethod = Arrays.stream(FileExtractor.class.getDeclaredMethods())
-					.filter(method -> method.getName().equals("isLanguageCompatible"))
-					.findFirst()
-					.orElseThrow();
-			privateMethod.setAccessible(true);
-			assertEquals("py", privateMethod.invoke(fileExtractor, "test.py", "py"));
-			assertEquals("java", privateMethod.invoke(fileExtractor, "test.java", "java"));
-			assertEquals("c", privateMethod.invoke(fileExtractor, "test.c", "c"));
-			assertEquals("invalid", privateMethod.invoke(fileExtractor, "test", "eur"));
-		}
-
 		@Test
 		public void processLineTest() throws IOException, InvocationTargetException, IllegalAccessException {
 			var privateMethod = Arrays.stream(FileExtractor.class.getDeclaredMethods())
@@ -309,7 +361,7 @@ class GitcloutApplicationTests {
 					.findFirst()
 					.orElseThrow();
 			privateMethod.setAccessible(true);
-			assertFalse((boolean) privateMethod.invoke(fileExtractor, "test", "test", Language.PY, false));
+			assertFalse((boolean) privateMethod.invoke(fileExtractor, TEST, 0, TEST.length, "test", LineClassifier.of(language("py")), false));
 		}
 
 		@Test
@@ -329,7 +381,7 @@ class GitcloutApplicationTests {
 					.findFirst()
 					.orElseThrow();
 			privateMethod.setAccessible(true);
-			assertTrue((boolean) privateMethod.invoke(fileExtractor, "test", "test", Language.PY, true));
+			assertTrue((boolean) privateMethod.invoke(fileExtractor, TEST, 0, TEST.length, "test", LineClassifier.of(language("py")), true));
 		}
 
 		@Test
@@ -339,11 +391,11 @@ class GitcloutApplicationTests {
 					.findFirst()
 					.orElseThrow();
 			privateMethod.setAccessible(true);
-			assertEquals("python", privateMethod.invoke(fileExtractor, "test", Language.PY, false));
-			assertEquals("comments", privateMethod.invoke(fileExtractor, "test", Language.PY, true));
-			assertEquals("java", privateMethod.invoke(fileExtractor, "test", Language.JAVA, false));
-			assertEquals("comments", privateMethod.invoke(fileExtractor, "test", Language.JAVA, true));
-			assertEquals("c", privateMethod.invoke(fileExtractor, "test", Language.C, false));
+			assertEquals("python", privateMethod.invoke(fileExtractor, TEST, 0, TEST.length, LineClassifier.of(language("py")), false));
+			assertEquals("comments", privateMethod.invoke(fileExtractor, TEST, 0, TEST.length, LineClassifier.of(language("py")), true));
+			assertEquals("java", privateMethod.invoke(fileExtractor, TEST, 0, TEST.length, LineClassifier.of(language("java")), false));
+			assertEquals("comments", privateMethod.invoke(fileExtractor, TEST, 0, TEST.length, LineClassifier.of(language("java")), true));
+			assertEquals("c", privateMethod.invoke(fileExtractor, TEST, 0, TEST.length, LineClassifier.of(language("c")), false));
 		}
 
 		@Test
@@ -357,19 +409,6 @@ class GitcloutApplicationTests {
 			assertDoesNotThrow(() -> privateMethod.invoke(fileExtractor, contributor, "test"));
 		}
 
-		@Test
-		public void getCommentRegexTest() throws InvocationTargetException, IllegalAccessException {
-			var privateMethod = Arrays.stream(FileExtractor.class.getDeclaredMethods())
-					.filter(method -> method.getName().equals("getCommentRegex"))
-					.findFirst()
-					.orElseThrow();
-			privateMethod.setAccessible(true);
-			assertEquals(Language.PY, privateMethod.invoke(fileExtractor, "py"));
-			assertEquals(Language.JAVA, privateMethod.invoke(fileExtractor, "java"));
-			assertEquals(Language.C, privateMethod.invoke(fileExtractor, "c"));
-			assertNull(privateMethod.invoke(fileExtractor, "eur"));
-		}
-
 		@Test
 		public void createBlameCommandTest() {
 			var privateMethod = Arrays.stream(FileExtractor.class.getDeclaredMethods())
@@ -380,31 +419,6 @@ class GitcloutApplicationTests {
 			assertDoesNotThrow(() -> privateMethod.invoke(fileExtractor));
 		}
 
-		@Test
-		public void isSupportedFileTest() throws InvocationTargetException, IllegalAccessException {
-			var privateMethod = Arrays.stream(FileExtractor.class.getDeclaredMethods())
-					.filter(method -> method.getName().equals("isSupportedFile"))
-					.findFirst()
-					.orElseThrow();
-			privateMethod.setAccessible(true);
-			Set<String> supportedExtensions = new HashSet<>();
-			supportedExtensions.add("py");
-			assertTrue((boolean) privateMethod.invoke(fileExtractor, "test.py", supportedExtensions));
-			assertFalse((boolean) privateMethod.invoke(fileExtractor, "test.eur", supportedExtensions));
-		}
-
-		@Test
-		public void getSupportedExtensionsTest() throws InvocationTargetException, IllegalAccessException {
-			var privateMethod = Arrays.stream(FileExtractor.class.getDeclaredMethods())
-					.filter(method -> method.getName().equals("getSupportedExtensions"))
-					.findFirst()
-					.orElseThrow();
-			privateMethod.setAccessible(true);
-			Set<String> supportedExtensions = new HashSet<>();
-			supportedExtensions.add("py");
-			assertTrue(privateMethod.invoke(fileExtractor).toString().contains("py"), "true");
-		}
-
 
 	}
 
@@ -413,82 +427,71 @@ class GitcloutApplicationTests {
 
 		@Test
 		public void isImageTest() {
-			assertTrue(Language.JPG.isImage());
-			assertTrue(Language.PNG.isImage());
-			assertTrue(Language.GIF.isImage());
-			assertTrue(Language.SVG.isImage());
-			assertFalse(Language.JAVA.isImage());
+			assertTrue(language("jpg").image());
+			assertTrue(language("png").image());
+			assertTrue(language("gif").image());
+			assertTrue(language("svg").image());
+			assertFalse(language("java").image());
 		}
 
 		@Test
-		public void getNameTest() {
-			assertEquals("java", Language.JAVA.getName());
-			assertEquals("py", Language.PY.getName());
-			assertEquals("c", Language.C.getName());
-			assertEquals("js", Language.JS.getName());
-			assertEquals("rb", Language.RUBY.getName());
-			assertEquals("php", Language.PHP.getName());
-			assertEquals("css", Language.CSS.getName());
+		public void getDisplayNameTest() {
+			assertEquals("java", language("java").displayName());
+			assertEquals("python", language("py").displayName());
+			assertEquals("c", language("c").displayName());
+			assertEquals("javascript", language("js").displayName());
+			assertEquals("ruby", language("rb").displayName());
+			assertEquals("php", language("php").displayName());
+			assertEquals("css", language("css").displayName());
 		}
 
 		@Test
-		public void getRegexTest() {
-			assertEquals(Regex.TYPE_ONE_COMMENT, Language.JAVA.getRegex());
-			assertEquals(Regex.TYPE_TWO_COMMENT, Language.PY.getRegex());
-			assertEquals(Regex.TYPE_ONE_COMMENT, Language.C.getRegex());
-			assertEquals(Regex.TYPE_ONE_COMMENT, Language.JS.getRegex());
-			assertEquals(Regex.TYPE_THREE_COMMENT, Language.RUBY.getRegex());
-			assertEquals(Regex.TYPE_ONE_COMMENT, Language.PHP.getRegex());
-		}
-	}
-
-	@Nested
-	class RegexOperations {
-
-		@Test
-		public void getRegexTest() {
-			assertEquals("//.*", Regex.TYPE_ONE_COMMENT.getRegex());
-			assertEquals("#.*", Regex.TYPE_TWO_COMMENT.getRegex());
-			assertEquals("#.*", Regex.TYPE_THREE_COMMENT.getRegex());
+		public void getCommentsTest() {
+			var cStyle = new CommentSyntax("//", "/*", "*/");
+			assertEquals(cStyle, language("java").comments());
+			assertEquals(new CommentSyntax("#", "\"\"\"", "\"\"\""), language("py").comments());
+			assertEquals(cStyle, language("c").comments());
+			assertEquals(cStyle, language("js").comments());
+			assertEquals(new CommentSyntax("#", "=", "="), language("rb").comments());
+			assertEquals(cStyle, language("php").comments());
+			assertNull(language("md").comments());
 		}
 	}
 
 	@Nested
 	class RefreshOperations {
 
-		private static Refresh refresh;
+		private static final String PROJECT = "refresh.git_20240101-000000-1";
 
-		@BeforeAll
-		static void setUp() {
-			TagRequest tagRequest = Mockito.mock(TagRequest.class);
-			ContributorRequest contributorRequest = Mockito.mock(ContributorRequest.class);
-			refresh = new Refresh("test-gitclout.git", tagRequest, contributorRequest);
-			MockitoAnnotations.openMocks(refresh);
-		}
+		private final TagService tagService = Mockito.mock(TagService.class);
+		private final TagIndexService tagIndexService = Mockito.mock(TagIndexService.class);
+		private final RepositoryRegistry repositoryRegistry = new RepositoryRegistry(60_000, new SimpleMeterRegistry());
 
-		@Test
-		public void isTagExist() throws InvocationTargetException, IllegalAccessException {
-			var privateMethod = Arrays.stream(Refresh.class.getDeclaredMethods())
-					.filter(method -> method.getName().equals("isTagExist"))
-					.findFirst()
-					.orElseThrow();
-			privateMethod.setAccessible(true);
-			assertFalse((boolean) privateMethod.invoke(refresh, "no"));
+		@AfterEach
+		void tearDown() throws IOException {
+			repositoryRegistry.evict(PROJECT);
+			SyntheticRepositoryGenerator.delete(TagService.getRepositoryPath(PROJECT));
 		}
 
 		@Test
 		public void refreshTagsTest() {
-			assertThrows(RuntimeException.class, () -> refresh.refreshTags());
+			var refresh = new Refresh(new IngestContext(url, "test-gitclout.git"), tagService, tagIndexService, repositoryRegistry);
+			assertThrows(RuntimeException.class, refresh::refreshTags);
 		}
 
 		@Test
-		public void insertATagInDatabaseByRefreshingTest() {
-			var privateMethod = Arrays.stream(Refresh.class.getDeclaredMethods())
-					.filter(method -> method.getName().equals("insertATagInDatabaseByRefreshing"))
-					.findFirst()
-					.orElseThrow();
-			privateMethod.setAccessible(true);
-			assertThrows(RuntimeException.class, () -> privateMethod.invoke(refresh, "no", "no"));
+		public void refreshAnalyzesEveryIndexedTagTest() throws IOException, GitAPIException {
+			new SyntheticRepositoryGenerator().commits(2).tags(2).generate(TagService.getRepositoryPath(PROJECT));
+			var tags = List.of(
+					new TagIndexStorage("v1.0.0", "refs/tags/v1.0.0", PROJECT, "a", "a", 0, 0),
+					new TagIndexStorage("v1.1.0", "refs/tags/v1.1.0", PROJECT, "b", "b", 1, 1));
+			Mockito.when(tagIndexService.indexTags(Mockito.any(), Mockito.eq(PROJECT))).thenReturn(tags);
+			var context = new IngestContext(url, PROJECT);
+			new Refresh(context, tagService, tagIndexService, repositoryRegistry).refreshTags();
+			for (TagIndexStorage tag : tags) {
+				Mockito.verify(tagService).analyzeTag(Mockito.any(), Mockito.eq(tag), Mockito.eq(context));
+			}
+			assertEquals(2, context.numberOfTags());
 		}
 
 	}
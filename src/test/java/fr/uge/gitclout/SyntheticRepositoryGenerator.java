@@ -0,0 +1,292 @@
+package fr.uge.gitclout;
+
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.api.errors.GitAPIException;
+import org.eclipse.jgit.lib.PersonIdent;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Random;
+
+/**
+ * Generates local bare repositories to run ingests offline.
+ * <p>
+ * The history has a configurable number of commits, tags, authors and files, with file sizes drawn between
+ * a minimum and a maximum and file extensions drawn from a weighted language mix. Authors commit in turn:
+ * each commit creates its share of the files and rewrites part of some existing ones, so the blame of a file
+ * is spread over several authors. The output only depends on the settings and the seed.
+ */
+public final class SyntheticRepositoryGenerator {
+
+    /**
+     * Writes the history of a repository in a working tree.
+     */
+    @FunctionalInterface
+    public interface History {
+        void write(Git git, Path workTree) throws IOException, GitAPIException;
+    }
+
+    /**
+     * Java file of the small repositories written by {@link #tagged}: 2 lines of code and a comment.
+     */
+    public static final String MAIN_JAVA = "class Main {\n    // entry point\n}\n";
+
+    private static final Instant START = Instant.parse("2020-01-01T00:00:00Z");
+
+    private int commits = 20;
+    private int tags = 2;
+    private int authors = 3;
+    private int files = 20;
+    private int minLines = 50;
+    private int maxLines = 200;
+    private final Map<String, Integer> languages = new LinkedHashMap<>();
+    private long seed = 42;
+
+    public SyntheticRepositoryGenerator commits(int commits) {
+        this.commits = positive(commits);
+        return this;
+    }
+
+    public SyntheticRepositoryGenerator tags(int tags) {
+        this.tags = positive(tags);
+        return this;
+    }
+
+    public SyntheticRepositoryGenerator authors(int authors) {
+        this.authors = positive(authors);
+        return this;
+    }
+
+    public SyntheticRepositoryGenerator files(int files) {
+        this.files = positive(files);
+        return this;
+    }
+
+    public SyntheticRepositoryGenerator fileSize(int minLines, int maxLines) {
+        if (minLines < 1 || maxLines < minLines) {
+            throw new IllegalArgumentException("Error: Invalid file size " + minLines + ".." + maxLines);
+        }
+        this.minLines = minLines;
+        this.maxLines = maxLines;
+        return this;
+    }
+
+    /**
+     * Adds a language to the mix.
+     *
+     * @param extension File extension, e.g. {@code java} or {@code py}
+     * @param weight    Relative share of the files using this extension
+     * @return This generator
+     */
+    public SyntheticRepositoryGenerator language(String extension, int weight) {
+        languages.put(Objects.requireNonNull(extension), positive(weight));
+        return this;
+    }
+
+    public SyntheticRepositoryGenerator seed(long seed) {
+        this.seed = seed;
+        return this;
+    }
+
+    private static int positive(int value) {
+        if (value < 1) {
+            throw new IllegalArgumentException("Error: Value must be positive: " + value);
+        }
+        return value;
+    }
+
+    /**
+     * Generates the repository.
+     *
+     * @param destination Directory of the bare repository, e.g. {@code /tmp/project.git}
+     * @return Destination
+     */
+    public Path generate(Path destination) throws IOException, GitAPIException {
+        return writeBare(destination, this::writeHistory);
+    }
+
+    /**
+     * Returns the name of the tag of a given rank.
+     *
+     * @param rank Rank of the tag, from 0
+     * @return Tag name
+     */
+    public static String tagName(int rank) {
+        return "v1." + rank + ".0";
+    }
+
+    /**
+     * Writes a history in a temporary working tree and clones it into a bare repository.
+     *
+     * @param destination Directory of the bare repository
+     * @param history     History to write
+     * @return Destination
+     */
+    public static Path writeBare(Path destination, History history) throws IOException, GitAPIException {
+        Path workTree = Files.createTempDirectory("gitclout-generator");
+        try {
+            try (Git git = Git.init().setDirectory(workTree.toFile()).setInitialBranch("main").call()) {
+                history.write(git, workTree);
+            }
+            Git.cloneRepository().setURI(workTree.toUri().toString()).setDirectory(destination.toFile()).setBare(true).call().close();
+        } finally {
+            delete(workTree);
+        }
+        return destination;
+    }
+
+    /**
+     * Writes files in a working tree, commits everything it holds as Bruno and tags the commit {@code v1.0.0}.
+     *
+     * @param directory Working tree, created if needed
+     * @param files     Content of each file, by path relative to the working tree
+     * @return Repository, to be closed by the caller
+     */
+    public static Git tagged(Path directory, Map<String, String> files) throws IOException, GitAPIException {
+        Git git = Git.init().setDirectory(directory.toFile()).call();
+        try {
+            for (var file : files.entrySet()) {
+                Path path = directory.resolve(file.getKey());
+                Files.createDirectories(path.getParent());
+                Files.writeString(path, file.getValue());
+            }
+            git.add().addFilepattern(".").call();
+            git.commit().setMessage("initial").setAuthor("Bruno", "bruno@example.com").call();
+            git.tag().setName("v1.0.0").call();
+            return git;
+        } catch (IOException | GitAPIException e) {
+            git.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Deletes a directory and its content.
+     *
+     * @param directory Directory
+     */
+    public static void delete(Path directory) throws IOException {
+        if (!Files.exists(directory)) return;
+        try (var paths = Files.walk(directory)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    private void writeHistory(Git git, Path workTree) throws IOException, GitAPIException {
+        Random random = new Random(seed);
+        List<String> mix = new ArrayList<>();
+        (languages.isEmpty() ? Map.of("java", 1) : languages).forEach((extension, weight) -> {
+            for (int i = 0; i < weight; i++) mix.add(extension);
+        });
+        String[] paths = new String[files];
+        int[] sizes = new int[files];
+        List<List<String>> contents = new ArrayList<>();
+        for (int file = 0; file < files; file++) {
+            paths[file] = "src/module" + file % 8 + "/File" + file + "." + mix.get(random.nextInt(mix.size()));
+            sizes[file] = minLines + random.nextInt(maxLines - minLines + 1);
+            contents.add(new ArrayList<>());
+        }
+        double rewriteProbability = Math.min(1.0, 4.0 / commits);
+        int tagged = 0;
+        for (int commit = 0; commit < commits; commit++) {
+            for (int file = 0; file < files; file++) {
+                int createdAt = (int) ((long) file * commits / files);
+                if (commit == createdAt) {
+                    contents.get(file).addAll(lines(extension(paths[file]), sizes[file], random));
+                } else if (commit > createdAt && random.nextDouble() < rewriteProbability) {
+                    rewrite(contents.get(file), extension(paths[file]), random);
+                } else {
+                    continue;
+                }
+                Path path = workTree.resolve(paths[file]);
+                Files.createDirectories(path.getParent());
+                Files.write(path, contents.get(file));
+            }
+            int author = commit % authors;
+            var ident = new PersonIdent(new PersonIdent("Author" + author, "author" + author + "@example.com"),
+                    START.plus(commit, ChronoUnit.HOURS).toEpochMilli(), 0);
+            git.add().addFilepattern(".").call();
+            git.commit().setMessage("Commit " + commit).setAuthor(ident).setCommitter(ident).setAllowEmpty(true).call();
+            if (tagged < tags && commit == (int) ((long) (tagged + 1) * commits / tags) - 1) {
+                git.tag().setName(tagName(tagged++)).call();
+            }
+        }
+    }
+
+    private static String extension(String path) {
+        return path.substring(path.lastIndexOf('.') + 1);
+    }
+
+    private static void rewrite(List<String> content, String extension, Random random) {
+        int length = Math.max(1, content.size() / 4);
+        int start = random.nextInt(Math.max(1, content.size() - length + 1));
+        List<String> replacement = lines(extension, length, random);
+        for (int i = 0; i < length && start + i < content.size(); i++) {
+            content.set(start + i, replacement.get(i));
+        }
+    }
+
+    /**
+     * Generates lines of a file, mixing code, single-line comments and block comments in the syntax of its language.
+     *
+     * @param extension File extension
+     * @param count     Number of lines
+     * @param random    Source of randomness
+     * @return Lines
+     */
+    public static List<String> lines(String extension, int count, Random random) {
+        String comment;
+        String blockStart;
+        String blockEnd;
+        switch (extension) {
+            case "py" -> {
+                comment = "#";
+                blockStart = "\"\"\"";
+                blockEnd = "\"\"\"";
+            }
+            case "rb" -> {
+                comment = "#";
+                blockStart = "=begin";
+                blockEnd = "=end";
+            }
+            case "java", "c", "cpp", "js", "ts", "php", "css" -> {
+                comment = "//";
+                blockStart = "/*";
+                blockEnd = "*/";
+            }
+            default -> {
+                comment = null;
+                blockStart = null;
+                blockEnd = null;
+            }
+        }
+        List<String> lines = new ArrayList<>(count);
+        while (lines.size() < count) {
+            int value = random.nextInt(10_000);
+            int kind = random.nextInt(20);
+            if (comment != null && kind == 0 && lines.size() + 3 <= count) {
+                lines.add(blockStart + " block " + value);
+                lines.add("   documentation " + value);
+                lines.add(blockEnd);
+            } else if (comment != null && kind < 3) {
+                lines.add(comment + " comment " + value);
+            } else if (comment == null) {
+                lines.add("Text line " + value);
+            } else {
+                lines.add("    value" + lines.size() + " = " + value + ";");
+            }
+        }
+        return lines;
+    }
+}
@@ -0,0 +1,75 @@
+package fr.uge.gitclout.analyze;
+
+import fr.uge.gitclout.analyze.language.LanguageRegistry;
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.api.errors.GitAPIException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CommitActivityTests {
+
+	@TempDir
+	Path directory;
+
+	private void commit(Git git, String author, String message) throws GitAPIException {
+		git.add().addFilepattern(".").call();
+		git.commit().setMessage(message).setAuthor(author, author.toLowerCase() + "@example.com").setAll(true).call();
+	}
+
+	@Test
+	public void activityTest() throws IOException, GitAPIException, InterruptedException {
+		var executor = Executors.newFixedThreadPool(2);
+		List<CommitActivity.Activity> first;
+		List<CommitActivity.Activity> second;
+		try (Git git = Git.init().setDirectory(directory.toFile()).call()) {
+			Files.writeString(directory.resolve("Main.java"), "class Main {\n    int a;\n}\n");
+			Files.writeString(directory.resolve("notes.py"), "a = 1\nb = 2\n");
+			commit(git, "Alice", "initial");
+			git.tag().setName("v1.0.0").call();
+			Files.writeString(directory.resolve("Main.java"), "class Main {\n    int b;\n    int c;\n    int d;\n}\n");
+			commit(git, "Bob", "fields");
+			Files.delete(directory.resolve("notes.py"));
+			Files.createDirectories(directory.resolve("vendor"));
+			Files.writeString(directory.resolve("vendor/lib.js"), "var x = 1;\n");
+			commit(git, "Alice", "cleanup");
+			git.tag().setName("v2.0.0").call();
+			first = new CommitActivity("refs/tags/v1.0.0", null, git.getRepository(), LanguageRegistry.defaults(), PathExclusions.defaults(), executor).analyze();
+			second = new CommitActivity("refs/tags/v2.0.0", "refs/tags/v1.0.0", git.getRepository(), LanguageRegistry.defaults(), PathExclusions.defaults(), executor).analyze();
+		} finally {
+			executor.shutdownNow();
+		}
+		assertEquals(Set.of(new CommitActivity.Activity("Alice", "java", 1, 3, 0), new CommitActivity.Activity("Alice", "python", 1, 2, 0)), Set.copyOf(first));
+		assertEquals(Set.of(new CommitActivity.Activity("Bob", "java", 1, 3, 1), new CommitActivity.Activity("Alice", "python", 1, 0, 2)), Set.copyOf(second));
+	}
+
+	@Test
+	public void maxFileSizeTest() throws IOException, GitAPIException, InterruptedException {
+		var executor = Executors.newFixedThreadPool(2);
+		var exclusions = new PathExclusions(List.of(), 20);
+		List<CommitActivity.Activity> first;
+		List<CommitActivity.Activity> second;
+		try (Git git = Git.init().setDirectory(directory.toFile()).call()) {
+			Files.writeString(directory.resolve("Main.java"), "class Main {\n    int a;\n}\n");
+			commit(git, "Alice", "initial");
+			git.tag().setName("v1.0.0").call();
+			Files.writeString(directory.resolve("Small.java"), "class S {}\n");
+			commit(git, "Bob", "added");
+			git.tag().setName("v2.0.0").call();
+			first = new CommitActivity("refs/tags/v1.0.0", null, git.getRepository(), LanguageRegistry.defaults(), exclusions, executor).analyze();
+			second = new CommitActivity("refs/tags/v2.0.0", "refs/tags/v1.0.0", git.getRepository(), LanguageRegistry.defaults(), exclusions, executor).analyze();
+		} finally {
+			executor.shutdownNow();
+		}
+		assertEquals(List.of(), first);
+		assertEquals(List.of(new CommitActivity.Activity("Bob", "java", 1, 1, 0)), second);
+	}
+}
@@ -0,0 +1,60 @@
+package fr.uge.gitclout.analyze;
+
+import fr.uge.gitclout.SyntheticRepositoryGenerator;
+import fr.uge.gitclout.analyze.jpa.FileCostRequest;
+import fr.uge.gitclout.analyze.jpa.FileCostStorage;
+import fr.uge.gitclout.analyze.service.FileCostService;
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.api.errors.GitAPIException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FileCostTests {
+
+	@TempDir
+	Path directory;
+
+	@Test
+	public void fileExtractorCostsTest() throws IOException, GitAPIException, InterruptedException {
+		List<FileCost> costs;
+		try (Git git = SyntheticRepositoryGenerator.tagged(directory, Map.of("Main.java", SyntheticRepositoryGenerator.MAIN_JAVA, "main.py", "print('hello')\n"))) {
+			var extractor = new FileExtractor("refs/tags/v1.0.0", git);
+			extractor.analyzeAllContributors();
+			costs = extractor.fileCosts();
+		}
+		var byPath = new HashMap<String, FileCost>();
+		costs.forEach(cost -> byPath.put(cost.path(), cost));
+		assertEquals(Set.of("Main.java", "main.py"), byPath.keySet());
+		assertEquals(3, byPath.get("Main.java").lines());
+		assertEquals(34, byPath.get("Main.java").size());
+		assertEquals(1, byPath.get("main.py").lines());
+		assertTrue(byPath.get("main.py").blameNanos() > 0);
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void retainsSlowestFilesTest() {
+		FileCostRequest fileCostRequest = Mockito.mock(FileCostRequest.class);
+		var service = new FileCostService(fileCostRequest, 2);
+		service.saveFileCosts(List.of(new FileCost("a.java", 10, 100, 5), new FileCost("b.lock", 300, 9000, 400), new FileCost("c.js", 20, 50, 2)), "refs/tags/v1.0.0", "project");
+		var captor = ArgumentCaptor.forClass(Iterable.class);
+		Mockito.verify(fileCostRequest).saveAll(captor.capture());
+		List<FileCostStorage> saved = new ArrayList<>();
+		((Iterable<FileCostStorage>) captor.getValue()).forEach(saved::add);
+		assertEquals(List.of("b.lock", "c.js"), saved.stream().map(FileCostStorage::path).toList());
+		assertEquals("v1.0.0", saved.get(0).tagId());
+		assertEquals(400, saved.get(0).numberOfLines());
+	}
+}
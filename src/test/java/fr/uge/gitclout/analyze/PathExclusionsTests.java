@@ -0,0 +1,58 @@
+package fr.uge.gitclout.analyze;
+
+import fr.uge.gitclout.SyntheticRepositoryGenerator;
+import fr.uge.gitclout.analyze.language.LanguageRegistry;
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.api.errors.GitAPIException;
+import org.eclipse.jgit.revwalk.RevWalk;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PathExclusionsTests {
+
+	@TempDir
+	Path directory;
+
+	private List<String> list(PathExclusions exclusions) throws IOException, GitAPIException {
+		try (Git git = Git.open(directory.toFile()); RevWalk walk = new RevWalk(git.getRepository())) {
+			var tree = walk.parseCommit(git.getRepository().resolve("refs/tags/v1.0.0")).getTree();
+			return SourceFiles.list(git.getRepository(), tree, LanguageRegistry.defaults(), exclusions).stream()
+					.map(SourceFiles.SourceFile::path).toList();
+		}
+	}
+
+	@BeforeEach
+	void setUp() throws IOException, GitAPIException {
+		SyntheticRepositoryGenerator.tagged(directory, Map.of(
+				".gitattributes", "third/** linguist-vendored\nGen.java linguist-generated\n",
+				"Main.java", SyntheticRepositoryGenerator.MAIN_JAVA,
+				"Gen.java", "class Gen {}\n",
+				"src/app.js", "run();\n",
+				"src/app.min.js", "run();\n",
+				"node_modules/dep/index.js", "module.exports = {};\n",
+				"third/lib.js", "lib();\n")).close();
+	}
+
+	@Test
+	public void defaultExclusionsTest() throws IOException, GitAPIException {
+		assertEquals(List.of("Main.java", "src/app.js"), list(PathExclusions.defaults()));
+	}
+
+	@Test
+	public void attributesOnlyTest() throws IOException, GitAPIException {
+		assertEquals(List.of("Main.java", "node_modules/dep/index.js", "src/app.js", "src/app.min.js"), list(PathExclusions.none()));
+	}
+
+	@Test
+	public void rulesAndSizeTest() throws IOException, GitAPIException {
+		assertEquals(List.of("src/app.js"), list(new PathExclusions(List.of("*.js", "# comment", "!src/app.js"), 20)));
+	}
+}
@@ -0,0 +1,49 @@
+package fr.uge.gitclout.analyze;
+
+import fr.uge.gitclout.SyntheticRepositoryGenerator;
+import fr.uge.gitclout.analyze.language.LanguageRegistry;
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.api.errors.GitAPIException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QuickScanTests {
+
+	@TempDir
+	Path directory;
+
+	@Test
+	public void scanTest() throws IOException, GitAPIException, InterruptedException {
+		var executor = Executors.newFixedThreadPool(2);
+		Map<String, QuickScan.LanguageCount> counts;
+		Files.write(directory.resolve("logo.png"), new byte[]{(byte) 0x89, 'P', 'N', 'G', 0, 1, 2});
+		try (Git git = SyntheticRepositoryGenerator.tagged(directory, Map.of(
+				"Main.java", "/* header\n * text\n */\n" + SyntheticRepositoryGenerator.MAIN_JAVA,
+				"Other.java", "class Other {}\n",
+				"run", "#!/usr/bin/env python3\nprint('hello')\n",
+				"notes.eur", "ignored\n"))) {
+			counts = new QuickScan("refs/tags/v1.0.0", git.getRepository(), LanguageRegistry.defaults(), executor).scan();
+		} finally {
+			executor.shutdownNow();
+		}
+		assertEquals(Set.of("java", "python", "png"), counts.keySet());
+		var java = counts.get("java");
+		assertEquals(2, java.files());
+		assertEquals(3, java.codeLines());
+		assertEquals(4, java.commentLines());
+		assertEquals(71, java.bytes());
+		assertEquals(1, counts.get("python").codeLines());
+		assertEquals(1, counts.get("python").commentLines());
+		assertEquals(1, counts.get("png").codeLines());
+		assertEquals(7, counts.get("png").bytes());
+	}
+}
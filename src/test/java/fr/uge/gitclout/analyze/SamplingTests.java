@@ -0,0 +1,85 @@
+package fr.uge.gitclout.analyze;
+
+import fr.uge.gitclout.SyntheticRepositoryGenerator;
+import fr.uge.gitclout.analyze.language.LanguageRegistry;
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.api.errors.GitAPIException;
+import org.eclipse.jgit.lib.ObjectId;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SamplingTests {
+
+	@TempDir
+	Path directory;
+
+	private static SourceFiles.SourceFile file(String path, String language) {
+		return new SourceFiles.SourceFile(path, ObjectId.zeroId(), LanguageRegistry.defaults().byName(language).orElseThrow());
+	}
+
+	@Test
+	public void drawTest() {
+		List<SourceFiles.SourceFile> files = new ArrayList<>();
+		for (int i = 0; i < 10; i++) files.add(file("src/F" + i + ".java", "java"));
+		files.add(file("test/A.java", "java"));
+		files.add(file("test/B.java", "java"));
+		files.add(file("setup.py", "py"));
+		var sample = StratifiedSample.draw(files, 4, 42);
+		assertEquals(13, sample.population());
+		assertEquals(6, sample.size());
+		assertEquals(3, sample.files().stream().filter(path -> path.startsWith("src/")).count());
+		assertTrue(sample.files().containsAll(List.of("test/A.java", "test/B.java", "setup.py")));
+		assertEquals(sample.files(), StratifiedSample.draw(files, 4, 42).files());
+		assertEquals(13, StratifiedSample.draw(files, 100, 42).size());
+		assertThrows(IllegalArgumentException.class, () -> StratifiedSample.draw(files, 0, 42));
+	}
+
+	@Test
+	public void extrapolateTest() {
+		var files = List.of(file("A.java", "java"), file("B.java", "java"), file("C.java", "java"), file("D.java", "java"));
+		var lines = Map.of("A.java", 10, "B.java", 20, "C.java", 30, "D.java", 40);
+		var sample = StratifiedSample.draw(files, 2, 7);
+		Map<String, Map<String, Contributor>> contributions = new HashMap<>();
+		for (String path : sample.files()) {
+			var contributor = new Contributor("Bruno");
+			contributor.getContributions().put("java", lines.get(path));
+			contributions.put(path, Map.of("Bruno", contributor));
+		}
+		int blamed = sample.files().stream().mapToInt(lines::get).sum();
+		var extrapolation = sample.extrapolate(contributions);
+		assertEquals(2, extrapolation.sampledFiles());
+		assertEquals(4, extrapolation.totalFiles());
+		var estimate = extrapolation.estimates().get(0);
+		assertEquals(2 * blamed, estimate.lines());
+		assertTrue(estimate.lowerBound() >= blamed);
+		assertTrue(estimate.lowerBound() < estimate.lines() && estimate.lines() < estimate.upperBound());
+	}
+
+	@Test
+	public void sampledAnalysisTest() throws IOException, GitAPIException, InterruptedException {
+		Map<String, Contributor> full;
+		Extrapolation extrapolation;
+		try (Git git = SyntheticRepositoryGenerator.tagged(directory, Map.of("Main.java", SyntheticRepositoryGenerator.MAIN_JAVA, "main.py", "print('hello')\n"))) {
+			full = new FileExtractor("refs/tags/v1.0.0", git).analyzeAllContributors();
+			extrapolation = new FileExtractor("refs/tags/v1.0.0", git).analyzeSampledContributors(10);
+		}
+		assertEquals(full.get("Bruno").contributions(), extrapolation.estimates().stream()
+				.collect(Collectors.toMap(ContributionEstimate::lineType, ContributionEstimate::lines)));
+		assertEquals(2, extrapolation.sampledFiles());
+		assertEquals(2, extrapolation.totalFiles());
+		extrapolation.estimates().forEach(estimate -> {
+			assertEquals(estimate.lines(), estimate.lowerBound());
+			assertEquals(estimate.lines(), estimate.upperBound());
+		});
+	}
+}
@@ -0,0 +1,101 @@
+package fr.uge.gitclout.analyze.language;
+
+import fr.uge.gitclout.analyze.FileExtractor;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LanguageRegistryTests {
+
+	private final LanguageRegistry languages = LanguageRegistry.defaults();
+
+	private Language language(String name) {
+		return languages.byName(name).orElseThrow();
+	}
+
+	@Test
+	public void classifyTest() {
+		assertEquals(language("py"), languages.classify("test.py"));
+		assertEquals(language("java"), languages.classify("src/main/Test.java"));
+		assertEquals(language("xml"), languages.classify("module/pom.xml"));
+		assertEquals(language("gitignore"), languages.classify(".gitignore"));
+		assertNull(languages.classify("module/web.xml"));
+		assertNull(languages.classify("test.eur"));
+		assertNull(languages.classify("Makefile"));
+		assertNull(languages.classify("trailing."));
+	}
+
+	@Test
+	public void classifyScriptTest() {
+		assertTrue(languages.mayBeScript("bin/run"));
+		assertFalse(languages.mayBeScript("bin/run.sh"));
+		assertEquals(language("py"), languages.classifyScript("#!/usr/bin/python3\nprint()\n".getBytes()));
+		assertEquals(language("js"), languages.classifyScript("#!/usr/bin/env -S node --harmony\n".getBytes()));
+		assertNull(languages.classifyScript("#!/bin/sh\n".getBytes()));
+		assertNull(languages.classifyScript("print()\n".getBytes()));
+	}
+
+	@Test
+	public void digestTest() {
+		assertEquals(languages.digest(), new LanguageRegistry(languages.languages()).digest());
+		assertNotEquals(languages.digest(), new LanguageRegistry(languages.languages().subList(1, languages.languages().size())).digest());
+	}
+
+	@Test
+	public void loadTest() throws IOException, InvocationTargetException, IllegalAccessException {
+		var registry = LanguageRegistry.load(new ByteArrayInputStream("""
+				[{"name": "go", "color": "#00add8", "extensions": ["go"], "comments": {"line": "//"}}]
+				""".getBytes()));
+		Language go = registry.classify("main.go");
+		assertEquals("go", go.displayName());
+		assertFalse(go.comments().hasBlock());
+		var determineLineType = Arrays.stream(FileExtractor.class.getDeclaredMethods())
+				.filter(method -> method.getName().equals("determineLineType"))
+				.findFirst()
+				.orElseThrow();
+		determineLineType.setAccessible(true);
+		byte[] comment = "// hello\n".getBytes();
+		byte[] code = "x := 1\n".getBytes();
+		assertEquals("comments", determineLineType.invoke(null, comment, 0, comment.length, LineClassifier.of(go), false));
+		assertEquals("go", determineLineType.invoke(null, code, 0, code.length, LineClassifier.of(go), false));
+	}
+
+	@Test
+	public void lineClassifierTest() {
+		var classifier = LineClassifier.of(language("java"));
+		byte[] content = "int a; /* start\n still */ int b; // end\nint c = 1 / 2;\n".getBytes();
+		assertTrue(classifier.opensBlock(content, 0, 16));
+		assertFalse(classifier.closesBlock(content, 0, 16));
+		assertTrue(classifier.closesBlock(content, 16, 40));
+		assertTrue(classifier.hasLineComment(content, 16, 40));
+		assertFalse(classifier.hasLineComment(content, 40, content.length));
+		assertFalse(classifier.opensBlock(content, 0, 8));
+		assertTrue(LineClassifier.of(language("py")).hasLineComment("x = 1  # é\n".getBytes(StandardCharsets.UTF_8), 0, 12));
+	}
+
+	@Test
+	public void blockTransitionTest() {
+		var classifier = LineClassifier.of(language("java"));
+		byte[] content = "int a; /* start\n still */ int b;\nint c;\n".getBytes();
+		assertTrue(classifier.inBlockAfter(content, 0, 16, false));
+		assertTrue(classifier.isComment(content, 0, 16, true));
+		assertFalse(classifier.inBlockAfter(content, 16, 34, true));
+		assertFalse(classifier.inBlockAfter(content, 34, content.length, false));
+		assertFalse(classifier.isComment(content, 34, content.length, false));
+		assertTrue(classifier.inBlockAfter(content, 34, content.length, true));
+	}
+
+	@Test
+	public void duplicateExtensionTest() {
+		var first = new Language("a", "a", "#000000", List.of("x"), null, null, null, false);
+		var second = new Language("b", "b", "#000000", List.of("x"), null, null, null, false);
+		assertThrows(IllegalArgumentException.class, () -> new LanguageRegistry(List.of(first, second)));
+	}
+}
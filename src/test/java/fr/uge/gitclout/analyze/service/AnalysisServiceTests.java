@@ -0,0 +1,142 @@
+package fr.uge.gitclout.analyze.service;
+
+import fr.uge.gitclout.GitcloutApplication;
+import fr.uge.gitclout.analyze.api.data.ContributorData;
+import fr.uge.gitclout.analyze.jpa.AnalysisRequest;
+import fr.uge.gitclout.analyze.jpa.ContributorRequest;
+import fr.uge.gitclout.analyze.jpa.ContributorRow;
+import fr.uge.gitclout.repositories.services.RepositoryService;
+import fr.uge.gitclout.tags.jpa.TagRequest;
+import fr.uge.gitclout.tags.jpa.TagStorage;
+import fr.uge.gitclout.tags.services.TagService;
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.api.errors.GitAPIException;
+import org.eclipse.jgit.lib.PersonIdent;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.StreamSupport;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(classes = GitcloutApplication.class)
+class AnalysisServiceTests {
+
+	private static final Path DIRECTORY = createDirectory();
+	private static final PersonIdent AUTHOR = new PersonIdent("Alice", "alice@example.com");
+
+	@Autowired
+	private RepositoryService repositoryService;
+
+	@Autowired
+	private TagService tagService;
+
+	@Autowired
+	private TagRequest tagRequest;
+
+	@Autowired
+	private ContributorRequest contributorRequest;
+
+	@Autowired
+	private AnalysisRequest analysisRequest;
+
+	@DynamicPropertySource
+	static void database(DynamicPropertyRegistry registry) {
+		registry.add("spring.datasource.url", () -> "jdbc:sqlite:" + DIRECTORY.resolve("analysis.db"));
+	}
+
+	@AfterAll
+	static void tearDown() throws IOException {
+		try (var paths = Files.walk(DIRECTORY)) {
+			paths.sorted((first, second) -> second.compareTo(first)).forEach(path -> path.toFile().delete());
+		}
+	}
+
+	private static Path createDirectory() {
+		try {
+			return Files.createTempDirectory("gitclout-analysis");
+		} catch (IOException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	/**
+	 * Commits a new version of the single file of the repository and tags it.
+	 */
+	private static void tagVersion(Git git, Path directory, int version) throws IOException, GitAPIException {
+		StringBuilder content = new StringBuilder("public class Main {\n");
+		for (int line = 0; line < version * 3; line++) {
+			content.append("    int field").append(line).append(";\n");
+		}
+		content.append("}\n");
+		Files.writeString(directory.resolve("Main.java"), content);
+		git.add().addFilepattern("Main.java").call();
+		git.commit().setMessage("version " + version).setAuthor(AUTHOR).setCommitter(AUTHOR).call();
+		git.tag().setName("v" + version + ".0.0").call();
+	}
+
+	@Test
+	public void refreshOnlyAnalyzesNewCommits() throws Exception {
+		Path directory = DIRECTORY.resolve("reuse.git");
+		try (Git git = Git.init().setDirectory(directory.toFile()).call()) {
+			tagVersion(git, directory, 1);
+			tagVersion(git, directory, 2);
+			String project = Objects.requireNonNull(repositoryService.addRepository(directory.toUri().toString()).block()).repositoryName();
+			assertEquals(2, contributorRequest.count());
+			assertEquals(2, analysisRequest.count());
+
+			tagVersion(git, directory, 3);
+			repositoryService.refreshTags(project).block();
+			String refreshed = StreamSupport.stream(tagRequest.findAll().spliterator(), false)
+					.map(TagStorage::projectName)
+					.filter(name -> !name.equals(project))
+					.findFirst().orElseThrow();
+
+			assertEquals(3, contributorRequest.count());
+			assertEquals(3, analysisRequest.count());
+			for (String tag : List.of("v1.0.0", "v2.0.0")) {
+				List<ContributorData> expected = tagService.getContributors(project, tag).collectList().block();
+				assertFalse(Objects.requireNonNull(expected).isEmpty());
+				assertEquals(expected, tagService.getContributors(refreshed, tag).collectList().block());
+			}
+			assertEquals(List.of(new ContributorData("Alice", Map.of("java", 11))),
+					tagService.getContributors(refreshed, "v3.0.0").collectList().block());
+		}
+	}
+
+	@Test
+	public void forkReusesTheAnalysesOfItsUpstream() throws Exception {
+		Path upstream = DIRECTORY.resolve("upstream.git");
+		try (Git git = Git.init().setDirectory(upstream.toFile()).call()) {
+			tagVersion(git, upstream, 4);
+			tagVersion(git, upstream, 5);
+		}
+		Path fork = DIRECTORY.resolve("fork.git");
+		Git.cloneRepository().setURI(upstream.toUri().toString()).setDirectory(fork.toFile()).call().close();
+		String upstreamProject = Objects.requireNonNull(repositoryService.addRepository(upstream.toUri().toString()).block()).repositoryName();
+		long rows = contributorRequest.count();
+		long analyses = analysisRequest.count();
+		List<ContributorData> expected = tagService.getContributors(upstreamProject, "v5.0.0").collectList().block();
+
+		String forkProject = Objects.requireNonNull(repositoryService.addRepository(fork.toUri().toString()).block()).repositoryName();
+		assertEquals(rows, contributorRequest.count());
+		assertEquals(analyses, analysisRequest.count());
+		assertEquals(expected, tagService.getContributors(forkProject, "v5.0.0").collectList().block());
+
+		repositoryService.deleteRepository(upstreamProject.split("_")[0]).block();
+		assertEquals(rows, contributorRequest.count());
+		assertEquals(analyses, analysisRequest.count());
+		assertEquals(List.of(new ContributorRow("Alice", "java", "v5.0.0", 17, forkProject)),
+				contributorRequest.findByProjectNameAndTagIdOrderByContributorName(forkProject, "v5.0.0"));
+	}
+}
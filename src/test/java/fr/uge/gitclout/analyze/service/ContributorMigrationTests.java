@@ -0,0 +1,87 @@
+package fr.uge.gitclout.analyze.service;
+
+import fr.uge.gitclout.GitcloutApplication;
+import fr.uge.gitclout.analyze.jpa.ContributorRequest;
+import fr.uge.gitclout.analyze.jpa.ContributorRow;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(classes = GitcloutApplication.class)
+class ContributorMigrationTests {
+
+	private static final String PROJECT = "test.git_20240101-000000";
+	private static final Path DIRECTORY = createDatabase();
+
+	@Autowired
+	private ContributorRequest contributorRequest;
+
+	@Autowired
+	private ContributorMigration contributorMigration;
+
+	@Autowired
+	private JdbcTemplate jdbc;
+
+	@DynamicPropertySource
+	static void database(DynamicPropertyRegistry registry) {
+		registry.add("spring.datasource.url", () -> "jdbc:sqlite:" + DIRECTORY.resolve("legacy.db"));
+	}
+
+	@AfterAll
+	static void tearDown() throws IOException {
+		try (var paths = Files.walk(DIRECTORY)) {
+			paths.sorted((first, second) -> second.compareTo(first)).forEach(path -> path.toFile().delete());
+		}
+	}
+
+	/**
+	 * Creates a database in the former schema, where every row repeats its names.
+	 */
+	private static Path createDatabase() {
+		try {
+			Path directory = Files.createTempDirectory("gitclout-migration");
+			try (var connection = DriverManager.getConnection("jdbc:sqlite:" + directory.resolve("legacy.db"));
+				 var statement = connection.createStatement()) {
+				statement.execute("create table contributors (id bigint not null, contributor_name varchar(255), language_name varchar(255), number_of_lines integer not null, project_name varchar(255), tag_id varchar(255), primary key (id))");
+				statement.execute("insert into contributors values (1, 'Alice', 'java', 10, '" + PROJECT + "', 'v1.0.0')");
+				statement.execute("insert into contributors values (2, 'Bob', 'java', 4, '" + PROJECT + "', 'v1.0.0')");
+				statement.execute("insert into contributors values (3, 'Alice', 'comments', 2, '" + PROJECT + "', 'v1.0.0')");
+				statement.execute("insert into contributors values (4, 'Alice', 'java', 12, '" + PROJECT + "', 'v2.0.0')");
+			}
+			return directory;
+		} catch (IOException | SQLException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	@Test
+	public void legacyRowsAreMigratedAtStartup() {
+		assertEquals(List.of(
+				new ContributorRow("Alice", "java", "v1.0.0", 10, PROJECT),
+				new ContributorRow("Alice", "comments", "v1.0.0", 2, PROJECT),
+				new ContributorRow("Bob", "java", "v1.0.0", 4, PROJECT)
+		), contributorRequest.findByProjectNameAndTagIdOrderByContributorName(PROJECT, "v1.0.0").stream()
+				.sorted((first, second) -> first.contributorName().equals(second.contributorName())
+						? second.languageName().compareTo(first.languageName())
+						: first.contributorName().compareTo(second.contributorName()))
+				.toList());
+		assertEquals(List.of(new ContributorRow("Alice", "java", "v2.0.0", 12, PROJECT)),
+				contributorRequest.findByProjectNameAndTagIdOrderByContributorName(PROJECT, "v2.0.0"));
+		assertEquals(0, jdbc.queryForObject("select count(*) from sqlite_master where name = 'contributors'", Integer.class));
+		assertEquals(0, contributorMigration.migrate());
+		assertEquals(4, contributorRequest.count());
+	}
+}
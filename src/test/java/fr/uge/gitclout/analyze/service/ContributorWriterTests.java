@@ -0,0 +1,86 @@
+package fr.uge.gitclout.analyze.service;
+
+import fr.uge.gitclout.analyze.jpa.ContributorRequest;
+import fr.uge.gitclout.analyze.jpa.ContributorRow;
+import fr.uge.gitclout.analyze.jpa.ContributorStorage;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ContributorWriterTests {
+
+	private static ContributorRow row(int i) {
+		return new ContributorRow("Author" + i, "java", "v1.0.0", i, "project_20231201-101010");
+	}
+
+	/**
+	 * Dictionary encoding the rows of each author under the tag key of the same number.
+	 */
+	private static NameDictionary names() {
+		NameDictionary names = Mockito.mock(NameDictionary.class);
+		Mockito.when(names.encode(Mockito.any())).thenAnswer(invocation -> {
+			ContributorRow row = invocation.getArgument(0);
+			return new ContributorStorage(Long.parseLong(row.contributorName().substring("Author".length())), 0, 0, row.numberOfLines());
+		});
+		return names;
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void batchesTest() throws InterruptedException {
+		ContributorRequest contributorRequest = Mockito.mock(ContributorRequest.class);
+		List<Integer> sizes = Collections.synchronizedList(new ArrayList<>());
+		Mockito.when(contributorRequest.saveAll(Mockito.any())).thenAnswer(invocation -> {
+			sizes.add(((List<ContributorStorage>) invocation.getArgument(0)).size());
+			return invocation.getArgument(0);
+		});
+		var writer = new ContributorWriter(contributorRequest, names(), 2, 3);
+		try (var batch = writer.open()) {
+			for (int i = 0; i < 7; i++) batch.add(row(i));
+			assertEquals(7, batch.rows());
+		}
+		assertEquals(List.of(3, 3, 1), sizes);
+		writer.stop();
+		assertThrows(IllegalStateException.class, () -> writer.open().add(row(0)));
+	}
+
+	@Test
+	public void failureTest() throws InterruptedException {
+		ContributorRequest contributorRequest = Mockito.mock(ContributorRequest.class);
+		Mockito.when(contributorRequest.saveAll(Mockito.any())).thenThrow(new IllegalStateException("disk full"));
+		var writer = new ContributorWriter(contributorRequest, names(), 4, 2);
+		var batch = writer.open();
+		batch.add(row(1));
+		var exception = assertThrows(RuntimeException.class, batch::close);
+		assertEquals("disk full", exception.getCause().getMessage());
+		writer.stop();
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void failureIsolationTest() throws InterruptedException {
+		ContributorRequest contributorRequest = Mockito.mock(ContributorRequest.class);
+		Mockito.when(contributorRequest.saveAll(Mockito.any())).thenAnswer(invocation -> {
+			List<ContributorStorage> storages = invocation.getArgument(0);
+			if (storages.stream().anyMatch(storage -> storage.numberOfLines() == 13)) throw new OutOfMemoryError("bad row");
+			return storages;
+		});
+		var writer = new ContributorWriter(contributorRequest, names(), 8, 8);
+		var healthy = writer.open();
+		var faulty = writer.open();
+		healthy.add(row(1));
+		faulty.add(row(2));
+		faulty.add(row(13));
+		healthy.close();
+		var exception = assertThrows(RuntimeException.class, faulty::close);
+		assertEquals("bad row", exception.getCause().getMessage());
+		Mockito.verify(contributorRequest).deleteByTagKeyIn(Set.of(2L));
+		writer.stop();
+	}
+}
@@ -0,0 +1,50 @@
+package fr.uge.gitclout.analyze.service;
+
+import fr.uge.gitclout.analyze.PathExclusions;
+import fr.uge.gitclout.analyze.api.ExclusionController;
+import fr.uge.gitclout.analyze.api.data.ExclusionData;
+import fr.uge.gitclout.analyze.jpa.ExclusionRequest;
+import fr.uge.gitclout.analyze.jpa.ExclusionStorage;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.http.HttpStatus;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExclusionServiceTests {
+
+	@Test
+	public void exclusionServiceTest() {
+		ExclusionRequest exclusionRequest = Mockito.mock(ExclusionRequest.class);
+		var service = new ExclusionService(exclusionRequest, DataSize.ofMegabytes(1));
+		assertEquals(PathExclusions.defaults(), service.exclusions("project_20231201-101010"));
+		Mockito.when(exclusionRequest.findByRepositoryName("project"))
+				.thenReturn(Optional.of(new ExclusionStorage("project", List.of("generated/"), 0, false)));
+		var exclusions = service.exclusions("project_20231201-101010");
+		assertEquals(List.of("generated/"), exclusions.patterns());
+		assertEquals(0, exclusions.maxFileSize());
+	}
+
+	@Test
+	public void setExclusionsTest() {
+		ExclusionRequest exclusionRequest = Mockito.mock(ExclusionRequest.class);
+		var controller = new ExclusionController(new ExclusionService(exclusionRequest, DataSize.ofMegabytes(1)));
+		var error = assertThrows(ResponseStatusException.class,
+				() -> controller.setExclusions("project", new ExclusionData(List.of(), -1, true)).block());
+		assertEquals(HttpStatus.BAD_REQUEST, error.getStatusCode());
+		Mockito.verifyNoInteractions(exclusionRequest);
+
+		var existing = new ExclusionStorage("project", List.of("generated/"), 0, false);
+		Mockito.when(exclusionRequest.findByRepositoryName("project")).thenReturn(Optional.of(existing));
+		assertEquals(new ExclusionData(List.of("*.lock"), 10, true),
+				controller.setExclusions("project", new ExclusionData(List.of(" *.lock ", ""), 10, true)).block());
+		Mockito.verify(exclusionRequest).save(existing);
+		assertEquals(List.of("*.lock"), existing.rules());
+		assertEquals(10, existing.maxFileSize());
+	}
+}
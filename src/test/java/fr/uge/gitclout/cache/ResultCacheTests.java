@@ -0,0 +1,71 @@
+package fr.uge.gitclout.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResultCacheTests {
+
+	@Test
+	public void hitAndMissTest() {
+		var registry = new SimpleMeterRegistry();
+		var cache = new ResultCache(10, registry);
+		var key = new ResultCache.Key("project_1", "tags", null, 0);
+		var loads = new int[1];
+		for (int i = 0; i < 3; i++) {
+			assertEquals(List.of("v1.0.0"), cache.get(key, () -> {
+				loads[0]++;
+				return Flux.just("v1.0.0");
+			}).collectList().block());
+		}
+		assertEquals(1, loads[0]);
+		assertEquals(2, registry.get("gitclout.cache.hits").functionCounter().count());
+		assertEquals(1, registry.get("gitclout.cache.misses").functionCounter().count());
+	}
+
+	@Test
+	public void evictionTest() {
+		var registry = new SimpleMeterRegistry();
+		var cache = new ResultCache(2, registry);
+		for (int i = 0; i < 5; i++) {
+			cache.get(new ResultCache.Key("project_1", "contributors", "v" + i, 0), () -> Flux.just("Bruno")).blockLast();
+		}
+		assertEquals(2, cache.size());
+		assertEquals(3, registry.get("gitclout.cache.evictions").functionCounter().count());
+	}
+
+	@Test
+	public void invalidateTest() {
+		var cache = new ResultCache(10, new SimpleMeterRegistry());
+		cache.get(new ResultCache.Key("project_1", "tags", null, 0), () -> Flux.just("v1.0.0")).blockLast();
+		cache.get(new ResultCache.Key("project_2", "tags", null, 0), () -> Flux.just("v1.0.0")).blockLast();
+		cache.get(new ResultCache.Key("other_1", "tags", null, 0), () -> Flux.just("v1.0.0")).blockLast();
+		cache.invalidate("other_1");
+		assertEquals(2, cache.size());
+		cache.invalidateRepository("project");
+		assertEquals(0, cache.size());
+	}
+
+	@Test
+	public void invalidateRepositoryForgetsProjectsTest() {
+		var cache = new ResultCache(10, new SimpleMeterRegistry());
+		var key = new ResultCache.Key("project_1", "tags", null, 0);
+		cache.invalidate("project_1");
+		var pending = cache.get(key, () -> Flux.just("v1.0.0"));
+		var inFlight = cache.get(key, () -> Mono.delay(Duration.ofMillis(50)).thenMany(Flux.just("v0.0.0"))).collectList().toFuture();
+		cache.invalidateRepository("project");
+		assertEquals(Map.of(), ReflectionTestUtils.getField(cache, "generations"));
+		assertEquals(List.of("v0.0.0"), inFlight.join());
+		assertEquals(0, cache.size());
+		assertEquals(List.of("v1.0.0"), pending.collectList().block());
+		assertEquals(1, cache.size());
+	}
+}
@@ -0,0 +1,118 @@
+package fr.uge.gitclout.database;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SqliteDataSourcesTests {
+
+	private static final int COMMITTED_ROWS = 1_000;
+
+	@TempDir
+	Path directory;
+
+	private HikariDataSource writer;
+	private HikariDataSource reader;
+
+	@BeforeEach
+	void setUp() throws SQLException {
+		String url = "jdbc:sqlite:" + directory.resolve("test.db");
+		writer = SqliteDataSources.writer(url, 10_000);
+		try (Connection connection = writer.getConnection()) {
+			connection.createStatement().execute("create table contributors (id integer primary key, name text, lines integer)");
+			insertRows(connection, COMMITTED_ROWS);
+		}
+		reader = SqliteDataSources.reader(url, 4, 10_000);
+	}
+
+	@AfterEach
+	void tearDown() {
+		reader.close();
+		writer.close();
+	}
+
+	private static void insertRows(Connection connection, int count) throws SQLException {
+		try (PreparedStatement statement = connection.prepareStatement("insert into contributors (name, lines) values (?, ?)")) {
+			for (int i = 0; i < count; i++) {
+				statement.setString(1, "contributor" + i);
+				statement.setInt(2, i);
+				statement.addBatch();
+			}
+			statement.executeBatch();
+		}
+	}
+
+	private long timedRead() throws SQLException {
+		long start = System.nanoTime();
+		try (Connection connection = reader.getConnection();
+			 ResultSet result = connection.createStatement().executeQuery("select count(*), sum(lines) from contributors")) {
+			assertTrue(result.next());
+			assertEquals(COMMITTED_ROWS, result.getInt(1));
+		}
+		return System.nanoTime() - start;
+	}
+
+	@Test
+	void writerUsesWalJournal() throws SQLException {
+		try (Connection connection = writer.getConnection();
+			 ResultSet result = connection.createStatement().executeQuery("pragma journal_mode")) {
+			assertTrue(result.next());
+			assertEquals("wal", result.getString(1));
+		}
+	}
+
+	@Test
+	void readerRejectsWrites() throws SQLException {
+		try (Connection connection = reader.getConnection()) {
+			assertTrue(connection.isReadOnly());
+			assertThrows(SQLException.class, () -> connection.createStatement().execute("delete from contributors"));
+		}
+	}
+
+	@Test
+	void readLatencyStaysSteadyDuringIngest() throws Exception {
+		List<Long> baseline = new ArrayList<>();
+		for (int i = 0; i < 20; i++) baseline.add(timedRead());
+
+		CountDownLatch transactionOpen = new CountDownLatch(1);
+		CountDownLatch readsDone = new CountDownLatch(1);
+		CompletableFuture<Void> ingest = CompletableFuture.runAsync(() -> {
+			try (Connection connection = writer.getConnection()) {
+				connection.setAutoCommit(false);
+				insertRows(connection, 50_000);
+				transactionOpen.countDown();
+				readsDone.await(30, TimeUnit.SECONDS);
+				connection.commit();
+			} catch (SQLException | InterruptedException e) {
+				throw new RuntimeException(e);
+			}
+		});
+
+		assertTrue(transactionOpen.await(30, TimeUnit.SECONDS));
+		List<Long> duringIngest = new ArrayList<>();
+		for (int i = 0; i < 20; i++) duringIngest.add(timedRead());
+		readsDone.countDown();
+		ingest.get(30, TimeUnit.SECONDS);
+
+		long baselineMax = Collections.max(baseline);
+		long ingestMax = Collections.max(duringIngest);
+		assertTrue(ingestMax < Math.max(10 * baselineMax, TimeUnit.MILLISECONDS.toNanos(200)),
+				"read latency during ingest " + ingestMax + "ns, baseline " + baselineMax + "ns");
+	}
+}
@@ -0,0 +1,68 @@
+package fr.uge.gitclout.metrics;
+
+import fr.uge.gitclout.SyntheticRepositoryGenerator;
+import fr.uge.gitclout.analyze.FileExtractor;
+import jdk.jfr.consumer.RecordingFile;
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.api.errors.GitAPIException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FlightRecordingsTests {
+
+	@TempDir
+	Path directory;
+
+	@Test
+	public void flightRecordingTest() throws IOException, GitAPIException, InterruptedException {
+		var recordings = new FlightRecordings(directory.resolve("recordings").toString(), Duration.ofMinutes(1));
+		assertEquals("RUNNING", recordings.start("project").state());
+		try (Git git = SyntheticRepositoryGenerator.tagged(directory.resolve("project"), Map.of("main.py", "print('hello')\n"))) {
+			new FileExtractor("refs/tags/v1.0.0", git).analyzeAllContributors();
+		}
+		recordings.ingestFinished("project");
+		assertTrue(recordings.recordings().isEmpty());
+		Path file;
+		try (var files = Files.list(directory.resolve("recordings"))) {
+			file = files.findFirst().orElseThrow();
+		}
+		var blames = RecordingFile.readAllEvents(file).stream()
+				.filter(event -> event.getEventType().getName().equals("fr.uge.gitclout.Blame"))
+				.toList();
+		assertEquals(1, blames.size());
+		assertEquals("project", blames.get(0).getString("project"));
+		assertEquals("main.py", blames.get(0).getString("path"));
+		assertEquals(1, blames.get(0).getInt("lines"));
+		assertTrue(RecordingFile.readAllEvents(file).stream().anyMatch(event -> event.getEventType().getName().equals("fr.uge.gitclout.TagAnalysis")));
+	}
+
+	@Test
+	public void flightRecordingNameTest() {
+		var recordings = new FlightRecordings(directory.resolve("recordings").toString(), Duration.ofMinutes(1));
+		assertThrows(IllegalArgumentException.class, () -> recordings.start(null));
+		assertThrows(IllegalArgumentException.class, () -> recordings.start("../outside"));
+		assertThrows(IllegalArgumentException.class, () -> recordings.start("a/b"));
+		assertThrows(IllegalArgumentException.class, () -> recordings.stop(null));
+		assertTrue(recordings.recordings().isEmpty());
+	}
+
+	@Test
+	public void flightRecordingRestartTest() throws InterruptedException {
+		var recordings = new FlightRecordings(directory.resolve("recordings").toString(), Duration.ofSeconds(1));
+		assertEquals("RUNNING", recordings.start("project").state());
+		for (int i = 0; i < 100 && !recordings.recordings().isEmpty(); i++) {
+			Thread.sleep(100);
+		}
+		assertTrue(recordings.recordings().isEmpty());
+		assertEquals("RUNNING", recordings.start("project").state());
+		assertTrue(recordings.stop("project").isPresent());
+	}
+}
@@ -0,0 +1,36 @@
+package fr.uge.gitclout.metrics;
+
+import fr.uge.gitclout.SyntheticRepositoryGenerator;
+import fr.uge.gitclout.analyze.FileExtractor;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.api.errors.GitAPIException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IngestMetricsTests {
+
+	@TempDir
+	Path directory;
+
+	@Test
+	public void fileExtractorMetricsTest() throws IOException, GitAPIException, InterruptedException {
+		var registry = new SimpleMeterRegistry();
+		try (Git git = SyntheticRepositoryGenerator.tagged(directory, Map.of("Main.java", SyntheticRepositoryGenerator.MAIN_JAVA, "main.py", "print('hello')\n"))) {
+			new FileExtractor("refs/tags/v1.0.0", git, new IngestMetrics(registry)).analyzeAllContributors();
+		}
+		assertEquals(2, registry.get("gitclout.ingest.files").counter().count());
+		assertEquals(4, registry.get("gitclout.ingest.lines").counter().count());
+		assertEquals(1, registry.get("gitclout.ingest.phase").tag("phase", "tree-walk").timer().count());
+		assertEquals(2, registry.get("gitclout.ingest.phase").tag("phase", "blame").timer().count());
+		assertEquals(2, registry.get("gitclout.ingest.phase").tag("phase", "classification").timer().count());
+		assertEquals(1, registry.get("gitclout.ingest.throughput").tag("unit", "lines").summary().count());
+		assertEquals(0, registry.get("gitclout.ingest.queue").gauge().value());
+	}
+}
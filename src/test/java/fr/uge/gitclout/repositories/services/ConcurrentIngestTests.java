@@ -0,0 +1,188 @@
+package fr.uge.gitclout.repositories.services;
+
+import fr.uge.gitclout.GitcloutApplication;
+import fr.uge.gitclout.analyze.api.data.ContributorData;
+import fr.uge.gitclout.repositories.api.data.RepositoryData;
+import fr.uge.gitclout.tags.api.data.TagData;
+import fr.uge.gitclout.tags.services.TagService;
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.api.errors.GitAPIException;
+import org.eclipse.jgit.lib.PersonIdent;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(classes = GitcloutApplication.class, webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class ConcurrentIngestTests {
+
+	private static final int REPOSITORIES = 4;
+	private static final Path DIRECTORY = createDirectory();
+
+	@Autowired
+	private RepositoryService repositoryService;
+
+	@Autowired
+	private TagService tagService;
+
+	@Autowired
+	private WebTestClient webTestClient;
+
+	@DynamicPropertySource
+	static void database(DynamicPropertyRegistry registry) {
+		registry.add("spring.datasource.url", () -> "jdbc:sqlite:" + DIRECTORY.resolve("ingest.db"));
+	}
+
+	@AfterAll
+	static void tearDown() throws IOException {
+		try (var paths = Files.walk(DIRECTORY)) {
+			paths.sorted((first, second) -> second.compareTo(first)).forEach(path -> path.toFile().delete());
+		}
+	}
+
+	private static Path createDirectory() {
+		try {
+			return Files.createTempDirectory("gitclout-ingest");
+		} catch (IOException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	/**
+	 * Creates a local repository with two tags, every line of which is written by the given author.
+	 */
+	private static String createRepository(String name, String author, int lines) throws IOException, GitAPIException {
+		Path directory = DIRECTORY.resolve(name);
+		try (Git git = Git.init().setDirectory(directory.toFile()).call()) {
+			var ident = new PersonIdent(author, author.toLowerCase() + "@example.com");
+			for (int version = 1; version <= 2; version++) {
+				StringBuilder content = new StringBuilder("public class Main {\n");
+				for (int line = 0; line < lines * version; line++) {
+					content.append("    int field").append(line).append(";\n");
+				}
+				content.append("}\n");
+				Files.writeString(directory.resolve("Main.java"), content);
+				git.add().addFilepattern("Main.java").call();
+				git.commit().setMessage("version " + version).setAuthor(ident).setCommitter(ident).call();
+				git.tag().setName("v" + version + ".0.0").call();
+			}
+		}
+		return directory.toUri().toString();
+	}
+
+	@Test
+	public void concurrentIngestsKeepTheirOwnResults() throws Exception {
+		List<String> authors = new ArrayList<>();
+		List<String> urls = new ArrayList<>();
+		for (int i = 0; i < REPOSITORIES; i++) {
+			authors.add("Author" + i);
+			urls.add(createRepository("project" + i, authors.get(i), 10 + i));
+		}
+
+		ExecutorService executor = Executors.newFixedThreadPool(REPOSITORIES);
+		CountDownLatch start = new CountDownLatch(1);
+		List<CompletableFuture<RepositoryData>> ingests = new ArrayList<>();
+		try {
+			for (String url : urls) {
+				ingests.add(CompletableFuture.supplyAsync(() -> {
+					try {
+						start.await();
+					} catch (InterruptedException e) {
+						throw new RuntimeException(e);
+					}
+					return repositoryService.addRepository(url).block();
+				}, executor));
+			}
+			start.countDown();
+			CompletableFuture.allOf(ingests.toArray(CompletableFuture[]::new)).join();
+		} finally {
+			executor.shutdown();
+		}
+
+		for (int i = 0; i < REPOSITORIES; i++) {
+			RepositoryData data = Objects.requireNonNull(ingests.get(i).join());
+			assertEquals(0, data.error());
+			assertTrue(data.repositoryName().startsWith("project" + i + "_"));
+
+			List<TagData> tags = tagService.getTags(data.repositoryName()).collectList().block();
+			assertEquals(2, Objects.requireNonNull(tags).size());
+
+			List<ContributorData> contributors = tagService.getContributors(data.repositoryName(), "v2.0.0").collectList().block();
+			assertEquals(1, Objects.requireNonNull(contributors).size());
+			assertEquals(authors.get(i), contributors.get(0).name());
+		}
+	}
+
+	@Test
+	public void sameRepositoryIsIngestedOnce() throws Exception {
+		String url = createRepository("shared", "Shared", 5);
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			var first = CompletableFuture.supplyAsync(() -> repositoryService.addRepository(url).block(), executor);
+			var second = CompletableFuture.supplyAsync(() -> repositoryService.addRepository(url).block(), executor);
+			List<Integer> errors = List.of(Objects.requireNonNull(first.join()).error(), Objects.requireNonNull(second.join()).error());
+			assertTrue(errors.contains(0));
+			assertTrue(errors.contains(-1));
+			assertEquals(first.join().repositoryName().split("_")[0], second.join().repositoryName().split("_")[0]);
+			assertEquals(Map.of(), ReflectionTestUtils.getField(repositoryService, "repositoryLocks"));
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	public void concurrentRequestsAreIngestedInParallel() throws Exception {
+		List<String> urls = new ArrayList<>();
+		for (int i = 0; i < REPOSITORIES; i++) {
+			urls.add(createRepository("posted" + i, "Poster" + i, 10 + i));
+		}
+		repositoryService.addRepository(urls.get(0));
+		assertTrue(Objects.requireNonNull(repositoryService.repositoryHistory().collectList().block()).stream()
+				.noneMatch(history -> history.url().equals(urls.get(0))));
+
+		WebTestClient client = webTestClient.mutate().responseTimeout(Duration.ofMinutes(1)).build();
+		List<RepositoryData> responses = Flux.fromIterable(urls)
+				.flatMap(url -> Mono.fromCallable(() -> client.post().uri("/addrepository")
+								.contentType(MediaType.TEXT_PLAIN)
+								.bodyValue(url)
+								.exchange()
+								.expectStatus().isOk()
+								.expectBody(RepositoryData.class)
+								.returnResult()
+								.getResponseBody())
+						.subscribeOn(Schedulers.boundedElastic()))
+				.collectList()
+				.block(Duration.ofMinutes(1));
+
+		assertEquals(REPOSITORIES, Objects.requireNonNull(responses).size());
+		for (RepositoryData data : responses) {
+			assertEquals(0, data.error());
+			List<TagData> tags = tagService.getTags(data.repositoryName()).collectList().block();
+			assertEquals(2, Objects.requireNonNull(tags).size());
+		}
+		assertEquals(REPOSITORIES, responses.stream().map(RepositoryData::repositoryName).distinct().count());
+	}
+}
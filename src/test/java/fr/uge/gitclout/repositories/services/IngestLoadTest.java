@@ -0,0 +1,134 @@
+package fr.uge.gitclout.repositories.services;
+
+import fr.uge.gitclout.GitcloutApplication;
+import fr.uge.gitclout.SyntheticRepositoryGenerator;
+import fr.uge.gitclout.repositories.api.data.RepositoryData;
+import fr.uge.gitclout.tags.services.TagService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * End-to-end ingest of generated repositories, excluded from the default build. Run it with
+ * {@code mvn test -Dgroups=load -DexcludedGroups= -Dtest=IngestLoadTest}, and size the repositories with
+ * {@code -Dgitclout.load.repositories}, {@code .commits}, {@code .tags}, {@code .authors}, {@code .files},
+ * {@code .min-lines} and {@code .max-lines}.
+ */
+@Tag("load")
+@SpringBootTest(classes = GitcloutApplication.class)
+class IngestLoadTest {
+
+	private static final Path DIRECTORY = createDirectory();
+
+	@Autowired
+	private RepositoryService repositoryService;
+
+	@Autowired
+	private TagService tagService;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@DynamicPropertySource
+	static void database(DynamicPropertyRegistry registry) {
+		registry.add("spring.datasource.url", () -> "jdbc:sqlite:" + DIRECTORY.resolve("load.db"));
+	}
+
+	@AfterAll
+	static void tearDown() throws IOException {
+		SyntheticRepositoryGenerator.delete(DIRECTORY);
+	}
+
+	private static Path createDirectory() {
+		try {
+			return Files.createTempDirectory("gitclout-load");
+		} catch (IOException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	private static int setting(String name, int defaultValue) {
+		return Integer.getInteger("gitclout.load." + name, defaultValue);
+	}
+
+	@Test
+	public void ingestGeneratedRepositories() throws Exception {
+		int repositories = setting("repositories", 2);
+		int tags = setting("tags", 5);
+		List<String> urls = new ArrayList<>();
+		for (int i = 0; i < repositories; i++) {
+			Path repository = new SyntheticRepositoryGenerator()
+					.commits(setting("commits", 100))
+					.tags(tags)
+					.authors(setting("authors", 10))
+					.files(setting("files", 200))
+					.fileSize(setting("min-lines", 20), setting("max-lines", 400))
+					.language("java", 5).language("py", 3).language("js", 2).language("md", 1)
+					.seed(i)
+					.generate(DIRECTORY.resolve("load" + i + ".git"));
+			urls.add(repository.toUri().toString());
+		}
+
+		List<MemoryPoolMXBean> heapPools = ManagementFactory.getMemoryPoolMXBeans().stream()
+				.filter(pool -> pool.getType() == MemoryType.HEAP).toList();
+		heapPools.forEach(MemoryPoolMXBean::resetPeakUsage);
+		double filesBefore = meterRegistry.get("gitclout.ingest.files").counter().count();
+		double linesBefore = meterRegistry.get("gitclout.ingest.lines").counter().count();
+		long start = System.nanoTime();
+
+		ExecutorService executor = Executors.newFixedThreadPool(repositories);
+		List<CompletableFuture<RepositoryData>> ingests = new ArrayList<>();
+		try {
+			for (String url : urls) {
+				ingests.add(CompletableFuture.supplyAsync(() -> repositoryService.addRepository(url).block(), executor));
+			}
+			CompletableFuture.allOf(ingests.toArray(CompletableFuture[]::new)).join();
+		} finally {
+			executor.shutdown();
+		}
+
+		double seconds = (System.nanoTime() - start) / 1e9;
+		double files = meterRegistry.get("gitclout.ingest.files").counter().count() - filesBefore;
+		double lines = meterRegistry.get("gitclout.ingest.lines").counter().count() - linesBefore;
+		long peakHeap = heapPools.stream().mapToLong(pool -> pool.getPeakUsage().getUsed()).sum();
+		long databaseSize = 0;
+		for (String suffix : List.of("", "-wal", "-shm")) {
+			Path file = DIRECTORY.resolve("load.db" + suffix);
+			if (Files.exists(file)) databaseSize += Files.size(file);
+		}
+		System.out.printf("""
+				Ingest load test: %d repositories, %d tags each
+				  wall time     %.2f s
+				  throughput    %.1f tags/s, %.0f files/s, %.0f lines/s
+				  peak heap     %.1f MiB
+				  database size %.1f MiB
+				""", repositories, tags, seconds, repositories * tags / seconds, files / seconds, lines / seconds,
+				peakHeap / 1048576.0, databaseSize / 1048576.0);
+
+		for (CompletableFuture<RepositoryData> ingest : ingests) {
+			RepositoryData data = Objects.requireNonNull(ingest.join());
+			assertEquals(0, data.error());
+			assertEquals(tags, Objects.requireNonNull(tagService.getTags(data.repositoryName()).collectList().block()).size());
+		}
+	}
+}
@@ -0,0 +1,84 @@
+package fr.uge.gitclout.repositories.services;
+
+import fr.uge.gitclout.GitcloutApplication;
+import fr.uge.gitclout.SyntheticRepositoryGenerator;
+import fr.uge.gitclout.metrics.FlightRecordings;
+import fr.uge.gitclout.repositories.api.data.RepositoryData;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(classes = GitcloutApplication.class)
+class RecordedIngestTests {
+
+	private static final Path DIRECTORY = createDirectory();
+
+	@Autowired
+	private RepositoryService repositoryService;
+
+	@Autowired
+	private FlightRecordings recordings;
+
+	@DynamicPropertySource
+	static void database(DynamicPropertyRegistry registry) {
+		registry.add("spring.datasource.url", () -> "jdbc:sqlite:" + DIRECTORY.resolve("recorded.db"));
+		registry.add("gitclout.recording.directory", () -> DIRECTORY.resolve("recordings").toString());
+	}
+
+	@AfterAll
+	static void tearDown() throws IOException {
+		try (var paths = Files.walk(DIRECTORY)) {
+			paths.sorted((first, second) -> second.compareTo(first)).forEach(path -> path.toFile().delete());
+		}
+	}
+
+	private static Path createDirectory() {
+		try {
+			return Files.createTempDirectory("gitclout-recorded");
+		} catch (IOException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	private static String createRepository(String name) throws Exception {
+		Path directory = DIRECTORY.resolve(name);
+		SyntheticRepositoryGenerator.tagged(directory, Map.of("Main.java", SyntheticRepositoryGenerator.MAIN_JAVA)).close();
+		return directory.toUri().toString();
+	}
+
+	@Test
+	public void recordedIngestWritesTheEventsOfItsProject() throws Exception {
+		String recordedUrl = createRepository("recorded");
+		String otherUrl = createRepository("other");
+		var other = repositoryService.addRepository(otherUrl).toFuture();
+		RepositoryData recorded = Objects.requireNonNull(repositoryService.addRepository(recordedUrl, AnalysisMode.FULL, 0, true).block());
+		other.join();
+		assertEquals(0, recorded.error());
+		assertTrue(recordings.recordings().isEmpty());
+
+		Path file;
+		try (var files = Files.list(DIRECTORY.resolve("recordings"))) {
+			file = files.filter(path -> path.getFileName().toString().startsWith(recorded.repositoryName() + "-")).findFirst().orElseThrow();
+		}
+		List<RecordedEvent> blames = RecordingFile.readAllEvents(file).stream()
+				.filter(event -> event.getEventType().getName().equals("fr.uge.gitclout.Blame"))
+				.filter(event -> recorded.repositoryName().equals(event.getString("project")))
+				.toList();
+		assertEquals(1, blames.size());
+		assertEquals("Main.java", blames.get(0).getString("path"));
+	}
+}
@@ -0,0 +1,72 @@
+package fr.uge.gitclout.repositories.services;
+
+import fr.uge.gitclout.tags.services.TagService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.api.errors.GitAPIException;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RepositoryRegistryTests {
+
+	private static final String PROJECT = "registry-test.git_00000000-000000";
+
+	@BeforeAll
+	static void setUp() throws GitAPIException {
+		Git.init().setBare(true).setDirectory(TagService.getRepositoryPath(PROJECT).toFile()).call().close();
+	}
+
+	@Test
+	public void sharedHandleTest() throws IOException {
+		var registry = new RepositoryRegistry(60_000, new SimpleMeterRegistry());
+		try (var first = registry.acquire(PROJECT); var second = registry.acquire(PROJECT)) {
+			assertSame(first.repository(), second.repository());
+			assertEquals(1, registry.openHandles());
+		}
+		assertEquals(1, registry.openHandles());
+		registry.evict("registry-test.git");
+		assertEquals(0, registry.openHandles());
+	}
+
+	@Test
+	public void idleHandleTest() throws IOException {
+		var registry = new RepositoryRegistry(0, new SimpleMeterRegistry());
+		var handle = registry.acquire(PROJECT);
+		registry.closeIdle();
+		assertEquals(1, registry.openHandles());
+		handle.close();
+		handle.close();
+		registry.closeIdle();
+		assertEquals(0, registry.openHandles());
+	}
+
+	@Test
+	public void concurrentAcquireTest() throws InterruptedException {
+		var registry = new RepositoryRegistry(60_000, new SimpleMeterRegistry());
+		try (var executor = Executors.newFixedThreadPool(8)) {
+			for (int i = 0; i < 200; i++) {
+				executor.submit(() -> {
+					try (var handle = registry.acquire(PROJECT)) {
+						handle.git().tagList().call();
+					}
+					return null;
+				});
+			}
+		}
+		assertEquals(1, registry.openHandles());
+		registry.closeIdle();
+		assertEquals(1, registry.openHandles());
+	}
+
+	@Test
+	public void missingRepositoryTest() {
+		var registry = new RepositoryRegistry(60_000, new SimpleMeterRegistry());
+		assertThrows(IOException.class, () -> registry.acquire("no"));
+		assertEquals(0, registry.openHandles());
+	}
+}
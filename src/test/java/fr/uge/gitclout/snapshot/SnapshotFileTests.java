@@ -0,0 +1,65 @@
+package fr.uge.gitclout.snapshot;
+
+import fr.uge.gitclout.analyze.api.data.ContributorData;
+import fr.uge.gitclout.analyze.jpa.ContributorRow;
+import fr.uge.gitclout.tags.jpa.ContributorHistoryRow;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SnapshotFileTests {
+
+	private static final String PROJECT = "snapshot-test.git_00000000-000000";
+
+	@TempDir
+	Path directory;
+
+	private SnapshotFile writeAndOpen() throws IOException {
+		Path file = directory.resolve(PROJECT + ".snap");
+		SnapshotFile.write(file, List.of("v1.0.0", "v1.1.0", "v2.0.0"), List.of(
+				new ContributorRow("Zoé", "java", "v1.0.0", 10, PROJECT),
+				new ContributorRow("Bruno", "python", "v1.0.0", 7, PROJECT),
+				new ContributorRow("Bruno", "comments", "v1.0.0", 21, PROJECT),
+				new ContributorRow("Bruno", "python", "v2.0.0", 12, PROJECT),
+				new ContributorRow("Alice", "java", "v2.0.0", 5, PROJECT),
+				new ContributorRow("Ghost", "java", "v9.9.9", 3, PROJECT)));
+		assertFalse(Files.exists(directory.resolve(PROJECT + ".snap.tmp")));
+		return SnapshotFile.open(file);
+	}
+
+	@Test
+	public void contributorsTest() throws IOException {
+		SnapshotFile snapshot = writeAndOpen();
+		assertEquals(List.of(
+				new ContributorData("Bruno", Map.of("python", 7, "comments", 21)),
+				new ContributorData("Zoé", Map.of("java", 10))), snapshot.contributors("v1.0.0").orElseThrow());
+		assertTrue(snapshot.contributors("v1.1.0").isEmpty());
+		assertTrue(snapshot.contributors("v9.9.9").isEmpty());
+	}
+
+	@Test
+	public void historyTest() throws IOException {
+		SnapshotFile snapshot = writeAndOpen();
+		assertEquals(List.of(
+				new ContributorHistoryRow("Bruno", "v1.0.0", 0, 28),
+				new ContributorHistoryRow("Zoé", "v1.0.0", 0, 10)), snapshot.history("v1.0.0", 5).orElseThrow());
+		assertEquals(List.of(
+				new ContributorHistoryRow("Alice", "v2.0.0", 2, 5),
+				new ContributorHistoryRow("Bruno", "v2.0.0", 2, 12)), snapshot.history("v2.0.0", 1).orElseThrow());
+		assertTrue(snapshot.history("v2.0.0", 2).isEmpty());
+		assertTrue(snapshot.history("v9.9.9", 2).isEmpty());
+	}
+
+	@Test
+	public void invalidFileTest() throws IOException {
+		Path file = Files.writeString(directory.resolve("invalid.snap"), "not a snapshot file");
+		assertThrows(IOException.class, () -> SnapshotFile.open(file));
+	}
+}
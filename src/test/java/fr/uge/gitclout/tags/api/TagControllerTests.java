@@ -0,0 +1,74 @@
+package fr.uge.gitclout.tags.api;
+
+import fr.uge.gitclout.tags.api.data.TagData;
+import fr.uge.gitclout.tags.services.ActivityService;
+import fr.uge.gitclout.tags.services.ContributorSort;
+import fr.uge.gitclout.tags.services.QuickScanService;
+import fr.uge.gitclout.tags.services.SummaryService;
+import fr.uge.gitclout.tags.services.TagService;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+import java.util.Objects;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TagControllerTests {
+
+	private static final String PROJECT = "project_20231201-101010-1";
+	private static final String OBJECT_ID = "0123456789abcdef0123456789abcdef01234567";
+
+	private final TagService tagService = Mockito.mock(TagService.class);
+	private final TagController controller = new TagController(tagService, Mockito.mock(SummaryService.class),
+			Mockito.mock(QuickScanService.class), Mockito.mock(ActivityService.class));
+
+	private ResponseEntity<List<TagData>> getTags(String refName, String ifNoneMatch) {
+		Mockito.when(tagService.getTagRefs(PROJECT)).thenReturn(Flux.just(refName + " " + OBJECT_ID));
+		Mockito.when(tagService.getTags(PROJECT)).thenReturn(Flux.just(new TagData(PROJECT, refName)));
+		return controller.getTags(PROJECT, ifNoneMatch).block();
+	}
+
+	@Test
+	public void tagsNotModifiedTest() {
+		var first = Objects.requireNonNull(getTags("refs/tags/v1.0.0", null));
+		assertEquals(HttpStatus.OK, first.getStatusCode());
+		String etag = first.getHeaders().getETag();
+		assertNotNull(etag);
+
+		Mockito.clearInvocations(tagService);
+		var hit = Objects.requireNonNull(getTags("refs/tags/v1.0.0", etag));
+		assertEquals(HttpStatus.NOT_MODIFIED, hit.getStatusCode());
+		assertEquals(etag, hit.getHeaders().getETag());
+		assertNull(hit.getBody());
+		Mockito.verify(tagService, Mockito.never()).getTags(PROJECT);
+
+		var miss = Objects.requireNonNull(getTags("refs/tags/v1.0.0", "\"other\""));
+		assertEquals(HttpStatus.OK, miss.getStatusCode());
+		assertEquals(etag, miss.getHeaders().getETag());
+		assertEquals(List.of(new TagData(PROJECT, "refs/tags/v1.0.0")), miss.getBody());
+	}
+
+	@Test
+	public void renamedTagChangesETagTest() {
+		String etag = Objects.requireNonNull(getTags("refs/tags/v1.0.0", null)).getHeaders().getETag();
+		var renamed = Objects.requireNonNull(getTags("refs/tags/release-1.0.0", etag));
+		assertEquals(HttpStatus.OK, renamed.getStatusCode());
+		assertNotEquals(etag, renamed.getHeaders().getETag());
+		assertEquals(List.of(new TagData(PROJECT, "refs/tags/release-1.0.0")), renamed.getBody());
+	}
+
+	@Test
+	public void negativePageTest() {
+		for (int[] page : new int[][]{{-1, 0}, {0, -1}}) {
+			var error = assertThrows(ResponseStatusException.class,
+					() -> controller.getContributors(PROJECT, "v1.0.0", ContributorSort.LINES, null, page[0], page[1], null).block());
+			assertEquals(HttpStatus.BAD_REQUEST, error.getStatusCode());
+		}
+		Mockito.verifyNoInteractions(tagService);
+	}
+}
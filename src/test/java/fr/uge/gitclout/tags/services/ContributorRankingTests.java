@@ -0,0 +1,52 @@
+package fr.uge.gitclout.tags.services;
+
+import fr.uge.gitclout.analyze.api.data.ContributorData;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ContributorRankingTests {
+
+	private final List<ContributorData> contributors = List.of(
+			new ContributorData("Alice", Map.of("java", 5, "python", 40)),
+			new ContributorData("Bruno", Map.of("java", 30)),
+			new ContributorData("Chloé", Map.of("java", 12, "python", 12)),
+			new ContributorData("David", Map.of("python", 2)));
+
+	private List<String> names(List<ContributorData> page) {
+		return page.stream().map(ContributorData::name).toList();
+	}
+
+	@Test
+	public void nameOrderTest() {
+		assertEquals(List.of("Bruno", "Chloé"), names(ContributorRanking.page(contributors, ContributorSort.NAME, null, 1, 2)));
+		assertEquals(List.of(), names(ContributorRanking.page(contributors, ContributorSort.NAME, null, 10, 2)));
+	}
+
+	@Test
+	public void totalLinesTest() {
+		assertEquals(List.of("Alice", "Bruno", "Chloé", "David"), names(ContributorRanking.page(contributors, ContributorSort.LINES, null, 0, 0)));
+		assertEquals(List.of("Alice", "Bruno"), names(ContributorRanking.page(contributors, ContributorSort.LINES, null, 0, 2)));
+		assertEquals(List.of("Chloé"), names(ContributorRanking.page(contributors, ContributorSort.LINES, null, 2, 1)));
+	}
+
+	@Test
+	public void languageLinesTest() {
+		assertEquals(List.of("Bruno", "Chloé", "Alice"), names(ContributorRanking.page(contributors, ContributorSort.LINES, "java", 0, 3)));
+		assertEquals(List.of("David"), names(ContributorRanking.page(contributors, ContributorSort.LINES, "java", 3, 5)));
+	}
+
+	@Test
+	public void largeLimitTest() {
+		assertEquals(List.of("Bruno", "Chloé", "David"), names(ContributorRanking.page(contributors, ContributorSort.LINES, null, 1, Integer.MAX_VALUE)));
+		assertEquals(List.of(), names(ContributorRanking.page(contributors, ContributorSort.LINES, "java", Integer.MAX_VALUE, Integer.MAX_VALUE)));
+	}
+
+	@Test
+	public void invalidPageTest() {
+		assertThrows(IllegalArgumentException.class, () -> ContributorRanking.page(contributors, ContributorSort.NAME, null, -1, 0));
+	}
+}
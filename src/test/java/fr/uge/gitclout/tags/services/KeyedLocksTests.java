@@ -0,0 +1,52 @@
+package fr.uge.gitclout.tags.services;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KeyedLocksTests {
+
+	@Test
+	public void sameKeyRunsOneAtATimeAndIsForgotten() throws Exception {
+		var locks = new KeyedLocks();
+		var running = new AtomicInteger();
+		var overlaps = new AtomicInteger();
+		var runs = new AtomicInteger();
+		var executor = Executors.newFixedThreadPool(8);
+		try {
+			List<Future<?>> futures = new ArrayList<>();
+			for (int i = 0; i < 200; i++) {
+				String key = "project/v" + (i % 3);
+				futures.add(executor.submit(() -> locks.run(key, () -> {
+					if (key.equals("project/v0") && running.incrementAndGet() > 1) overlaps.incrementAndGet();
+					Thread.onSpinWait();
+					runs.incrementAndGet();
+					if (key.equals("project/v0")) running.decrementAndGet();
+				})));
+			}
+			for (Future<?> future : futures) {
+				future.get();
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+		assertEquals(0, overlaps.get());
+		assertEquals(200, runs.get());
+		assertEquals(0, locks.size());
+	}
+
+	@Test
+	public void failingActionReleasesItsKey() {
+		var locks = new KeyedLocks();
+		assertThrows(IllegalStateException.class, () -> locks.run("project/v1", () -> {
+			throw new IllegalStateException();
+		}));
+		assertEquals(0, locks.size());
+	}
+}
@@ -0,0 +1,170 @@
+package fr.uge.gitclout.tags.services;
+
+import fr.uge.gitclout.GitcloutApplication;
+import fr.uge.gitclout.analyze.Contributor;
+import fr.uge.gitclout.analyze.jpa.ContributorRequest;
+import fr.uge.gitclout.analyze.jpa.ContributorRow;
+import fr.uge.gitclout.repositories.services.RepositoryService;
+import fr.uge.gitclout.tags.api.data.LanguageTotalData;
+import fr.uge.gitclout.tags.api.data.TagSummaryData;
+import fr.uge.gitclout.tags.jpa.ContributorHistoryRow;
+import fr.uge.gitclout.tags.jpa.TagIndexStorage;
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.api.errors.GitAPIException;
+import org.eclipse.jgit.lib.PersonIdent;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks the summary tables against the totals computed from the contributor rows, tag by tag.
+ */
+@SpringBootTest(classes = GitcloutApplication.class)
+class SummaryServiceTests {
+
+	private static final Path DIRECTORY = createDirectory();
+
+	@Autowired
+	private RepositoryService repositoryService;
+
+	@Autowired
+	private SummaryService summaryService;
+
+	@Autowired
+	private TagIndexService tagIndexService;
+
+	@Autowired
+	private ContributorRequest contributorRequest;
+
+	private static String project;
+
+	@DynamicPropertySource
+	static void database(DynamicPropertyRegistry registry) {
+		registry.add("spring.datasource.url", () -> "jdbc:sqlite:" + DIRECTORY.resolve("summary.db"));
+	}
+
+	@AfterAll
+	static void tearDown() throws IOException {
+		try (var paths = Files.walk(DIRECTORY)) {
+			paths.sorted((first, second) -> second.compareTo(first)).forEach(path -> path.toFile().delete());
+		}
+	}
+
+	private static Path createDirectory() {
+		try {
+			return Files.createTempDirectory("gitclout-summary");
+		} catch (IOException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	private static void commit(Git git, String author) throws GitAPIException {
+		var ident = new PersonIdent(author, author.toLowerCase() + "@example.com");
+		git.add().addFilepattern(".").call();
+		git.commit().setMessage("work of " + author).setAuthor(ident).setCommitter(ident).call();
+	}
+
+	@BeforeAll
+	static void ingest(@Autowired RepositoryService repositoryService) throws IOException, GitAPIException {
+		Path directory = DIRECTORY.resolve("summary.git");
+		try (Git git = Git.init().setDirectory(directory.toFile()).call()) {
+			Files.writeString(directory.resolve("Main.java"), "class Main {\n    // entry\n    int a;\n}\n");
+			commit(git, "Alice");
+			git.tag().setName("v1.0.0").call();
+			Files.writeString(directory.resolve("tool.py"), "# tool\nx = 1\ny = 2\n");
+			commit(git, "Bob");
+			git.tag().setName("v2.0.0").call();
+			Files.writeString(directory.resolve("Main.java"), "class Main {\n    // entry\n    int a;\n    int b;\n}\n");
+			Files.writeString(directory.resolve("tool.py"), "# tool\nx = 1\n");
+			commit(git, "Alice");
+			git.tag().setName("v3.0.0").call();
+		}
+		project = Objects.requireNonNull(repositoryService.addRepository(directory.toUri().toString()).block()).repositoryName();
+	}
+
+	private List<ContributorRow> rows(String tagId) {
+		return contributorRequest.findByProjectNameAndTagIdOrderByContributorName(project, tagId);
+	}
+
+	@Test
+	public void summariesMatchContributorRows() {
+		List<TagIndexStorage> index = tagIndexService.getIndex(project);
+		assertEquals(3, index.size());
+		for (TagIndexStorage tag : index) {
+			List<ContributorRow> rows = rows(tag.tagId());
+			assertFalse(rows.isEmpty());
+			var expected = new TagSummaryData(tag.tagId(), rows.stream().mapToInt(ContributorRow::numberOfLines).sum(),
+					(int) rows.stream().map(ContributorRow::contributorName).distinct().count(),
+					(int) rows.stream().map(ContributorRow::languageName).distinct().count());
+			assertEquals(expected, summaryService.getTagSummary(project, tag.tagId()).block());
+
+			Map<String, Integer> languages = rows.stream()
+					.collect(Collectors.toMap(ContributorRow::languageName, ContributorRow::numberOfLines, Integer::sum));
+			List<LanguageTotalData> totals = Objects.requireNonNull(summaryService.getLanguageTotals(project, tag.tagId()).collectList().block());
+			assertEquals(languages, totals.stream().collect(Collectors.toMap(LanguageTotalData::name, LanguageTotalData::numberOfLines)));
+			for (int i = 1; i < totals.size(); i++) {
+				assertTrue(totals.get(i - 1).numberOfLines() >= totals.get(i).numberOfLines());
+			}
+		}
+	}
+
+	/**
+	 * Computes the history as it was before the single query: the contributor rows of each tag of the
+	 * window are read and summed one tag at a time.
+	 */
+	private List<ContributorHistoryRow> historyPerTag(List<TagIndexStorage> index, int current, int number) {
+		List<ContributorHistoryRow> history = new ArrayList<>();
+		for (int position = Math.max(0, current - number + 1); position <= current; position++) {
+			String tagId = index.get(position).tagId();
+			Map<String, Integer> totals = new TreeMap<>();
+			rows(tagId).forEach(row -> totals.merge(row.contributorName(), row.numberOfLines(), Integer::sum));
+			int tagPosition = position;
+			totals.forEach((name, lines) -> history.add(new ContributorHistoryRow(name, tagId, tagPosition, lines)));
+		}
+		return history;
+	}
+
+	@Test
+	public void historyMatchesPerTagComputation() {
+		List<TagIndexStorage> index = tagIndexService.getIndex(project);
+		Comparator<ContributorHistoryRow> order = Comparator.comparingInt(ContributorHistoryRow::position)
+				.thenComparing(ContributorHistoryRow::contributorName);
+		for (int current = 0; current < index.size(); current++) {
+			for (int number = 1; number <= index.size() + 1; number++) {
+				List<ContributorHistoryRow> history = summaryService.getContributorHistory(project, index.get(current).tagId(), number);
+				assertEquals(historyPerTag(index, current, number), history.stream().sorted(order).toList());
+			}
+		}
+		assertEquals(List.of(), summaryService.getContributorHistory(project, "v9.9.9", 3));
+	}
+
+	@Test
+	public void deleteSummariesKeepsOtherRepositories() {
+		for (String other : List.of("other_20240101-000000-1", "other2_20240101-000000-2")) {
+			summaryService.saveSummaries(Map.of("Alice", new Contributor("Alice", new HashMap<>(Map.of("java", 3)))), "v1.0.0", other, "abc");
+		}
+		summaryService.deleteSummaries("other");
+		assertNull(summaryService.getTagSummary("other_20240101-000000-1", "v1.0.0").block());
+		assertEquals(List.of(), summaryService.getLanguageTotals("other_20240101-000000-1", "v1.0.0").collectList().block());
+		assertEquals(new TagSummaryData("v1.0.0", 3, 1, 1), summaryService.getTagSummary("other2_20240101-000000-2", "v1.0.0").block());
+		assertNotNull(summaryService.getTagSummary(project, "v1.0.0").block());
+	}
+}
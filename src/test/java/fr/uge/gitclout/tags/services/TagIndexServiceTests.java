@@ -0,0 +1,106 @@
+package fr.uge.gitclout.tags.services;
+
+import fr.uge.gitclout.GitcloutApplication;
+import fr.uge.gitclout.tags.jpa.TagIndexRequest;
+import fr.uge.gitclout.tags.jpa.TagIndexStorage;
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.api.errors.GitAPIException;
+import org.eclipse.jgit.lib.PersonIdent;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.StreamSupport;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(classes = GitcloutApplication.class)
+class TagIndexServiceTests {
+
+	private static final String PROJECT = "index.git_20240101-000000-1";
+	private static final Path DIRECTORY = createDirectory();
+
+	@Autowired
+	private TagIndexService tagIndexService;
+
+	@Autowired
+	private TagIndexRequest tagIndexRequest;
+
+	@DynamicPropertySource
+	static void database(DynamicPropertyRegistry registry) {
+		registry.add("spring.datasource.url", () -> "jdbc:sqlite:" + DIRECTORY.resolve("index.db"));
+	}
+
+	@AfterAll
+	static void tearDown() throws IOException {
+		try (var paths = Files.walk(DIRECTORY)) {
+			paths.sorted((first, second) -> second.compareTo(first)).forEach(path -> path.toFile().delete());
+		}
+	}
+
+	private static Path createDirectory() {
+		try {
+			return Files.createTempDirectory("gitclout-index");
+		} catch (IOException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	private static List<String> tagIds(List<TagIndexStorage> index) {
+		return index.stream().map(TagIndexStorage::tagId).toList();
+	}
+
+	@Test
+	public void reindexReplacesTheFormerIndex() throws Exception {
+		Path directory = DIRECTORY.resolve("index.git");
+		var author = new PersonIdent("Alice", "alice@example.com");
+		try (Git git = Git.init().setDirectory(directory.toFile()).call()) {
+			Files.writeString(directory.resolve("Main.java"), "class Main {}\n");
+			git.add().addFilepattern(".").call();
+			git.commit().setMessage("initial").setAuthor(author).setCommitter(author).call();
+			git.tag().setName("v1.0.0").call();
+			assertEquals(List.of("v1.0.0"), tagIds(tagIndexService.indexTags(git, PROJECT)));
+
+			Files.writeString(directory.resolve("Main.java"), "class Main {\n    int a;\n}\n");
+			git.commit().setAll(true).setMessage("field").setAuthor(author).setCommitter(author).call();
+			git.tag().setName("v2.0.0").call();
+			List<TagIndexStorage> index = tagIndexService.indexTags(git, PROJECT);
+			assertEquals(List.of("v1.0.0", "v2.0.0"), tagIds(index));
+			assertEquals(PROJECT, index.get(0).projectName());
+		}
+		assertEquals(List.of("v1.0.0", "v2.0.0"), tagIds(tagIndexService.getIndex(PROJECT)));
+		assertEquals(List.of(PROJECT, PROJECT), StreamSupport.stream(tagIndexRequest.findAll().spliterator(), false)
+				.map(TagIndexStorage::projectName).toList());
+	}
+
+	@Test
+	public void ancestryOrderTest() throws IOException, GitAPIException {
+		Path directory = DIRECTORY.resolve("ancestry");
+		List<String> commits = new ArrayList<>();
+		try (Git git = Git.init().setDirectory(directory.toFile()).call()) {
+			for (String version : List.of("v9.0.0", "v10.0.0", "v11.0.0")) {
+				Files.writeString(directory.resolve("Main.java"), "class Main { /* " + version + " */ }\n");
+				git.add().addFilepattern("Main.java").call();
+				commits.add(git.commit().setMessage(version).call().getName());
+				git.tag().setName(version).setAnnotated(version.equals("v11.0.0")).call();
+			}
+			git.tag().setName("a-release").setObjectId(git.getRepository().parseCommit(git.getRepository().resolve(commits.get(0)))).call();
+
+			List<TagIndexStorage> index = TagIndexService.buildIndex(git, "index-test");
+			assertEquals(List.of("a-release", "v9.0.0", "v10.0.0", "v11.0.0"), index.stream().map(TagIndexStorage::tagId).toList());
+			assertEquals(List.of(0, 1, 2, 3), index.stream().map(TagIndexStorage::position).toList());
+			assertEquals(commits.get(2), index.get(3).commitId());
+			assertNotEquals(index.get(3).commitId(), index.get(3).objectId());
+			assertEquals("refs/tags/v10.0.0", index.get(2).refName());
+			assertTrue(index.get(0).commitTime() <= index.get(3).commitTime());
+		}
+	}
+}